@@ -0,0 +1,200 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH dels camins crítics: validació, generació de moviments,
+ * perft, càrrega de FEN, diari de partides, parseig de moviments i impressió del tauler.
+ * S'executen amb: mvn -Pbenchmark compile exec:exec
+ * Els resultats es desen a target/jmh-result.json.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessBenchmark {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private Board board;
+    private MoveValidator validator;
+    private MoveGenerator generator;
+    private Perft perft;
+    private UIConsole ui;
+    private SanParser sanParser;
+    private int[] moves;
+    private Board fenBoard;
+    private ByteBuffer fenBytes;
+    private PrintStream originalOut;
+    private Path journalFile;
+    private GameJournal journal;
+    private int journalMove;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        board = new Board();
+        validator = new MoveValidator(board);
+        generator = new MoveGenerator(board);
+        perft = new Perft(board);
+        ui = new UIConsole();
+        sanParser = new SanParser(board);
+        moves = new int[MoveGenerator.MAX_MOVES];
+        fenBoard = new Board();
+        fenBytes = ByteBuffer.wrap(KIWIPETE.getBytes(StandardCharsets.US_ASCII));
+        journalFile = Files.createTempFile("benchmark", ".journal");
+        journal = GameJournal.open(journalFile);
+        journal.startGame("Blanques", "Negres", false, false);
+        journalMove = generator.createMove(Bitboards.square(6, 4), Bitboards.square(4, 4), Piece.NO_PIECE);
+
+        // La impressió del tauler no ha de mesurar la consola
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        journal.close();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public boolean validateKnightMove() {
+        return validator.validateMove(7, 1, 5, 2, true);
+    }
+
+    @Benchmark
+    public boolean validateQueenMove() {
+        return validator.validateMove(7, 3, 5, 5, true);
+    }
+
+    /**
+     * Moviment rebutjat pel camí antic, que escriu el motiu per consola.
+     */
+    @Benchmark
+    public boolean validateRejectedMovePrinting() {
+        return validator.validateMove(7, 1, 5, 1, true);
+    }
+
+    /**
+     * El mateix moviment rebutjat pel camí silenciós, que només retorna el codi.
+     */
+    @Benchmark
+    public int checkRejectedMoveSilent() {
+        return validator.checkMove(7, 1, 5, 1, true);
+    }
+
+    /**
+     * Moviment vàlid pel camí silenciós, incloent la comprovació que el rei no queda
+     * en escac. Objectiu: per sota de 100 ns per moviment.
+     */
+    @Benchmark
+    public int checkLegalMove() {
+        return validator.checkMove(7, 1, 5, 2, true);
+    }
+
+    /**
+     * Es crida a cada torn de la partida; fora d'escac ha de costar el mateix que isInCheck.
+     */
+    @Benchmark
+    public boolean isCheckmate() {
+        return generator.isCheckmate(true);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return generator.isInCheck(true);
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return generator.generateLegalMoves(moves, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long perftStartPosition() {
+        return perft.perft(3);
+    }
+
+    @Benchmark
+    public long loadFenString() {
+        fenBoard.loadFen(KIWIPETE);
+        return fenBoard.hash();
+    }
+
+    @Benchmark
+    public long loadFenByteBuffer() {
+        fenBytes.rewind();
+        fenBoard.loadFen(fenBytes);
+        return fenBoard.hash();
+    }
+
+    /**
+     * Avaluació a partir de les sumes incrementals del tauler.
+     */
+    @Benchmark
+    public int evaluate() {
+        return Evaluation.evaluate(board);
+    }
+
+    /**
+     * Mateixa avaluació recorrent tots els bitboards, per comparar.
+     */
+    @Benchmark
+    public int evaluateFromScratch() {
+        return Evaluation.evaluateFromScratch(board);
+    }
+
+    /**
+     * Cost que afegeix el diari al bucle de jugades (l'escriptura és en un altre fil).
+     */
+    @Benchmark
+    public void journalRecordMove() {
+        journal.recordMove(journalMove);
+    }
+
+    @Benchmark
+    public char movePieceAndBack() {
+        board.movePiece(7, 1, 5, 2);
+        board.movePiece(5, 2, 7, 1);
+        return board.getPiece(7, 1);
+    }
+
+    @Benchmark
+    public int parseMove() {
+        return ui.parseMove("e2 e4", sanParser);
+    }
+
+    @Benchmark
+    public int parseSanMove() {
+        return ui.parseMove("Nf3", sanParser);
+    }
+
+    @Benchmark
+    public void printBoard() {
+        board.printBoard();
+    }
+}
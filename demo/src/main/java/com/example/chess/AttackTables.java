@@ -0,0 +1,198 @@
+package com.example.chess;
+
+/**
+ * Taules d'atac precalculades per a totes les peces.
+ * Cavall, rei i peó tenen una màscara per casella. Torre, alfil i reina
+ * fan servir taules de raigs: per cada direcció es pren el raig sencer i
+ * es talla a partir de la primera peça que el bloqueja.
+ * Les taules es calculen una sola vegada en carregar la classe.
+ */
+public final class AttackTables {
+
+    // Direccions en índex de casella: files cap avall (+8) i columnes cap a la dreta (+1)
+    private static final int NORTH = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int EAST = 3;
+    private static final int NORTH_WEST = 4;
+    private static final int NORTH_EAST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+    private static final int DIRECTION_COUNT = 8;
+
+    private static final int[] ROW_STEPS = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] COL_STEPS = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final int[] OPPOSITE = {SOUTH, NORTH, EAST, WEST, SOUTH_EAST, SOUTH_WEST, NORTH_EAST, NORTH_WEST};
+
+    private static final int[][] KNIGHT_DELTAS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[Bitboards.SQUARE_COUNT];
+    private static final long[] KING_ATTACKS = new long[Bitboards.SQUARE_COUNT];
+    private static final long[] WHITE_PAWN_ATTACKS = new long[Bitboards.SQUARE_COUNT];
+    private static final long[] BLACK_PAWN_ATTACKS = new long[Bitboards.SQUARE_COUNT];
+    private static final long[][] RAYS = new long[DIRECTION_COUNT][Bitboards.SQUARE_COUNT];
+    private static final long[] BETWEEN = new long[Bitboards.SQUARE_COUNT * Bitboards.SQUARE_COUNT];
+    private static final long[] LINE = new long[Bitboards.SQUARE_COUNT * Bitboards.SQUARE_COUNT];
+
+    private static final long INIT_TIME_NANOS;
+
+    static {
+        long start = System.nanoTime();
+        for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+            initStepAttacks(square);
+            for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+                RAYS[direction][square] = computeRay(square, direction);
+            }
+            for (int target = 0; target < Bitboards.SQUARE_COUNT; target++) {
+                BETWEEN[square * Bitboards.SQUARE_COUNT + target] = Bitboards.between(square, target);
+            }
+        }
+        for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+            initLines(square);
+        }
+        INIT_TIME_NANOS = System.nanoTime() - start;
+    }
+
+    private AttackTables() {
+    }
+
+    /**
+     * Obté el temps que ha costat calcular les taules.
+     *
+     * @return Temps d'inicialització en nanosegons
+     */
+    public static long getInitTimeNanos() {
+        return INIT_TIME_NANOS;
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Caselles que ataca un peó des d'una casella.
+     *
+     * @param square Casella del peó
+     * @param white true si el peó és blanc (avança cap a la fila 0)
+     * @return Bitboard de caselles atacades
+     */
+    public static long pawnAttacks(int square, boolean white) {
+        return white ? WHITE_PAWN_ATTACKS[square] : BLACK_PAWN_ATTACKS[square];
+    }
+
+    /**
+     * Caselles entre dues caselles alineades, sense incloure els extrems.
+     *
+     * @param from Casella origen
+     * @param to Casella destí
+     * @return Bitboard de caselles intermèdies o 0 si no estan alineades
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from * Bitboards.SQUARE_COUNT + to];
+    }
+
+    /**
+     * Línia completa (fila, columna o diagonal) que passa per dues caselles alineades,
+     * incloent-les. Serveix per saber si una peça clavada es manté sobre la línia del rei.
+     *
+     * @param first Primera casella
+     * @param second Segona casella
+     * @return Bitboard de la línia o 0 si no estan alineades
+     */
+    public static long line(int first, int second) {
+        return LINE[first * Bitboards.SQUARE_COUNT + second];
+    }
+
+    public static long rookAttacks(int square, long occupancy) {
+        return negativeRayAttacks(square, occupancy, NORTH)
+                | positiveRayAttacks(square, occupancy, SOUTH)
+                | negativeRayAttacks(square, occupancy, WEST)
+                | positiveRayAttacks(square, occupancy, EAST);
+    }
+
+    public static long bishopAttacks(int square, long occupancy) {
+        return negativeRayAttacks(square, occupancy, NORTH_WEST)
+                | negativeRayAttacks(square, occupancy, NORTH_EAST)
+                | positiveRayAttacks(square, occupancy, SOUTH_WEST)
+                | positiveRayAttacks(square, occupancy, SOUTH_EAST);
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Raig en una direcció d'índexs creixents: el primer bloquejador és el bit més baix.
+     */
+    private static long positiveRayAttacks(int square, long occupancy, int direction) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupancy;
+        if (blockers != 0) {
+            ray ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    /**
+     * Raig en una direcció d'índexs decreixents: el primer bloquejador és el bit més alt.
+     */
+    private static long negativeRayAttacks(int square, long occupancy, int direction) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupancy;
+        if (blockers != 0) {
+            ray ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static void initStepAttacks(int square) {
+        int row = Bitboards.rowOf(square);
+        int col = Bitboards.colOf(square);
+
+        for (int[] delta : KNIGHT_DELTAS) {
+            KNIGHT_ATTACKS[square] |= maskIfOnBoard(row + delta[0], col + delta[1]);
+        }
+        for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+            KING_ATTACKS[square] |= maskIfOnBoard(row + ROW_STEPS[direction], col + COL_STEPS[direction]);
+        }
+        WHITE_PAWN_ATTACKS[square] = maskIfOnBoard(row - 1, col - 1) | maskIfOnBoard(row - 1, col + 1);
+        BLACK_PAWN_ATTACKS[square] = maskIfOnBoard(row + 1, col - 1) | maskIfOnBoard(row + 1, col + 1);
+    }
+
+    private static void initLines(int square) {
+        for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+            long line = RAYS[direction][square] | RAYS[OPPOSITE[direction]][square] | Bitboards.bit(square);
+            long targets = RAYS[direction][square];
+            while (targets != 0) {
+                LINE[square * Bitboards.SQUARE_COUNT + Long.numberOfTrailingZeros(targets)] = line;
+                targets &= targets - 1;
+            }
+        }
+    }
+
+    private static long computeRay(int square, int direction) {
+        long ray = Bitboards.EMPTY;
+        int row = Bitboards.rowOf(square) + ROW_STEPS[direction];
+        int col = Bitboards.colOf(square) + COL_STEPS[direction];
+        while (isOnBoard(row, col)) {
+            ray |= Bitboards.bit(Bitboards.square(row, col));
+            row += ROW_STEPS[direction];
+            col += COL_STEPS[direction];
+        }
+        return ray;
+    }
+
+    private static long maskIfOnBoard(int row, int col) {
+        return isOnBoard(row, col) ? Bitboards.bit(Bitboards.square(row, col)) : Bitboards.EMPTY;
+    }
+
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
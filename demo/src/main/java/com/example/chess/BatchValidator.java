@@ -0,0 +1,506 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Validació en paral·lel d'arxius de partides.
+ * L'entrada es divideix en trossos que acaben en un límit de partida i cada tros es
+ * valida en un ForkJoinPool. Cada fil del pool té el seu propi Board i MoveValidator
+ * (vegeu Worker), de manera que no es comparteix cap estat mutable entre fils.
+ * Els resultats dels trossos es combinen en ordre en un Summary.
+ *
+ * Formats admesos:
+ * - PGN (vegeu PgnReader); els trossos es tallen davant de l'etiqueta [Event], de manera
+ *   que un fitxer sense aquesta etiqueta es valida sencer en un sol fil
+ * - Coordenades: una partida per línia, jugades com les de la consola separades
+ *   per comes (ex: "e7 e5, e2 e4"); les línies buides o que comencen per '#' s'ignoren
+ */
+public class BatchValidator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int BOUNDARY_WINDOW = 64 * 1024;
+    private static final String EVENT_TAG = "[Event ";
+
+    /**
+     * Format de les partides de l'entrada.
+     */
+    public enum Format {
+        PGN,
+        COORDINATES;
+
+        /**
+         * Dedueix el format a partir de l'extensió del fitxer (".pgn" o qualsevol altra).
+         *
+         * @param path Ruta del fitxer
+         * @return Format corresponent
+         */
+        public static Format of(Path path) {
+            return path.toString().toLowerCase().endsWith(".pgn") ? PGN : COORDINATES;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Constructor amb la mida de tros per defecte.
+     *
+     * @param threads Nombre de fils del pool
+     */
+    public BatchValidator(int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor que rep el nombre de fils i la mida aproximada de cada tros.
+     *
+     * @param threads Nombre de fils del pool
+     * @param chunkSize Mida aproximada de cada tros en bytes
+     */
+    public BatchValidator(int threads, int chunkSize) {
+        this.pool = new ForkJoinPool(threads);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Valida totes les partides d'un fitxer. Cada tros es projecta a memòria
+     * per separat, de manera que el fitxer no es carrega mai sencer.
+     *
+     * @param path Ruta del fitxer
+     * @param format Format de les partides
+     * @return Resum de la validació
+     * @throws IOException si el fitxer no es pot llegir
+     */
+    public Summary validate(Path path, Format format) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = splitFile(channel, format);
+            ChunkResult result = pool.invoke(new ChunkTask(bounds, 0, bounds.length - 1, format,
+                    (from, to) -> channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)));
+            return new Summary(result, System.nanoTime() - start, pool.getParallelism());
+        }
+    }
+
+    /**
+     * Valida totes les partides contingudes entre la posició i el límit d'un buffer.
+     *
+     * @param input Text de les partides (no es modifica)
+     * @param format Format de les partides
+     * @return Resum de la validació
+     */
+    public Summary validate(ByteBuffer input, Format format) {
+        long start = System.nanoTime();
+        ByteBuffer text = input.slice();
+        long[] bounds = splitBuffer(text, format);
+        ChunkResult result = pool.invoke(new ChunkTask(bounds, 0, bounds.length - 1, format,
+                (from, to) -> text.slice((int) from, (int) (to - from))));
+        return new Summary(result, System.nanoTime() - start, pool.getParallelism());
+    }
+
+    /**
+     * Atura els fils del pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Calcula els límits dels trossos d'un fitxer: per cada posició nominal
+     * (múltiple de chunkSize) es busca el primer inici de partida a partir d'allà.
+     */
+    private long[] splitFile(FileChannel channel, Format format) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+        long position = chunkSize;
+
+        while (position < size) {
+            long boundary = -1;
+            long scan = position;
+            boolean atLineStart = false;
+            // Llegir finestres fins trobar un límit (una partida pot ser més llarga que la finestra)
+            while (boundary < 0 && scan < size) {
+                window.clear();
+                channel.read(window, scan);
+                window.flip();
+                int offset = findBoundary(window, format, atLineStart);
+                if (offset >= 0) {
+                    boundary = scan + offset;
+                } else {
+                    // Continuar des de l'última línia, que pot haver quedat tallada
+                    int lastLine = lastLineStart(window);
+                    atLineStart = lastLine > 0;
+                    scan += lastLine > 0 && lastLine < window.limit() ? lastLine : window.limit();
+                }
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary + chunkSize;
+        }
+        bounds.add(size);
+        return toArray(bounds);
+    }
+
+    private long[] splitBuffer(ByteBuffer text, Format format) {
+        int size = text.limit();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        int position = chunkSize;
+
+        while (position < size) {
+            int offset = findBoundary(text.slice(position, size - position), format, false);
+            if (offset < 0 || position + offset >= size) {
+                break;
+            }
+            bounds.add((long) position + offset);
+            position += offset + chunkSize;
+        }
+        bounds.add((long) size);
+        return toArray(bounds);
+    }
+
+    /**
+     * Busca el primer inici de partida complet dins la finestra.
+     * En PGN és una línia que comença per "[Event " (la primera etiqueta obligatòria);
+     * en coordenades, el començament de qualsevol línia.
+     *
+     * @param atLineStart false si la finestra pot començar a mitja línia
+     * @return Posició del límit dins la finestra, o -1 si no n'hi ha
+     */
+    private static int findBoundary(ByteBuffer window, Format format, boolean atLineStart) {
+        int limit = window.limit();
+        int i = atLineStart ? 0 : nextLineStart(window, 0);
+        if (format == Format.COORDINATES) {
+            return i < limit ? i : -1;
+        }
+        while (i < limit) {
+            if (startsWith(window, i, EVENT_TAG)) {
+                return i;
+            }
+            i = nextLineStart(window, i);
+        }
+        return -1;
+    }
+
+    private static int nextLineStart(ByteBuffer window, int i) {
+        int limit = window.limit();
+        while (i < limit && window.get(i) != '\n') {
+            i++;
+        }
+        return i + 1;
+    }
+
+    /**
+     * @return Posició després de l'últim salt de línia, o -1 si no n'hi ha cap
+     */
+    private static int lastLineStart(ByteBuffer window) {
+        for (int i = window.limit() - 1; i >= 0; i--) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer window, int offset, String prefix) {
+        if (offset + prefix.length() > window.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (window.get(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Obté el text d'un tros a partir dels seus límits.
+     */
+    private interface ChunkSource {
+        ByteBuffer open(long from, long to) throws IOException;
+    }
+
+    /**
+     * Tasca que divideix el rang de trossos per la meitat fins a arribar a un sol tros.
+     * Mai no se serialitza: la serialització li ve de ForkJoinTask.
+     */
+    @SuppressWarnings("serial")
+    private final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private final long[] bounds;
+        private final int first;
+        private final int last;
+        private final Format format;
+        private final ChunkSource source;
+
+        ChunkTask(long[] bounds, int first, int last, Format format, ChunkSource source) {
+            this.bounds = bounds;
+            this.first = first;
+            this.last = last;
+            this.format = format;
+            this.source = source;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (last - first <= 1) {
+                return validateChunk();
+            }
+            int middle = (first + last) >>> 1;
+            ChunkTask left = new ChunkTask(bounds, first, middle, format, source);
+            ChunkTask right = new ChunkTask(bounds, middle, last, format, source);
+            right.fork();
+            ChunkResult result = left.compute();
+            result.append(right.join());
+            return result;
+        }
+
+        private ChunkResult validateChunk() {
+            ChunkResult result = new ChunkResult();
+            if (first == last) {
+                return result;
+            }
+            try {
+                ByteBuffer chunk = source.open(bounds[first], bounds[last]);
+                workers.get().validate(chunk, format, result);
+            } catch (IOException e) {
+                throw new IllegalStateException("No s'ha pogut llegir el tros " + first + ": " + e.getMessage(), e);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Estat propi de cada fil: tauler, validador i lector PGN reutilitzats entre trossos.
+     */
+    private static final class Worker {
+
+        private final PgnReader pgnReader = new PgnReader();
+        private final Board board = new Board();
+        private final MoveValidator validator = new MoveValidator(board);
+        private final MoveGenerator generator = new MoveGenerator(board);
+        private final StringBuilder line = new StringBuilder();
+
+        void validate(ByteBuffer chunk, Format format, ChunkResult result) {
+            if (format == Format.PGN) {
+                pgnReader.setGameListener(result::addGame);
+                pgnReader.read(chunk);
+                pgnReader.setGameListener(null);
+                return;
+            }
+            while (chunk.hasRemaining()) {
+                char c = (char) (chunk.get() & 0xFF);
+                if (c == '\n') {
+                    validateLine(result);
+                } else if (c != '\r') {
+                    line.append(c);
+                }
+            }
+            validateLine(result);
+        }
+
+        /**
+         * Reprodueix una partida en format de coordenades de la consola.
+         */
+        private void validateLine(ChunkResult result) {
+            int length = line.length();
+            int start = 0;
+            while (start < length && line.charAt(start) == ' ') {
+                start++;
+            }
+            if (start == length || line.charAt(start) == '#') {
+                line.setLength(0);
+                return;
+            }
+
+            board.initializeBoard();
+            int plies = 0;
+            while (start < length) {
+                int end = start;
+                while (end < length && line.charAt(end) != ',') {
+                    end++;
+                }
+                if (!playCoordinateMove(start, end)) {
+                    result.addGame(plies, line.subSequence(start, end).toString().trim());
+                    line.setLength(0);
+                    return;
+                }
+                plies++;
+                start = end + 1;
+            }
+            result.addGame(plies, null);
+            line.setLength(0);
+        }
+
+        /**
+         * Interpreta i aplica una jugada "e7 e5" o "e2 e1=C" (files numerades com a la consola: '1' és la fila 0).
+         */
+        private boolean playCoordinateMove(int start, int end) {
+            int parsed = UIConsole.parseCoordinates(line, start, end);
+            if (parsed == UIConsole.NO_MOVE) {
+                return false;
+            }
+            short move = (short) parsed;
+            int from = GameRecord.from(move);
+            int to = GameRecord.to(move);
+
+            int code = validator.checkMove(Bitboards.rowOf(from), Bitboards.colOf(from),
+                    Bitboards.rowOf(to), Bitboards.colOf(to), board.isWhiteToMove());
+            if (code != MoveError.VALID.code()) {
+                return false;
+            }
+            board.makeMove(GameRecord.toMove(move, board, generator));
+            return true;
+        }
+    }
+
+    /**
+     * Resultat parcial d'un o més trossos consecutius.
+     */
+    private static final class ChunkResult {
+
+        private long games;
+        private long validGames;
+        private long moves;
+        private final List<InvalidGame> invalidGames = new ArrayList<>();
+
+        void addGame(int plies, CharSequence invalidMove) {
+            games++;
+            moves += plies;
+            if (invalidMove == null) {
+                validGames++;
+            } else {
+                // El número de partida és relatiu al tros fins que es combina
+                invalidGames.add(new InvalidGame(games, plies + 1, invalidMove.toString()));
+            }
+        }
+
+        /**
+         * Afegeix el resultat dels trossos següents, renumerant les seves partides.
+         */
+        void append(ChunkResult next) {
+            for (InvalidGame game : next.invalidGames) {
+                invalidGames.add(new InvalidGame(games + game.getGameNumber(), game.getPly(), game.getMove()));
+            }
+            games += next.games;
+            validGames += next.validGames;
+            moves += next.moves;
+        }
+    }
+
+    /**
+     * Partida amb una jugada il·legal: número de partida (des d'1), mitja jugada
+     * (des d'1) i text de la primera jugada rebutjada.
+     */
+    public static final class InvalidGame {
+
+        private final long gameNumber;
+        private final int ply;
+        private final String move;
+
+        InvalidGame(long gameNumber, int ply, String move) {
+            this.gameNumber = gameNumber;
+            this.ply = ply;
+            this.move = move;
+        }
+
+        public long getGameNumber() {
+            return gameNumber;
+        }
+
+        public int getPly() {
+            return ply;
+        }
+
+        public String getMove() {
+            return move;
+        }
+
+        @Override
+        public String toString() {
+            return "Partida " + gameNumber + ", mitja jugada " + ply + ": " + move;
+        }
+    }
+
+    /**
+     * Resum d'una validació en bloc.
+     */
+    public static final class Summary {
+
+        private final long games;
+        private final long validGames;
+        private final long moves;
+        private final List<InvalidGame> invalidGames;
+        private final long elapsedNanos;
+        private final int threads;
+
+        private Summary(ChunkResult result, long elapsedNanos, int threads) {
+            this.games = result.games;
+            this.validGames = result.validGames;
+            this.moves = result.moves;
+            this.invalidGames = result.invalidGames;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getValidGames() {
+            return validGames;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * @return Partides amb alguna jugada il·legal, en l'ordre de l'entrada
+         */
+        public List<InvalidGame> getInvalidGames() {
+            return invalidGames;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Construeix el resum per mostrar per consola.
+         *
+         * @return Text amb partides, errors, velocitat i fils
+         */
+        public String report() {
+            return String.format("Partides: %d (%d vàlides, %d amb jugades il·legals) | Jugades: %d | "
+                    + "%d ms (%.0f partides/s, %d fils)", games, validGames, games - validGames, moves,
+                    elapsedNanos / 1_000_000, getGamesPerSecond(), threads);
+        }
+    }
+}
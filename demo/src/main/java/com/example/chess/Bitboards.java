@@ -0,0 +1,82 @@
+package com.example.chess;
+
+/**
+ * Utilitats per treballar amb bitboards.
+ * Cada casella del tauler es correspon amb un bit d'un long:
+ * la casella (fila, columna) és el bit fila * 8 + columna.
+ */
+public final class Bitboards {
+
+    public static final int SQUARE_COUNT = 64;
+    public static final long EMPTY = 0L;
+
+    private Bitboards() {
+    }
+
+    /**
+     * Converteix una fila i una columna en un índex de casella.
+     *
+     * @param row Fila (0-7)
+     * @param col Columna (0-7)
+     * @return Índex de casella (0-63)
+     */
+    public static int square(int row, int col) {
+        return (row << 3) | col;
+    }
+
+    /**
+     * Obté la fila d'un índex de casella.
+     *
+     * @param square Índex de casella (0-63)
+     * @return Fila (0-7)
+     */
+    public static int rowOf(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Obté la columna d'un índex de casella.
+     *
+     * @param square Índex de casella (0-63)
+     * @return Columna (0-7)
+     */
+    public static int colOf(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Obté el bitboard amb només la casella indicada.
+     *
+     * @param square Índex de casella (0-63)
+     * @return Bitboard amb un sol bit actiu
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Calcula les caselles compreses entre dues caselles alineades
+     * (mateixa fila, columna o diagonal), sense incloure els extrems.
+     *
+     * @param from Casella origen
+     * @param to Casella destí
+     * @return Bitboard amb les caselles intermèdies o 0 si no estan alineades
+     */
+    public static long between(int from, int to) {
+        int rowStep = Integer.signum(rowOf(to) - rowOf(from));
+        int colStep = Integer.signum(colOf(to) - colOf(from));
+        int rowDiff = Math.abs(rowOf(to) - rowOf(from));
+        int colDiff = Math.abs(colOf(to) - colOf(from));
+
+        if (from == to || (rowDiff != 0 && colDiff != 0 && rowDiff != colDiff)) {
+            return EMPTY;
+        }
+
+        int step = rowStep * 8 + colStep;
+        long mask = EMPTY;
+        for (int square = from + step; square != to; square += step) {
+            mask |= bit(square);
+        }
+        return mask;
+    }
+}
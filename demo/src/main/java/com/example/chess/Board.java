@@ -1,13 +1,100 @@
 package com.example.chess;
 
+import java.nio.ByteBuffer;
+
 /**
  * Classe que gestiona el tauler d'escacs.
  * Responsable de crear, inicialitzar i manipular el tauler de joc.
+ * La posició es guarda en bitboards (un long per peça i màscares d'ocupació),
+ * de manera que les consultes de camins i atacs es poden fer amb operacions de bits.
  */
 public class Board {
     
     private static final int BOARD_SIZE = 8;
-    private char[][] board;
+    
+    // Drets d'enroc (bits de castlingRights)
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+    public static final int NO_SQUARE = -1;
+    
+    // Columnes del rei a l'inici i després d'enrocar curt o llarg
+    public static final int KING_START_COL = 4;
+    public static final int KINGSIDE_KING_COL = 6;
+    public static final int QUEENSIDE_KING_COL = 2;
+    
+    // Posició inicial en notació FEN
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    
+    // Conversió entre les lletres FEN (PNBRQK) i les del projecte (P C A T Q K), en el mateix ordre
+    private static final String FEN_LETTERS = "PNBRQKpnbrqk";
+    private static final String PIECE_LETTERS = "PCATQKpcatqk";
+    private static final char[] PIECE_BY_FEN = new char[128];
+    private static final char[] FEN_BY_PIECE = new char[128];
+    private static final int FEN_CAPACITY = 90;
+    
+    // Capacitat de la pila de desfer (potència de 2); si s'omple, es perden les entrades més antigues
+    public static final int UNDO_CAPACITY = 1024;
+    private static final int UNDO_MASK = UNDO_CAPACITY - 1;
+    
+    // Mitges jugades sense captures ni moviments de peó que fan taules (regla de les 50 jugades)
+    public static final int FIFTY_MOVE_PLIES = 100;
+    
+    // Drets d'enroc que es conserven quan una peça surt o arriba a cada casella
+    private static final int[] CASTLING_KEEP = new int[Bitboards.SQUARE_COUNT];
+    
+    static {
+        java.util.Arrays.fill(CASTLING_KEEP, ALL_CASTLING);
+        CASTLING_KEEP[Bitboards.square(7, 4)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEEP[Bitboards.square(7, 7)] &= ~WHITE_KINGSIDE;
+        CASTLING_KEEP[Bitboards.square(7, 0)] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEEP[Bitboards.square(0, 4)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEEP[Bitboards.square(0, 7)] &= ~BLACK_KINGSIDE;
+        CASTLING_KEEP[Bitboards.square(0, 0)] &= ~BLACK_QUEENSIDE;
+        
+        for (int i = 0; i < FEN_LETTERS.length(); i++) {
+            PIECE_BY_FEN[FEN_LETTERS.charAt(i)] = PIECE_LETTERS.charAt(i);
+            FEN_BY_PIECE[PIECE_LETTERS.charAt(i)] = FEN_LETTERS.charAt(i);
+        }
+    }
+    
+    // Un bitboard per cada peça (vegeu Piece.index) i màscares d'ocupació per color
+    private final long[] pieceBitboards = new long[Piece.PIECE_COUNT];
+    private long whiteOccupancy;
+    private long blackOccupancy;
+    
+    // Còpia per caselles per respondre getPiece sense recórrer els bitboards
+    private final char[] squares = new char[Bitboards.SQUARE_COUNT];
+    
+    private boolean whiteToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    
+    // Hash de Zobrist de la posició, actualitzat a cada canvi
+    private long hash;
+    
+    // Sumes de l'avaluació (material i taules de posició) i fase de la partida, actualitzades
+    // a cada peça que s'afegeix o es treu (vegeu Evaluation)
+    private int middlegameScore;
+    private int endgameScore;
+    private int gamePhase;
+    
+    // Pila de desfer: moviment i estat irreversible anterior (enroc, al pas, rellotge)
+    private final int[] undoMoves = new int[UNDO_CAPACITY];
+    private final int[] undoStates = new int[UNDO_CAPACITY];
+    private final long[] undoHashes = new long[UNDO_CAPACITY];
+    private int undoTop;
+    private int undoCount;
+    // Hashes copiats d'un altre tauler per sota de la pila (vegeu copyFrom): no es poden
+    // desfer, però compten per a les repeticions
+    private int inheritedHashes;
+    
+    // Vista reutilitzable per llegir FEN d'un ByteBuffer sense copiar-lo
+    private final ByteBufferChars fenBytes = new ByteBufferChars();
     
     /**
      * Constructor que inicialitza el tauler amb les peces en posició inicial.
@@ -16,49 +103,352 @@ public class Board {
         initializeBoard();
     }
     
+    /**
+     * Constructor de còpia: crea un tauler independent amb la mateixa posició.
+     * La pila de desfer de la còpia comença buida, però conserva les posicions que
+     * compten per a les repeticions.
+     * 
+     * @param other Tauler a copiar
+     */
+    public Board(Board other) {
+        copyFrom(other);
+    }
+    
+    /**
+     * Copia la posició i l'estat d'un altre tauler sense crear objectes nous.
+     * La pila de desfer queda buida, però es copien els hashes de les posicions des de
+     * l'última jugada irreversible perquè les repeticions es continuïn detectant.
+     * 
+     * @param other Tauler a copiar
+     */
+    public void copyFrom(Board other) {
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        whiteOccupancy = other.whiteOccupancy;
+        blackOccupancy = other.blackOccupancy;
+        whiteToMove = other.whiteToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        hash = other.hash;
+        middlegameScore = other.middlegameScore;
+        endgameScore = other.endgameScore;
+        gamePhase = other.gamePhase;
+        inheritedHashes = other.repetitionWindow();
+        for (int back = 1; back <= inheritedHashes; back++) {
+            undoHashes[-back & UNDO_MASK] = other.undoHashes[(other.undoTop - back) & UNDO_MASK];
+        }
+        undoTop = 0;
+        undoCount = 0;
+    }
+    
     /**
      * Inicialitza el tauler d'escacs amb totes les peces en posició inicial.
      * Les peces blanques són majúscules i les negres minúscules.
      */
     public void initializeBoard() {
-        board = new char[BOARD_SIZE][BOARD_SIZE];
-        
-        // Omplir espais buits
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = '.';
-            }
-        }
+        clear();
+        setCastlingRights(ALL_CASTLING);
         
         // Inicialitzar les peces blanques (fila 7 i 6)
-        board[7][0] = 'T'; // Torre blanca
-        board[7][7] = 'T'; // Torre blanca
-        board[7][1] = 'C'; // Cavall blanc
-        board[7][6] = 'C'; // Cavall blanc
-        board[7][2] = 'A'; // Alfil blanc
-        board[7][5] = 'A'; // Alfil blanc
-        board[7][3] = 'Q'; // Reina blanca
-        board[7][4] = 'K'; // Rei blanc
+        putPiece(7, 0, 'T'); // Torre blanca
+        putPiece(7, 7, 'T'); // Torre blanca
+        putPiece(7, 1, 'C'); // Cavall blanc
+        putPiece(7, 6, 'C'); // Cavall blanc
+        putPiece(7, 2, 'A'); // Alfil blanc
+        putPiece(7, 5, 'A'); // Alfil blanc
+        putPiece(7, 3, 'Q'); // Reina blanca
+        putPiece(7, 4, 'K'); // Rei blanc
         
         for (int i = 0; i < BOARD_SIZE; i++) {
-            board[6][i] = 'P'; // Peons blancs
+            putPiece(6, i, 'P'); // Peons blancs
         }
         
         // Inicialitzar les peces negres (fila 0 i 1)
-        board[0][0] = 't'; // Torre negre
-        board[0][7] = 't'; // Torre negre
-        board[0][1] = 'c'; // Cavall negre
-        board[0][6] = 'c'; // Cavall negre
-        board[0][2] = 'a'; // Alfil negre
-        board[0][5] = 'a'; // Alfil negre
-        board[0][3] = 'q'; // Reina negre
-        board[0][4] = 'k'; // Rei negre
+        putPiece(0, 0, 't'); // Torre negre
+        putPiece(0, 7, 't'); // Torre negre
+        putPiece(0, 1, 'c'); // Cavall negre
+        putPiece(0, 6, 'c'); // Cavall negre
+        putPiece(0, 2, 'a'); // Alfil negre
+        putPiece(0, 5, 'a'); // Alfil negre
+        putPiece(0, 3, 'q'); // Reina negre
+        putPiece(0, 4, 'k'); // Rei negre
         
         for (int i = 0; i < BOARD_SIZE; i++) {
-            board[1][i] = 'p'; // Peons negres
+            putPiece(1, i, 'p'); // Peons negres
         }
     }
     
+    /**
+     * Buida totes les caselles del tauler.
+     */
+    public void clear() {
+        java.util.Arrays.fill(squares, Piece.EMPTY);
+        java.util.Arrays.fill(pieceBitboards, Bitboards.EMPTY);
+        whiteOccupancy = Bitboards.EMPTY;
+        blackOccupancy = Bitboards.EMPTY;
+        whiteToMove = true;
+        castlingRights = 0;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        hash = 0L;
+        middlegameScore = 0;
+        endgameScore = 0;
+        gamePhase = 0;
+        undoTop = 0;
+        undoCount = 0;
+        inheritedHashes = 0;
+    }
+    
+    /**
+     * Carrega una posició en notació FEN. Les lletres estàndard es converteixen a les
+     * del projecte (N → C, B → A, R → T). Els dos comptadors finals són opcionals.
+     * El text es llegeix caràcter a caràcter, sense separar-lo ni crear subcadenes.
+     * La pila de desfer queda buida.
+     * 
+     * @param fen Posició en notació FEN
+     * @throws IllegalArgumentException si el FEN no és vàlid (el tauler queda en un estat indefinit)
+     */
+    public void loadFen(CharSequence fen) {
+        parseFen(fen, 0, fen.length());
+    }
+    
+    /**
+     * Carrega una posició FEN codificada en ASCII des de la posició actual del buffer
+     * fins al final de línia o fins al límit. El buffer avança fins a l'inici de la línia
+     * següent, de manera que es poden llegir moltes posicions seguides d'un mateix fitxer.
+     * 
+     * @param buffer Buffer amb una o més línies FEN
+     * @throws IllegalArgumentException si el FEN no és vàlid (el buffer no avança)
+     */
+    public void loadFen(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int lineEnd = start;
+        while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        int end = lineEnd;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        
+        fenBytes.wrap(buffer);
+        try {
+            parseFen(fenBytes, start, end);
+        } finally {
+            fenBytes.wrap(null);
+        }
+        buffer.position(lineEnd < limit ? lineEnd + 1 : lineEnd);
+    }
+    
+    /**
+     * Interpreta els sis camps FEN entre start i end.
+     */
+    private void parseFen(CharSequence text, int start, int end) {
+        clear();
+        int i = start;
+        
+        // 1. Peces, de la fila 0 (vuitena fila estàndard) a la fila 7
+        int row = 0;
+        int col = 0;
+        while (i < end && text.charAt(i) != ' ') {
+            char c = text.charAt(i++);
+            if (c == '/') {
+                if (col != BOARD_SIZE || ++row >= BOARD_SIZE) {
+                    throw invalidFen(text, start, end, "fila incorrecta");
+                }
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > BOARD_SIZE) {
+                    throw invalidFen(text, start, end, "massa caselles en una fila");
+                }
+            } else {
+                char piece = c < PIECE_BY_FEN.length ? PIECE_BY_FEN[c] : 0;
+                if (piece == 0 || col >= BOARD_SIZE) {
+                    throw invalidFen(text, start, end, "peça desconeguda o fila massa llarga");
+                }
+                addPiece(Bitboards.square(row, col++), piece);
+            }
+        }
+        if (row != BOARD_SIZE - 1 || col != BOARD_SIZE) {
+            throw invalidFen(text, start, end, "falten files");
+        }
+        
+        // 2. Color que mou
+        i = skipSpaces(text, i, end);
+        if (i >= end || (text.charAt(i) != 'w' && text.charAt(i) != 'b')) {
+            throw invalidFen(text, start, end, "color que mou");
+        }
+        setWhiteToMove(text.charAt(i++) == 'w');
+        
+        // 3. Drets d'enroc
+        i = skipSpaces(text, i, end);
+        if (i >= end) {
+            throw invalidFen(text, start, end, "drets d'enroc");
+        }
+        int rights = 0;
+        if (text.charAt(i) == '-') {
+            i++;
+        } else {
+            while (i < end && text.charAt(i) != ' ') {
+                int right = castlingRightOf(text.charAt(i++));
+                if (right == 0) {
+                    throw invalidFen(text, start, end, "drets d'enroc");
+                }
+                rights |= right;
+            }
+        }
+        setCastlingRights(rights);
+        
+        // 4. Casella al pas
+        i = skipSpaces(text, i, end);
+        if (i < end && text.charAt(i) == '-') {
+            i++;
+        } else {
+            if (i + 1 >= end) {
+                throw invalidFen(text, start, end, "casella al pas");
+            }
+            int file = text.charAt(i) - 'a';
+            int rank = text.charAt(i + 1) - '1';
+            if (file < 0 || file >= BOARD_SIZE || rank < 0 || rank >= BOARD_SIZE) {
+                throw invalidFen(text, start, end, "casella al pas");
+            }
+            setEnPassantSquare(Bitboards.square(BOARD_SIZE - 1 - rank, file));
+            i += 2;
+        }
+        
+        // 5 i 6. Rellotge de mitges jugades i número de jugada (opcionals)
+        i = skipSpaces(text, i, end);
+        int number = 0;
+        int field = 0;
+        while (i < end && field < 2) {
+            char c = text.charAt(i++);
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + (c - '0');
+            } else if (c != ' ') {
+                throw invalidFen(text, start, end, "comptadors");
+            }
+            if (c == ' ' || i == end) {
+                if (field == 0) {
+                    halfmoveClock = number;
+                } else {
+                    fullmoveNumber = Math.max(1, number);
+                }
+                field++;
+                number = 0;
+                i = skipSpaces(text, i, end);
+            }
+        }
+        if (i < end) {
+            throw invalidFen(text, start, end, "text sobrant");
+        }
+    }
+    
+    private static int castlingRightOf(char letter) {
+        switch (letter) {
+            case 'K':
+                return WHITE_KINGSIDE;
+            case 'Q':
+                return WHITE_QUEENSIDE;
+            case 'k':
+                return BLACK_KINGSIDE;
+            case 'q':
+                return BLACK_QUEENSIDE;
+            default:
+                return 0;
+        }
+    }
+    
+    private static int skipSpaces(CharSequence text, int i, int end) {
+        while (i < end && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+    
+    private static IllegalArgumentException invalidFen(CharSequence text, int start, int end, String reason) {
+        return new IllegalArgumentException("FEN invàlid (" + reason + "): " + text.subSequence(start, end));
+    }
+    
+    /**
+     * Obté la posició actual en notació FEN, amb les lletres estàndard.
+     * 
+     * @return Cadena FEN
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(FEN_CAPACITY);
+        appendFen(fen);
+        return fen.toString();
+    }
+    
+    /**
+     * Afegeix la posició en notació FEN a un StringBuilder existent, per poder
+     * escriure moltes posicions reutilitzant el mateix buffer.
+     * 
+     * @param out Destí del text FEN
+     */
+    public void appendFen(StringBuilder out) {
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            int emptyCount = 0;
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                char piece = squares[Bitboards.square(row, col)];
+                if (Piece.isEmpty(piece)) {
+                    emptyCount++;
+                    continue;
+                }
+                if (emptyCount > 0) {
+                    out.append((char) ('0' + emptyCount));
+                    emptyCount = 0;
+                }
+                out.append(FEN_BY_PIECE[piece]);
+            }
+            if (emptyCount > 0) {
+                out.append((char) ('0' + emptyCount));
+            }
+            if (row < BOARD_SIZE - 1) {
+                out.append('/');
+            }
+        }
+        
+        out.append(whiteToMove ? " w " : " b ");
+        if (castlingRights == 0) {
+            out.append('-');
+        } else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) {
+                out.append('K');
+            }
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) {
+                out.append('Q');
+            }
+            if ((castlingRights & BLACK_KINGSIDE) != 0) {
+                out.append('k');
+            }
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) {
+                out.append('q');
+            }
+        }
+        
+        out.append(' ');
+        if (enPassantSquare == NO_SQUARE) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + Bitboards.colOf(enPassantSquare)));
+            out.append((char) ('8' - Bitboards.rowOf(enPassantSquare)));
+        }
+        out.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+    }
+    
+    /**
+     * Col·loca una peça en una casella buida durant la inicialització.
+     */
+    private void putPiece(int row, int col, char piece) {
+        addPiece(Bitboards.square(row, col), piece);
+    }
+    
     /**
      * Imprimeix el tauler per consola.
      */
@@ -68,7 +458,7 @@ public class Board {
         for (int i = 0; i < BOARD_SIZE; i++) {
             System.out.print((i + 1) + " ");
             for (int j = 0; j < BOARD_SIZE; j++) {
-                System.out.print(board[i][j] + " ");
+                System.out.print(squares[Bitboards.square(i, j)] + " ");
             }
             System.out.println(i + 1);
         }
@@ -84,7 +474,7 @@ public class Board {
      */
     public char getPiece(int row, int col) {
         if (isValidPosition(row, col)) {
-            return board[row][col];
+            return squares[Bitboards.square(row, col)];
         }
         return '.';
     }
@@ -98,7 +488,9 @@ public class Board {
      */
     public void setPiece(int row, int col, char piece) {
         if (isValidPosition(row, col)) {
-            board[row][col] = piece;
+            int square = Bitboards.square(row, col);
+            removePiece(square);
+            addPiece(square, piece);
         }
     }
     
@@ -111,8 +503,201 @@ public class Board {
      * @param toCol Columna destí
      */
     public void movePiece(int fromRow, int fromCol, int toRow, int toCol) {
-        board[toRow][toCol] = board[fromRow][fromCol];
-        board[fromRow][fromCol] = '.';
+        int from = Bitboards.square(fromRow, fromCol);
+        int to = Bitboards.square(toRow, toCol);
+        char piece = squares[from];
+        removePiece(from);
+        removePiece(to);
+        addPiece(to, piece);
+    }
+    
+    /**
+     * Aplica un moviment codificat (vegeu Move) i en guarda l'estat per poder-lo desfer.
+     * No crea cap objecte: l'estat anterior es desa a la pila de desfer.
+     * 
+     * @param move Moviment codificat, generat per MoveGenerator
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = Move.piece(move);
+        int promotion = Move.promotion(move);
+        
+        undoMoves[undoTop] = move;
+        undoStates[undoTop] = packState();
+        undoHashes[undoTop] = hash;
+        undoTop = (undoTop + 1) & UNDO_MASK;
+        undoCount = Math.min(undoCount + 1, UNDO_CAPACITY);
+        
+        removePiece(from);
+        removePiece(to);
+        addPiece(to, Piece.fromIndex(promotion == Piece.NO_PIECE ? piece : promotion));
+        if (Move.isEnPassant(move)) {
+            // El peó capturat és a la fila d'origen i a la columna de destí
+            removePiece(enPassantCaptureSquare(from, to));
+        } else if (Move.isCastling(move)) {
+            int rookFrom = castlingRookFrom(to);
+            int rookTo = castlingRookTo(to);
+            char rook = squares[rookFrom];
+            removePiece(rookFrom);
+            addPiece(rookTo, rook);
+        }
+        
+        boolean isPawn = Piece.typeOfIndex(piece) == Piece.PAWN_INDEX;
+        setCastlingRights(castlingRights & CASTLING_KEEP[from] & CASTLING_KEEP[to]);
+        setEnPassantSquare(isPawn && Math.abs(to - from) == 2 * BOARD_SIZE ? (from + to) >>> 1 : NO_SQUARE);
+        halfmoveClock = isPawn || Move.isCapture(move) ? 0 : halfmoveClock + 1;
+        if (!whiteToMove) {
+            fullmoveNumber++;
+        }
+        setWhiteToMove(!whiteToMove);
+    }
+    
+    /**
+     * Desfà l'últim moviment aplicat amb makeMove i restaura l'estat anterior.
+     * 
+     * @throws IllegalStateException si no hi ha cap moviment per desfer
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No hi ha cap moviment per desfer.");
+        }
+        undoTop = (undoTop - 1) & UNDO_MASK;
+        undoCount--;
+        int move = undoMoves[undoTop];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = Move.captured(move);
+        
+        removePiece(to);
+        addPiece(from, Piece.fromIndex(Move.piece(move)));
+        if (Move.isEnPassant(move)) {
+            addPiece(enPassantCaptureSquare(from, to), Piece.fromIndex(captured));
+        } else if (captured != Piece.NO_PIECE) {
+            addPiece(to, Piece.fromIndex(captured));
+        }
+        if (Move.isCastling(move)) {
+            int rookTo = castlingRookTo(to);
+            char rook = squares[rookTo];
+            removePiece(rookTo);
+            addPiece(castlingRookFrom(to), rook);
+        }
+        
+        unpackState(undoStates[undoTop]);
+        if (whiteToMove) {
+            fullmoveNumber--;
+        }
+        whiteToMove = !whiteToMove;
+        hash = undoHashes[undoTop];
+    }
+    
+    /**
+     * Casella del peó capturat al pas: mateixa fila que l'origen i mateixa columna que el destí.
+     * 
+     * @param from Casella origen del peó que captura
+     * @param to Casella destí (la casella al pas)
+     * @return Casella del peó capturat
+     */
+    public static int enPassantCaptureSquare(int from, int to) {
+        return Bitboards.square(Bitboards.rowOf(from), Bitboards.colOf(to));
+    }
+    
+    /**
+     * Casella d'origen de la torre en un enroc, segons la casella destí del rei.
+     * 
+     * @param kingTo Casella destí del rei (columna 6 o 2)
+     * @return Casella de la torre abans de l'enroc
+     */
+    public static int castlingRookFrom(int kingTo) {
+        return Bitboards.colOf(kingTo) == KINGSIDE_KING_COL ? kingTo + 1 : kingTo - 2;
+    }
+    
+    /**
+     * Casella de destí de la torre en un enroc, segons la casella destí del rei.
+     * 
+     * @param kingTo Casella destí del rei (columna 6 o 2)
+     * @return Casella de la torre després de l'enroc
+     */
+    public static int castlingRookTo(int kingTo) {
+        return Bitboards.colOf(kingTo) == KINGSIDE_KING_COL ? kingTo - 1 : kingTo + 1;
+    }
+    
+    /**
+     * Obté el nombre de moviments que es poden desfer.
+     * 
+     * @return Moviments a la pila de desfer
+     */
+    public int getUndoCount() {
+        return undoCount;
+    }
+    
+    /**
+     * Compta quantes vegades ha aparegut abans la posició actual, comparant hashes de la pila
+     * de desfer. Només es miren les posicions des de l'última captura o moviment de peó (una
+     * repetició no pot travessar una jugada irreversible) i, d'aquestes, les que tenien el
+     * mateix jugador al torn: com a molt FIFTY_MOVE_PLIES / 2 comparacions per consulta.
+     * 
+     * @param limit Nombre d'aparicions a partir del qual es deixa de comptar
+     * @return Aparicions anteriors de la posició, com a molt limit
+     */
+    public int repetitionCount(int limit) {
+        int window = repetitionWindow();
+        int count = 0;
+        // La mateixa posició no pot tornar abans de 4 mitges jugades
+        for (int back = 4; back <= window && count < limit; back += 2) {
+            if (undoHashes[(undoTop - back) & UNDO_MASK] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Comprova si la posició actual ja havia aparegut (la cerca la tracta com a taules).
+     * 
+     * @return true si la posició es repeteix almenys una vegada
+     */
+    public boolean isRepetition() {
+        return repetitionCount(1) > 0;
+    }
+    
+    /**
+     * Comprova si la posició actual ha aparegut tres vegades (taules per triple repetició).
+     * 
+     * @return true si és la tercera vegada que apareix la posició
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitionCount(2) == 2;
+    }
+    
+    /**
+     * Comprova si s'han fet 50 jugades de cada bàndol sense captures ni moviments de peó.
+     * 
+     * @return true si la partida és taules per la regla de les 50 jugades
+     */
+    public boolean isFiftyMoveDraw() {
+        return halfmoveClock >= FIFTY_MOVE_PLIES;
+    }
+    
+    /**
+     * Mitges jugades enrere amb hash conegut que poden repetir la posició actual.
+     */
+    private int repetitionWindow() {
+        return Math.min(halfmoveClock, Math.min(undoCount + inheritedHashes, UNDO_CAPACITY));
+    }
+    
+    /**
+     * Empaqueta l'estat irreversible en un int:
+     * bits 0-3 drets d'enroc, 4-10 casella al pas + 1, 11-31 rellotge de mitges jugades.
+     */
+    private int packState() {
+        return castlingRights | ((enPassantSquare + 1) << 4) | (halfmoveClock << 11);
+    }
+    
+    private void unpackState(int state) {
+        castlingRights = state & ALL_CASTLING;
+        enPassantSquare = ((state >>> 4) & 0x7F) - 1;
+        halfmoveClock = state >>> 11;
     }
     
     /**
@@ -137,6 +722,221 @@ public class Board {
         return getPiece(row, col) == '.';
     }
     
+    /**
+     * Indica si és el torn de les blanques.
+     * 
+     * @return true si mouen les blanques
+     */
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+    
+    /**
+     * Estableix el color que ha de moure.
+     * 
+     * @param whiteToMove true si mouen les blanques
+     */
+    public void setWhiteToMove(boolean whiteToMove) {
+        if (this.whiteToMove != whiteToMove) {
+            hash ^= Zobrist.sideKey();
+        }
+        this.whiteToMove = whiteToMove;
+    }
+    
+    /**
+     * Obté els drets d'enroc (combinació de WHITE_KINGSIDE, WHITE_QUEENSIDE, ...).
+     * 
+     * @return Bits dels drets d'enroc
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+    
+    /**
+     * Estableix els drets d'enroc.
+     * 
+     * @param castlingRights Bits dels drets d'enroc
+     */
+    public void setCastlingRights(int castlingRights) {
+        hash ^= Zobrist.castlingKey(this.castlingRights);
+        this.castlingRights = castlingRights & ALL_CASTLING;
+        hash ^= Zobrist.castlingKey(this.castlingRights);
+    }
+    
+    /**
+     * Obté la casella on es pot capturar al pas.
+     * 
+     * @return Casella (0-63) o NO_SQUARE si no n'hi ha
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+    
+    /**
+     * Estableix la casella on es pot capturar al pas.
+     * 
+     * @param enPassantSquare Casella (0-63) o NO_SQUARE
+     */
+    public void setEnPassantSquare(int enPassantSquare) {
+        hash ^= Zobrist.enPassantKey(this.enPassantSquare);
+        this.enPassantSquare = enPassantSquare;
+        hash ^= Zobrist.enPassantKey(this.enPassantSquare);
+    }
+    
+    /**
+     * Obté el nombre de mitges jugades des de l'última captura o moviment de peó.
+     * 
+     * @return Rellotge de mitges jugades
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+    
+    /**
+     * Obté el número de jugada actual (comença a 1 i augmenta després de cada moviment negre).
+     * 
+     * @return Número de jugada
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+    
+    /**
+     * Obté el hash de Zobrist de la posició, mantingut de forma incremental.
+     * 
+     * @return Hash de 64 bits de la posició
+     */
+    public long hash() {
+        return hash;
+    }
+    
+    /**
+     * Calcula el hash de Zobrist des de zero (per comprovar el valor incremental).
+     * 
+     * @return Hash de 64 bits de la posició
+     */
+    public long computeHash() {
+        long key = 0L;
+        for (int index = 0; index < Piece.PIECE_COUNT; index++) {
+            long pieces = pieceBitboards[index];
+            while (pieces != 0) {
+                key ^= Zobrist.pieceKey(index, Long.numberOfTrailingZeros(pieces));
+                pieces &= pieces - 1;
+            }
+        }
+        if (!whiteToMove) {
+            key ^= Zobrist.sideKey();
+        }
+        return key ^ Zobrist.castlingKey(castlingRights) ^ Zobrist.enPassantKey(enPassantSquare);
+    }
+    
+    /**
+     * Obté la peça d'una casella sense comprovar els límits.
+     * 
+     * @param square Índex de casella (0-63)
+     * @return El caràcter que representa la peça o '.' si està buida
+     */
+    public char getPieceAt(int square) {
+        return squares[square];
+    }
+    
+    /**
+     * Obté el bitboard d'una peça concreta.
+     * 
+     * @param pieceIndex Índex de la peça (vegeu Piece.index)
+     * @return Bitboard amb les caselles ocupades per aquesta peça
+     */
+    public long getPieceBitboard(int pieceIndex) {
+        return pieceBitboards[pieceIndex];
+    }
+    
+    /**
+     * Obté la suma de mig joc de l'avaluació (material i taules de posició).
+     * 
+     * @return Centipeons des del punt de vista de les blanques
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+    
+    /**
+     * Obté la suma de final de l'avaluació (material i taules de posició).
+     * 
+     * @return Centipeons des del punt de vista de les blanques
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+    
+    /**
+     * Obté la fase de la partida segons les peces que queden.
+     * 
+     * @return Evaluation.MAX_PHASE amb totes les peces, 0 quan només queden reis i peons
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+    
+    /**
+     * Obté les caselles ocupades per peces d'un color.
+     * 
+     * @param white true per les blanques, false per les negres
+     * @return Bitboard d'ocupació del color
+     */
+    public long getOccupancy(boolean white) {
+        return white ? whiteOccupancy : blackOccupancy;
+    }
+    
+    /**
+     * Obté totes les caselles ocupades del tauler.
+     * 
+     * @return Bitboard d'ocupació total
+     */
+    public long getOccupancy() {
+        return whiteOccupancy | blackOccupancy;
+    }
+    
+    /**
+     * Afegeix una peça a una casella buida i actualitza els bitboards.
+     */
+    private void addPiece(int square, char piece) {
+        squares[square] = piece;
+        int index = Piece.index(piece);
+        if (index == Piece.NO_PIECE) {
+            return;
+        }
+        long bit = Bitboards.bit(square);
+        pieceBitboards[index] |= bit;
+        hash ^= Zobrist.pieceKey(index, square);
+        middlegameScore += Evaluation.middlegameValue(index, square);
+        endgameScore += Evaluation.endgameValue(index, square);
+        gamePhase += Evaluation.phaseWeight(index);
+        if (Piece.isWhiteIndex(index)) {
+            whiteOccupancy |= bit;
+        } else {
+            blackOccupancy |= bit;
+        }
+    }
+    
+    /**
+     * Treu la peça d'una casella i actualitza els bitboards.
+     */
+    private void removePiece(int square) {
+        int index = Piece.index(squares[square]);
+        squares[square] = Piece.EMPTY;
+        if (index == Piece.NO_PIECE) {
+            return;
+        }
+        long mask = ~Bitboards.bit(square);
+        pieceBitboards[index] &= mask;
+        hash ^= Zobrist.pieceKey(index, square);
+        middlegameScore -= Evaluation.middlegameValue(index, square);
+        endgameScore -= Evaluation.endgameValue(index, square);
+        gamePhase -= Evaluation.phaseWeight(index);
+        whiteOccupancy &= mask;
+        blackOccupancy &= mask;
+    }
+    
     /**
      * Obté la mida del tauler.
      * 
@@ -145,4 +945,36 @@ public class Board {
     public int getBoardSize() {
         return BOARD_SIZE;
     }
+    
+    /**
+     * Vista de només lectura d'un ByteBuffer ASCII com a CharSequence, reutilitzada
+     * entre crides perquè carregar FEN des d'un buffer no creï objectes.
+     */
+    private static final class ByteBufferChars implements CharSequence {
+        
+        private ByteBuffer buffer;
+        
+        void wrap(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder text = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                text.append(charAt(i));
+            }
+            return text;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.example.chess;
+
+/**
+ * Avaluació estàtica d'una posició, en centipeons.
+ * Suma el material i una taula de posició (piece-square table) per cada tipus de peça,
+ * amb dues taules per al rei i el peó: una de mig joc i una de final. La puntuació
+ * s'interpola entre les dues segons la fase de la partida (avaluació "tapered"),
+ * calculada a partir de les peces menors, torres i dames que queden.
+ *
+ * El Board manté les sumes de mig joc, de final i la fase de forma incremental a cada
+ * peça que s'afegeix o es treu (vegeu middlegameValue, endgameValue i phaseWeight), de
+ * manera que evaluate no recorre el tauler. Amb les assercions activades (-ea) es comprova
+ * a cada crida que coincideixen amb un càlcul des de zero.
+ */
+public final class Evaluation {
+
+    // Valor de cada tipus de peça en centipeons, en l'ordre de Piece.PAWN_INDEX ... Piece.KING_INDEX
+    private static final int[] PIECE_VALUES = {100, 500, 320, 330, 900, 0};
+
+    // Pes de cada tipus de peça per calcular la fase (24 amb totes les peces: mig joc; 0: final)
+    private static final int[] PHASE_WEIGHTS = {0, 2, 1, 1, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    // Taules de posició des del punt de vista de les blanques, amb la fila 0 (la vuitena) primer,
+    // que coincideix amb l'ordre de les caselles del Board. Per a les negres es reflecteixen.
+    private static final int[] PAWN_MIDDLEGAME = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        10,  10,  20,  30,  30,  20,  10,  10,
+         5,   5,  10,  25,  25,  10,   5,   5,
+         0,   0,   0,  20,  20,   0,   0,   0,
+         5,  -5, -10,   0,   0, -10,  -5,   5,
+         5,  10,  10, -20, -20,  10,  10,   5,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    // Al final, els peons valen més com més a prop són de promocionar
+    private static final int[] PAWN_ENDGAME = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+        80,  80,  80,  80,  80,  80,  80,  80,
+        50,  50,  50,  50,  50,  50,  50,  50,
+        30,  30,  30,  30,  30,  30,  30,  30,
+        20,  20,  20,  20,  20,  20,  20,  20,
+        10,  10,  10,  10,  10,  10,  10,  10,
+        10,  10,  10,  10,  10,  10,  10,  10,
+         0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] ROOK_TABLE = {
+         0,   0,   0,   0,   0,   0,   0,   0,
+         5,  10,  10,  10,  10,  10,  10,   5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+        -5,   0,   0,   0,   0,   0,   0,  -5,
+         0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP_TABLE = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] QUEEN_TABLE = {
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,   5,   5,   5,   0, -10,
+         -5,   0,   5,   5,   5,   5,   0,  -5,
+          0,   0,   5,   5,   5,   5,   0,  -5,
+        -10,   5,   5,   5,   5,   5,   0, -10,
+        -10,   0,   5,   0,   0,   0,   0, -10,
+        -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    // Al mig joc el rei ha d'estar protegit a la seva fila
+    private static final int[] KING_MIDDLEGAME = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    // Al final el rei ha d'anar cap al centre
+    private static final int[] KING_ENDGAME = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Taules per índex de peça (vegeu Piece.index) i casella, amb el material inclòs
+    // i el signe del color (positiu per a les blanques)
+    private static final int[][] MIDDLEGAME = new int[Piece.PIECE_COUNT][Bitboards.SQUARE_COUNT];
+    private static final int[][] ENDGAME = new int[Piece.PIECE_COUNT][Bitboards.SQUARE_COUNT];
+
+    static {
+        int[][] middlegameTables = {PAWN_MIDDLEGAME, ROOK_TABLE, KNIGHT_TABLE, BISHOP_TABLE, QUEEN_TABLE,
+            KING_MIDDLEGAME};
+        int[][] endgameTables = {PAWN_ENDGAME, ROOK_TABLE, KNIGHT_TABLE, BISHOP_TABLE, QUEEN_TABLE,
+            KING_ENDGAME};
+        for (int type = 0; type < Piece.TYPE_COUNT; type++) {
+            for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+                // Les negres fan servir la casella reflectida verticalment (fila 7 - fila)
+                int mirrored = square ^ 56;
+                MIDDLEGAME[type][square] = PIECE_VALUES[type] + middlegameTables[type][square];
+                ENDGAME[type][square] = PIECE_VALUES[type] + endgameTables[type][square];
+                MIDDLEGAME[type + Piece.TYPE_COUNT][square] = -(PIECE_VALUES[type] + middlegameTables[type][mirrored]);
+                ENDGAME[type + Piece.TYPE_COUNT][square] = -(PIECE_VALUES[type] + endgameTables[type][mirrored]);
+            }
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * Valor d'un tipus de peça.
+     *
+     * @param pieceIndex Índex de la peça (0-11)
+     * @return Valor en centipeons
+     */
+    public static int pieceValue(int pieceIndex) {
+        return PIECE_VALUES[Piece.typeOfIndex(pieceIndex)];
+    }
+
+    /**
+     * Contribució d'una peça a la puntuació de mig joc (material i posició).
+     *
+     * @param pieceIndex Índex de la peça (0-11)
+     * @param square Casella (0-63)
+     * @return Centipeons, positius per a les blanques i negatius per a les negres
+     */
+    public static int middlegameValue(int pieceIndex, int square) {
+        return MIDDLEGAME[pieceIndex][square];
+    }
+
+    /**
+     * Contribució d'una peça a la puntuació de final (material i posició).
+     *
+     * @param pieceIndex Índex de la peça (0-11)
+     * @param square Casella (0-63)
+     * @return Centipeons, positius per a les blanques i negatius per a les negres
+     */
+    public static int endgameValue(int pieceIndex, int square) {
+        return ENDGAME[pieceIndex][square];
+    }
+
+    /**
+     * @param pieceIndex Índex de la peça (0-11)
+     * @return Pes de la peça en el càlcul de la fase de la partida
+     */
+    public static int phaseWeight(int pieceIndex) {
+        return PHASE_WEIGHTS[Piece.typeOfIndex(pieceIndex)];
+    }
+
+    /**
+     * Avalua la posició des del punt de vista del jugador que ha de moure,
+     * a partir de les sumes incrementals del tauler.
+     *
+     * @param board Tauler a avaluar
+     * @return Puntuació en centipeons (positiva si és favorable al jugador que mou)
+     */
+    public static int evaluate(Board board) {
+        assert matchesFullComputation(board) : "L'avaluació incremental no coincideix amb la calculada des de zero";
+        int score = taper(board.getMiddlegameScore(), board.getEndgameScore(), board.getGamePhase());
+        return board.isWhiteToMove() ? score : -score;
+    }
+
+    /**
+     * Avalua la posició recorrent tots els bitboards, sense fer servir les sumes incrementals.
+     *
+     * @param board Tauler a avaluar
+     * @return Puntuació en centipeons (positiva si és favorable al jugador que mou)
+     */
+    public static int evaluateFromScratch(Board board) {
+        int[] totals = computeTotals(board);
+        int score = taper(totals[0], totals[1], totals[2]);
+        return board.isWhiteToMove() ? score : -score;
+    }
+
+    /**
+     * Comprova que les sumes incrementals del tauler coincideixen amb un càlcul des de zero.
+     *
+     * @param board Tauler a comprovar
+     * @return true si coincideixen
+     */
+    public static boolean matchesFullComputation(Board board) {
+        int[] totals = computeTotals(board);
+        return totals[0] == board.getMiddlegameScore() && totals[1] == board.getEndgameScore()
+                && totals[2] == board.getGamePhase();
+    }
+
+    /**
+     * Suma des de zero les puntuacions de mig joc i de final i la fase.
+     *
+     * @return {mig joc, final, fase}
+     */
+    private static int[] computeTotals(Board board) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int index = 0; index < Piece.PIECE_COUNT; index++) {
+            long pieces = board.getPieceBitboard(index);
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                middlegame += MIDDLEGAME[index][square];
+                endgame += ENDGAME[index][square];
+                phase += PHASE_WEIGHTS[Piece.typeOfIndex(index)];
+                pieces &= pieces - 1;
+            }
+        }
+        return new int[] {middlegame, endgame, phase};
+    }
+
+    /**
+     * Interpola entre la puntuació de mig joc i la de final segons la fase.
+     * Amb promocions la fase pot passar de MAX_PHASE; es limita perquè compti com a mig joc.
+     */
+    private static int taper(int middlegame, int endgame, int phase) {
+        int weight = Math.min(phase, MAX_PHASE);
+        return (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+    }
+}
@@ -1,6 +1,16 @@
 package com.example.chess;
 
-import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * Classe controladora principal del joc d'escacs.
@@ -8,22 +18,59 @@ import java.util.ArrayList;
  */
 public class GameController {
     
+    private static final String COMPUTER_NAME = "Ordinador";
+    private static final int COMPUTER_MAX_DEPTH = SearchEngine.MAX_PLY;
+    private static final long COMPUTER_TIME_MILLIS = 2000;
+    private static final long SMP_BENCHMARK_MILLIS = 5000;
+    private static final int BATCH_ERRORS_SHOWN = 10;
+    private static final String DEFAULT_JOURNAL_FILE = "partides.journal";
+    private static final String DEFAULT_BOOK_FILE = "obertures.book";
+    private static final String DEFAULT_TABLEBASE_DIR = "finals";
+    
     private Board board;
     private MoveValidator validator;
+    private MoveGenerator generator;
+    private SanParser sanParser;
     private UIConsole ui;
-    private ArrayList<String> moveHistory;
+    private SearchEngine engine;
+    private GameRecord moveHistory;
+    private Path journalPath;
+    private GameJournal.SyncPolicy journalPolicy;
+    private GameJournal journal;
+    private OpeningBook book;
+    private Tablebase tablebase;
+    private final Random random = new Random();
     
     private String playerWhite;
     private String playerBlack;
     private String lastWinner;
+    private boolean vsComputer;
+    private boolean computerIsWhite;
+    // Mode d'entrada: SAN (files estàndard) o coordenades de la consola (files del tauler imprès)
+    private boolean sanInput;
     
     /**
-     * Constructor que inicialitza els components del joc.
+     * Constructor que inicialitza els components del joc amb el diari per defecte.
      */
     public GameController() {
+        this(Path.of(DEFAULT_JOURNAL_FILE), GameJournal.SyncPolicy.INTERVAL);
+    }
+    
+    /**
+     * Constructor que inicialitza els components del joc.
+     * 
+     * @param journalPath Fitxer del diari de partides
+     * @param journalPolicy Quan es força el disc en escriure el diari
+     */
+    public GameController(Path journalPath, GameJournal.SyncPolicy journalPolicy) {
+        this.journalPath = journalPath;
+        this.journalPolicy = journalPolicy;
         this.board = new Board();
         this.validator = new MoveValidator(board);
+        this.generator = new MoveGenerator(board);
+        this.sanParser = new SanParser(board);
         this.ui = new UIConsole();
+        this.engine = new SearchEngine(board, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
         this.lastWinner = null;
     }
     
@@ -34,27 +81,36 @@ public class GameController {
         boolean exit = false;
         
         ui.showMessage("=== JOC D'ESCACS ===");
+        openJournal();
+        openBook();
+        openTablebase();
+        boolean resumed = resumeUnfinishedGame();
         
         while (!exit) {
-            // Reiniciar tauler
-            board.initializeBoard();
-            
-            // Gestió de noms dels jugadors
-            if (moveHistory == null) {
-                getPlayerNames();
-            } else {
-                if (!ui.readBoolean("\nMateixos jugadors? (si/no): ")) {
+            if (!resumed) {
+                // Reiniciar tauler
+                board.initializeBoard();
+                
+                // Gestió de noms dels jugadors
+                if (moveHistory == null) {
                     getPlayerNames();
-                    lastWinner = null;
-                } else if (lastWinner != null && lastWinner.equals(playerBlack)) {
-                    // Intercanvi segons guanyador
-                    swapPlayers();
+                } else {
+                    if (!ui.readBoolean("\nMateixos jugadors? (si/no): ")) {
+                        getPlayerNames();
+                        lastWinner = null;
+                    } else if (lastWinner != null && lastWinner.equals(playerBlack)) {
+                        // Intercanvi segons guanyador
+                        swapPlayers();
+                    }
                 }
+                
+                // Iniciar nova partida
+                moveHistory = new GameRecord();
+                writeJournal(j -> j.startGame(playerWhite, playerBlack, vsComputer, computerIsWhite));
             }
-            
-            // Iniciar nova partida
-            moveHistory = new ArrayList<>();
+            resumed = false;
             lastWinner = playGame();
+            writeJournal(GameJournal::endGame);
             ui.showMoveHistory(moveHistory);
             
             // Preguntar si volen continuar
@@ -62,15 +118,142 @@ public class GameController {
         }
         
         ui.showMessage("\nGràcies per jugar!");
+        closeJournal();
+        closeBook();
         ui.close();
     }
     
+    /**
+     * Obre el diari de partides. Si no es pot obrir, el joc continua sense diari.
+     * Si el programa s'atura (Ctrl+C), el diari es tanca escrivint el que quedi pendent.
+     */
+    private void openJournal() {
+        try {
+            journal = GameJournal.open(journalPath, journalPolicy, GameJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal, "tancar-diari"));
+        } catch (IOException e) {
+            ui.showError("No s'ha pogut obrir el diari de partides " + journalPath + ": " + e.getMessage()
+                    + ". Les partides no es desaran.");
+        }
+    }
+    
+    /**
+     * Afegeix un registre al diari, si n'hi ha. Si el diari ha deixat d'escriure, ho avisa
+     * i el joc continua sense diari.
+     * 
+     * @param record Escriptura del registre
+     */
+    private void writeJournal(Consumer<GameJournal> record) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            record.accept(journal);
+        } catch (UncheckedIOException e) {
+            ui.showError("No s'ha pogut escriure el diari de partides: " + e.getCause().getMessage()
+                    + ". Les partides ja no es desaran.");
+            GameJournal failed = journal;
+            journal = null;
+            try {
+                failed.close();
+            } catch (IOException ignored) {
+                // És el mateix error que ja s'ha mostrat
+            }
+        }
+    }
+    
+    /**
+     * Tanca el diari de partides escrivint el que quedi pendent.
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            ui.showError("No s'ha pogut desar el diari de partides: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obre el llibre d'obertures si existeix el fitxer per defecte. Sense llibre,
+     * l'ordinador cerca totes les jugades.
+     */
+    private void openBook() {
+        Path path = Path.of(DEFAULT_BOOK_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            book = OpeningBook.open(path);
+        } catch (IOException | IllegalArgumentException e) {
+            ui.showError("No s'ha pogut obrir el llibre d'obertures " + path + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Tanca el llibre d'obertures.
+     */
+    private void closeBook() {
+        if (book == null) {
+            return;
+        }
+        try {
+            book.close();
+        } catch (IOException e) {
+            ui.showError("No s'ha pogut tancar el llibre d'obertures: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Fa servir les taules de finals del directori per defecte, si existeix: l'ordinador
+     * hi juga perfectament i la cerca les consulta en les posicions de poques peces.
+     */
+    private void openTablebase() {
+        Path directory = Path.of(DEFAULT_TABLEBASE_DIR);
+        if (Files.isDirectory(directory)) {
+            tablebase = new Tablebase(directory);
+            engine.setTablebase(tablebase);
+        }
+    }
+    
+    /**
+     * Si el diari té una partida sense acabar, pregunta si es vol continuar i la reprodueix.
+     * 
+     * @return true si s'ha recuperat una partida
+     */
+    private boolean resumeUnfinishedGame() {
+        if (journal == null || journal.getUnfinishedGame() == null) {
+            return false;
+        }
+        GameJournal.UnfinishedGame unfinished = journal.getUnfinishedGame();
+        boolean resume = ui.readBoolean("\nHi ha una partida sense acabar (" + unfinished.getPlayerWhite()
+                + " contra " + unfinished.getPlayerBlack() + ", " + unfinished.getMoves().size()
+                + " mitges jugades). Voleu continuar-la? (si/no): ");
+        if (!resume) {
+            writeJournal(GameJournal::endGame);
+            return false;
+        }
+        
+        playerWhite = unfinished.getPlayerWhite();
+        playerBlack = unfinished.getPlayerBlack();
+        vsComputer = unfinished.isVsComputer();
+        computerIsWhite = unfinished.isComputerWhite();
+        moveHistory = unfinished.getMoves();
+        moveHistory.replay(board);
+        ui.showMessage("\nPartida recuperada: " + playerWhite + " (blanques) contra " + playerBlack + " (negres).");
+        return true;
+    }
+    
     /**
      * Obté els noms dels jugadors.
      */
     private void getPlayerNames() {
+        vsComputer = ui.readBoolean("\nVols jugar contra l'ordinador? (si/no): ");
+        computerIsWhite = false;
         playerWhite = ui.readString("\nIntrodueix el nom del jugador 1 (blanques): ");
-        playerBlack = ui.readString("Introdueix el nom del jugador 2 (negres): ");
+        playerBlack = vsComputer ? COMPUTER_NAME : ui.readString("Introdueix el nom del jugador 2 (negres): ");
         
         ui.showMessage("\nJugadors registrats:");
         ui.showMessage(playerWhite + " (blanques)");
@@ -84,6 +267,7 @@ public class GameController {
         String temp = playerWhite;
         playerWhite = playerBlack;
         playerBlack = temp;
+        computerIsWhite = !computerIsWhite;
         ui.showMessage("\nCanvi de torns! " + playerWhite + " (guanyador) ara porta blanques.");
     }
     
@@ -94,7 +278,7 @@ public class GameController {
      */
     private String playGame() {
         boolean gameOn = true;
-        boolean whiteTurn = true;
+        boolean whiteTurn = board.isWhiteToMove();
         String winner = null;
         
         while (gameOn) {
@@ -104,10 +288,50 @@ public class GameController {
             String opponent = whiteTurn ? playerBlack : playerWhite;
             String color = whiteTurn ? "blanques" : "negres";
             
-            String moveInput = ui.readString("\n" + currentPlayer + " (" + color + 
-                                            "), mou (ex: 'e2 e4') o 'Abandonar': ");
+            // Comprovar escac i mat, ofegat, taules o escac abans de demanar el moviment
+            if (generator.isCheckmate(whiteTurn)) {
+                ui.showMessage("\nEscac i mat! " + opponent + " guanya la partida.");
+                winner = opponent;
+                gameOn = false;
+                continue;
+            }
+            if (generator.isStalemate(whiteTurn)) {
+                ui.showMessage("\nOfegat! " + currentPlayer + " no té cap moviment legal. Partida en taules.");
+                gameOn = false;
+                continue;
+            }
+            if (board.isThreefoldRepetition()) {
+                ui.showMessage("\nLa posició s'ha repetit tres vegades. Partida en taules.");
+                gameOn = false;
+                continue;
+            }
+            if (board.isFiftyMoveDraw()) {
+                ui.showMessage("\n50 jugades sense captures ni moviments de peó. Partida en taules.");
+                gameOn = false;
+                continue;
+            }
+            if (generator.isInCheck(whiteTurn)) {
+                ui.showMessage("\nEscac! El rei de " + currentPlayer + " està amenaçat.");
+            }
             
-            if (moveInput.equalsIgnoreCase("Abandonar")) {
+            if (vsComputer && whiteTurn == computerIsWhite) {
+                if (playComputerMove(currentPlayer)) {
+                    whiteTurn = !whiteTurn;
+                } else {
+                    ui.showMessage("\n" + currentPlayer + " no té cap moviment possible. Partida acabada.");
+                    gameOn = false;
+                }
+                continue;
+            }
+            
+            String moveInput = ui.readString("\n" + currentPlayer + " (" + color + "), " + movePrompt(whiteTurn));
+            
+            if (moveInput.equalsIgnoreCase("SAN") || moveInput.equalsIgnoreCase("Coordenades")) {
+                sanInput = moveInput.equalsIgnoreCase("SAN");
+                ui.showMessage(sanInput
+                        ? "Mode SAN: la fila 1 és la de les blanques, com a la notació estàndard."
+                        : "Mode coordenades: les files són les del tauler imprès (la 1 és la de les negres).");
+            } else if (moveInput.equalsIgnoreCase("Abandonar")) {
                 ui.showMessage("\n" + currentPlayer + " ha abandonat la partida.");
                 winner = opponent;
                 gameOn = false;
@@ -123,63 +347,410 @@ public class GameController {
         return winner;
     }
     
+    /**
+     * Text per demanar la jugada en el mode d'entrada actual, amb un exemple vàlid per al jugador.
+     * 
+     * @param whiteTurn true si és el torn de les blanques
+     * @return Text de la petició
+     */
+    private String movePrompt(boolean whiteTurn) {
+        if (sanInput) {
+            return "mou en SAN (ex: " + (whiteTurn ? "'e4' o 'Cf3'" : "'e5' o 'Cc6'")
+                    + "), 'Coordenades' per canviar de mode o 'Abandonar': ";
+        }
+        return "mou en coordenades del tauler (ex: " + (whiteTurn ? "'e7 e5'" : "'e2 e4'")
+                + "), 'SAN' per canviar de mode o 'Abandonar': ";
+    }
+    
     /**
      * Processa un moviment introduït per l'usuari.
      * 
-     * @param moveString Cadena amb el moviment
+     * @param moveString Cadena amb el moviment, en coordenades (ex: "e7 e5") o en SAN (ex: "Cf3") segons el mode
      * @param whiteTurn true si és el torn de les blanques
      * @return true si el moviment s'ha processat correctament
      */
     private boolean processMove(String moveString, boolean whiteTurn) {
-        // Parsejar el moviment
-        int[] coords = ui.parseMove(moveString);
+        // Parsejar el moviment (coordenades o SAN, segons el mode) a una jugada compacta
+        int parsed = ui.parseMove(moveString, sanInput ? sanParser : null);
         
-        if (coords == null) {
+        if (parsed == UIConsole.NO_MOVE) {
             return false; // Error de format
         }
         
-        int fromRow = coords[0];
-        int fromCol = coords[1];
-        int toRow = coords[2];
-        int toCol = coords[3];
+        short move = (short) parsed;
+        int from = GameRecord.from(move);
+        int to = GameRecord.to(move);
         
         // Validar el moviment
-        if (validator.validateMove(fromRow, fromCol, toRow, toCol, whiteTurn)) {
+        int result = validator.checkMove(Bitboards.rowOf(from), Bitboards.colOf(from),
+                                         Bitboards.rowOf(to), Bitboards.colOf(to), whiteTurn);
+        if (result == MoveError.VALID.code()) {
             // Executar el moviment
-            board.movePiece(fromRow, fromCol, toRow, toCol);
-            
-            // Afegir a l'historial
-            String move = convertToChessNotation(fromRow, fromCol) + " " + 
-                         convertToChessNotation(toRow, toCol);
-            moveHistory.add(move);
+            applyMove(GameRecord.toMove(move, board, generator));
             
             return true;
         } else {
-            // El missatge d'error ja s'ha mostrat en validateMove
+            ui.showMoveError(result, whiteTurn);
+            return false;
+        }
+    }
+    
+    /**
+     * Calcula i executa el moviment de l'ordinador.
+     * Si la posició és a les taules de finals o al llibre d'obertures, hi tria una jugada sense cercar.
+     * 
+     * @param computerName Nom amb què es mostra l'ordinador
+     * @return true si l'ordinador ha mogut, false si no té cap moviment legal
+     */
+    private boolean playComputerMove(String computerName) {
+        int move = tablebase == null ? Move.NONE : tablebase.bestMove(board, generator);
+        if (move == Move.NONE && book != null) {
+            move = book.selectMove(board, generator, random);
+        }
+        if (move == Move.NONE) {
+            ui.showMessage("\n" + computerName + " està pensant...");
+            move = engine.search(COMPUTER_MAX_DEPTH, COMPUTER_TIME_MILLIS);
+        }
+        if (move == Move.NONE) {
             return false;
         }
+        applyMove(move);
+        ui.showMessage(computerName + " mou: " + moveHistory.toNotation(moveHistory.size() - 1));
+        return true;
     }
     
     /**
-     * Converteix coordenades d'array a notació d'escacs.
+     * Aplica un moviment al tauler i l'afegeix a l'historial.
      * 
-     * @param row Fila (0-7)
-     * @param col Columna (0-7)
-     * @return Coordenada en format escacs (ex: "e2")
+     * @param move Moviment codificat (vegeu Move)
      */
-    private String convertToChessNotation(int row, int col) {
-        char file = (char) ('a' + col);
-        char rank = (char) ('1' + row);
-        return "" + file + rank;
+    private void applyMove(int move) {
+        board.makeMove(move);
+        
+        // Afegir a l'historial (16 bits per jugada, vegeu GameRecord) i al diari
+        moveHistory.add(move);
+        writeJournal(j -> j.recordMove(move));
     }
     
     /**
      * Punt d'entrada del programa.
+     * Sense arguments inicia el joc per consola. Opcions disponibles:
+     * - "--perft N [FEN]": compta els nodes a profunditat N des de la posició inicial
+     *   o des de la posició FEN indicada
+     * - "--divide N [FEN]": com --perft, però detallant el recompte per cada moviment
+     * - "--smp N": mesura l'escalat de la cerca d'1 fins a N fils
+     * - "--pgn fitxer": reprodueix i valida totes les partides d'un fitxer PGN
+     * - "--batch fitxer [fils]": valida en paral·lel un arxiu de partides (PGN o coordenades)
+     * - "--uci": fa servir el protocol UCI per l'entrada i la sortida estàndard (vegeu UciInterface)
+     * - "--server [port]": obre el servidor de partides (vegeu GameServer)
+     * - "--load partides jugades [port]": prova de càrrega contra un servidor local
+     *   (sense port, se n'obre un dins del mateix procés)
+     * - "--journal fitxer [none|interval|always]": juga amb un altre fitxer de diari
+     *   i política de sincronització (per defecte, partides.journal i interval)
+     * - "--book-build llibre arxiu.pgn... [--plies N]": crea un llibre d'obertures (vegeu OpeningBook);
+     *   si es diu obertures.book, l'ordinador el fa servir en jugar
+     * - "--tablebase directori [KQK KRK ...]": genera taules de finals de fins a 4 peces
+     *   (per defecte KQK, KRK i KPK) amb tots els processadors; si el directori es diu finals,
+     *   l'ordinador les fa servir en jugar
      * 
      * @param args Arguments de línia de comandes
      */
     public static void main(String[] args) {
+        if (args.length >= 2 && (args[0].equals("--perft") || args[0].equals("--divide"))) {
+            // El FEN pot arribar sencer entre cometes o partit en diversos arguments
+            String fen = String.join(" ", Arrays.copyOfRange(args, 2, args.length));
+            runPerft(args[0].equals("--divide"), args[1], fen);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--smp")) {
+            runSmpBenchmark(args[1]);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--pgn")) {
+            runPgnReplay(args[1]);
+            return;
+        }
+        if ((args.length == 2 || args.length == 3) && args[0].equals("--batch")) {
+            runBatchValidation(args[1], args.length == 3 ? args[2] : null);
+            return;
+        }
+        if (args.length == 1 && args[0].equals("--uci")) {
+            runUci();
+            return;
+        }
+        if ((args.length == 1 || args.length == 2) && args[0].equals("--server")) {
+            runServer(args.length == 2 ? args[1] : null);
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--load")) {
+            runLoadTest(args[1], args[2], args.length == 4 ? args[3] : null);
+            return;
+        }
+        if (args.length >= 3 && args[0].equals("--book-build")) {
+            runBookBuild(args);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--tablebase")) {
+            runTablebaseGeneration(args);
+            return;
+        }
+        if ((args.length == 2 || args.length == 3) && args[0].equals("--journal")) {
+            GameJournal.SyncPolicy policy = GameJournal.SyncPolicy.INTERVAL;
+            if (args.length == 3) {
+                try {
+                    policy = GameJournal.SyncPolicy.valueOf(args[2].toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.out.println("ERROR: La política del diari ha de ser none, interval o always.");
+                    return;
+                }
+            }
+            new GameController(Path.of(args[1]), policy).start();
+            return;
+        }
+        
         GameController game = new GameController();
         game.start();
     }
+    
+    /**
+     * Executa el benchmark d'escalat de la cerca amb diversos fils.
+     * 
+     * @param threadsArgument Nombre màxim de fils indicat a la línia de comandes
+     */
+    private static void runSmpBenchmark(String threadsArgument) {
+        int maxThreads = parseNumberArgument(threadsArgument, "El nombre de fils");
+        if (maxThreads < 1 || maxThreads > SearchEngine.MAX_THREADS) {
+            System.out.println("ERROR: El nombre de fils ha de ser entre 1 i " + SearchEngine.MAX_THREADS + ".");
+            return;
+        }
+        new SmpBenchmark(SMP_BENCHMARK_MILLIS).run(maxThreads);
+    }
+    
+    /**
+     * Reprodueix les partides d'un fitxer PGN i en mostra el resum.
+     * 
+     * @param file Ruta del fitxer PGN
+     */
+    private static void runPgnReplay(String file) {
+        PgnReader reader = new PgnReader();
+        try {
+            reader.read(Path.of(file));
+        } catch (IOException e) {
+            System.out.println("ERROR: No s'ha pogut llegir el fitxer " + file + ": " + e.getMessage());
+            return;
+        }
+        System.out.println(reader.report());
+    }
+    
+    /**
+     * Valida en paral·lel les partides d'un arxiu i en mostra el resum
+     * i les primeres partides amb jugades il·legals.
+     * 
+     * @param file Ruta del fitxer (".pgn" per a PGN; qualsevol altra extensió, coordenades)
+     * @param threadsArgument Nombre de fils, o null per fer servir tots els processadors
+     */
+    private static void runBatchValidation(String file, String threadsArgument) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (threadsArgument != null) {
+            threads = parseNumberArgument(threadsArgument, "El nombre de fils");
+            if (threads < 1) {
+                return;
+            }
+        }
+        
+        Path path = Path.of(file);
+        BatchValidator validator = new BatchValidator(threads);
+        try {
+            BatchValidator.Summary summary = validator.validate(path, BatchValidator.Format.of(path));
+            System.out.println(summary.report());
+            List<BatchValidator.InvalidGame> invalidGames = summary.getInvalidGames();
+            for (int i = 0; i < Math.min(BATCH_ERRORS_SHOWN, invalidGames.size()); i++) {
+                System.out.println("  " + invalidGames.get(i));
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR: No s'ha pogut llegir el fitxer " + file + ": " + e.getMessage());
+        } finally {
+            validator.shutdown();
+        }
+    }
+    
+    /**
+     * Crea un llibre d'obertures a partir d'un o més fitxers PGN.
+     * 
+     * @param args Arguments: "--book-build", fitxer del llibre, fitxers PGN i opcionalment "--plies N"
+     */
+    private static void runBookBuild(String[] args) {
+        int plies = OpeningBook.DEFAULT_MAX_PLIES;
+        int end = args.length;
+        if (args.length >= 5 && args[args.length - 2].equals("--plies")) {
+            plies = parseNumberArgument(args[args.length - 1], "El nombre de mitges jugades");
+            if (plies < 1) {
+                return;
+            }
+            end -= 2;
+        }
+        
+        OpeningBook.Builder builder = new OpeningBook.Builder(plies);
+        long start = System.nanoTime();
+        try {
+            for (int i = 2; i < end; i++) {
+                builder.readPgn(Path.of(args[i]));
+            }
+            long entries = builder.write(Path.of(args[1]));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Llibre " + args[1] + ": " + entries + " entrades de " + builder.getGames()
+                    + " partides (" + plies + " mitges jugades per partida) en " + millis + " ms");
+        } catch (IOException e) {
+            System.out.println("ERROR: No s'ha pogut crear el llibre d'obertures: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Genera taules de finals i les desa al directori indicat.
+     * 
+     * @param args Arguments: "--tablebase", directori i opcionalment els materials
+     */
+    private static void runTablebaseGeneration(String[] args) {
+        String[] signatures = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length)
+                : Tablebase.DEFAULT_SIGNATURES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Tablebase tablebase = new Tablebase(Path.of(args[1]));
+        for (String signature : signatures) {
+            long start = System.nanoTime();
+            try {
+                int maxPlies = tablebase.generate(signature, threads);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.println(Tablebase.canonicalSignature(signature) + ": mat més llarg en " + maxPlies
+                        + " mitges jugades (" + millis + " ms amb " + threads + " fils)");
+            } catch (IllegalArgumentException e) {
+                System.out.println("ERROR: " + e.getMessage());
+            } catch (IOException e) {
+                System.out.println("ERROR: No s'ha pogut desar la taula " + signature + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Atén ordres UCI per l'entrada estàndard fins a rebre quit.
+     */
+    private static void runUci() {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        try {
+            new UciInterface(in, System.out).run();
+        } catch (IOException e) {
+            System.out.println("info string Error de lectura: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obre el servidor de partides i el manté obert fins que s'atura el programa.
+     * 
+     * @param portArgument Port indicat a la línia de comandes, o null per al port per defecte
+     */
+    private static void runServer(String portArgument) {
+        int port = portArgument == null ? GameServer.DEFAULT_PORT : parseNumberArgument(portArgument, "El port");
+        if (port < 0) {
+            return;
+        }
+        try {
+            GameServer server = GameServer.start(port);
+            System.out.println("Servidor de partides escoltant a localhost:" + server.getPort()
+                    + " (Ctrl+C per aturar-lo)");
+            Thread.currentThread().join();
+        } catch (IOException e) {
+            System.out.println("ERROR: No s'ha pogut obrir el servidor: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Executa una prova de càrrega i en mostra els percentils de latència.
+     * 
+     * @param clientsArgument Nombre de partides simultànies
+     * @param pliesArgument Jugades per partida
+     * @param portArgument Port d'un servidor ja obert, o null per obrir-ne un dins del procés
+     */
+    private static void runLoadTest(String clientsArgument, String pliesArgument, String portArgument) {
+        int clients = parseNumberArgument(clientsArgument, "El nombre de partides");
+        int plies = parseNumberArgument(pliesArgument, "El nombre de jugades");
+        int port = portArgument == null ? 0 : parseNumberArgument(portArgument, "El port");
+        if (clients < 1 || plies < 1 || port < 0) {
+            return;
+        }
+        
+        GameServer server = null;
+        try {
+            if (portArgument == null) {
+                server = GameServer.start(0);
+                port = server.getPort();
+            }
+            LoadGenerator.Report report = new LoadGenerator("localhost", port).run(clients, plies);
+            System.out.println(report.report());
+        } catch (IOException e) {
+            System.out.println("ERROR: La prova de càrrega ha fallat: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (server != null) {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.out.println("ERROR: No s'ha pogut tancar el servidor: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Converteix un argument numèric de la línia de comandes.
+     * 
+     * @param argument Text de l'argument
+     * @param description Descripció de l'argument per al missatge d'error
+     * @return El número, o -1 si no és un enter no negatiu
+     */
+    private static int parseNumberArgument(String argument, String description) {
+        try {
+            int value = Integer.parseInt(argument);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Es mostra el mateix missatge que per als negatius
+        }
+        System.out.println("ERROR: " + description + " ha de ser un número enter positiu.");
+        return -1;
+    }
+    
+    /**
+     * Executa el recompte de nodes des de la posició inicial o des d'una posició FEN.
+     * 
+     * @param divide true per mostrar el recompte per cada moviment
+     * @param depthArgument Profunditat indicada a la línia de comandes
+     * @param fen Posició en notació FEN, o text buit per a la posició inicial
+     */
+    private static void runPerft(boolean divide, String depthArgument, String fen) {
+        int depth = parseNumberArgument(depthArgument, "La profunditat");
+        if (depth < 0) {
+            return;
+        }
+        
+        Board board = new Board();
+        if (!fen.isBlank()) {
+            try {
+                board.loadFen(fen);
+            } catch (IllegalArgumentException e) {
+                System.out.println("ERROR: " + e.getMessage());
+                return;
+            }
+        }
+        Perft perft = new Perft(board);
+        System.out.println("Taules d'atac inicialitzades en "
+                + AttackTables.getInitTimeNanos() / 1000 + " microsegons");
+        if (divide) {
+            perft.divide(depth);
+        } else {
+            perft.run(depth);
+        }
+    }
 }
\ No newline at end of file
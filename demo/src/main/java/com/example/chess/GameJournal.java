@@ -0,0 +1,575 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Diari de partides en un fitxer on només s'afegeix al final, per no perdre
+ * les partides en curs si el programa s'atura.
+ * El fil del joc només copia cada registre a un buffer en memòria; un fil d'escriptura
+ * intercanvia aquest buffer amb un altre i l'escriu sencer al canal (escriptura per lots),
+ * de manera que el bucle de jugades no espera mai el disc. Quan es força el disc
+ * (fsync) ho decideix la SyncPolicy.
+ *
+ * Format del fitxer:
+ * - 5 bytes de capçalera: "ESCJ" i la versió (1)
+ * - Registres: tipus (1 byte), mida de les dades (2 bytes), dades, CRC32 (4 bytes)
+ *   del tipus, la mida i les dades
+ * - Tipus: inici de partida (indicadors i noms dels jugadors), jugada (16 bits,
+ *   vegeu GameRecord) i final de partida
+ *
+ * En obrir el diari es llegeixen tots els registres amb un buffer de mida fixa; el primer
+ * registre incomplet o amb el CRC incorrecte (una escriptura tallada) marca el final.
+ * Si l'última partida no té registre de final, es pot recuperar amb getUnfinishedGame().
+ * Les partides acabades ja no calen: el fitxer es deixa amb la capçalera i, si n'hi ha,
+ * la partida sense acabar, de manera que no creix d'una sessió a l'altra.
+ */
+public class GameJournal implements AutoCloseable {
+
+    /**
+     * Quan s'obliga el sistema operatiu a desar les dades al disc.
+     */
+    public enum SyncPolicy {
+        /** Mai: el sistema operatiu decideix (es pot perdre l'últim lot si cau la màquina) */
+        NONE,
+        /** Com a molt un cop per interval, després d'escriure un lot */
+        INTERVAL,
+        /** Després de cada lot escrit */
+        ALWAYS
+    }
+
+    public static final int VERSION = 1;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    private static final byte[] MAGIC = {'E', 'S', 'C', 'J'};
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+    private static final int RECORD_OVERHEAD = 1 + Short.BYTES + Integer.BYTES;
+    private static final int MAX_NAME_BYTES = 1024;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    // La mida de les dades d'un registre es guarda en 2 bytes
+    private static final int MAX_RECORD_SIZE = RECORD_OVERHEAD + 0xFFFF;
+    private static final int SCAN_BUFFER_SIZE = 2 * MAX_RECORD_SIZE;
+    // Si el disc no segueix el ritme, el fil del joc espera abans que el buffer pendent passi d'aquí
+    private static final int MAX_PENDING_BYTES = 1 << 20;
+
+    // Tipus de registre
+    private static final byte GAME_START = 1;
+    private static final byte MOVE = 2;
+    private static final byte GAME_END = 3;
+
+    // Indicadors del registre d'inici de partida
+    private static final int FLAG_VS_COMPUTER = 1;
+    private static final int FLAG_COMPUTER_WHITE = 2;
+
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final long syncIntervalNanos;
+    private final CRC32 crc = new CRC32();
+    private final UnfinishedGame unfinishedGame;
+    private final Thread writer;
+
+    // Protegits pel monitor del diari
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appended;
+    private long written;
+    private long batches;
+    private boolean closed;
+    private IOException failure;
+
+    // Només el fa servir el fil d'escriptura
+    private long lastSyncNanos;
+
+    /**
+     * Partida que havia començat però no té registre de final.
+     */
+    public static final class UnfinishedGame {
+
+        private final String playerWhite;
+        private final String playerBlack;
+        private final boolean vsComputer;
+        private final boolean computerIsWhite;
+        private final GameRecord moves;
+
+        UnfinishedGame(String playerWhite, String playerBlack, boolean vsComputer, boolean computerIsWhite,
+                GameRecord moves) {
+            this.playerWhite = playerWhite;
+            this.playerBlack = playerBlack;
+            this.vsComputer = vsComputer;
+            this.computerIsWhite = computerIsWhite;
+            this.moves = moves;
+        }
+
+        public String getPlayerWhite() {
+            return playerWhite;
+        }
+
+        public String getPlayerBlack() {
+            return playerBlack;
+        }
+
+        public boolean isVsComputer() {
+            return vsComputer;
+        }
+
+        public boolean isComputerWhite() {
+            return computerIsWhite;
+        }
+
+        /**
+         * @return Jugades fetes fins a l'última registrada
+         */
+        public GameRecord getMoves() {
+            return moves;
+        }
+    }
+
+    private GameJournal(FileChannel channel, SyncPolicy policy, long syncIntervalMillis,
+            UnfinishedGame unfinishedGame) {
+        this.channel = channel;
+        this.policy = policy;
+        this.syncIntervalNanos = syncIntervalMillis * 1_000_000;
+        this.unfinishedGame = unfinishedGame;
+        this.lastSyncNanos = System.nanoTime();
+        this.writer = new Thread(this::writeLoop, "diari-partides");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Obre (o crea) un diari amb la política de sincronització per defecte (INTERVAL).
+     *
+     * @param path Ruta del fitxer
+     * @return Diari obert, amb la partida sense acabar si n'hi ha
+     * @throws IOException si el fitxer no es pot obrir o no és un diari
+     */
+    public static GameJournal open(Path path) throws IOException {
+        return open(path, SyncPolicy.INTERVAL, DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Obre (o crea) un diari, recupera la partida sense acabar i en descarta la resta:
+     * la cua tallada i les partides acabades.
+     *
+     * @param path Ruta del fitxer
+     * @param policy Quan es força el disc
+     * @param syncIntervalMillis Interval mínim entre sincronitzacions amb SyncPolicy.INTERVAL
+     * @return Diari obert, amb la partida sense acabar si n'hi ha
+     * @throws IOException si el fitxer no es pot obrir o no és un diari
+     */
+    public static GameJournal open(Path path, SyncPolicy policy, long syncIntervalMillis) throws IOException {
+        FileChannel channel = openChannel(path);
+        try {
+            UnfinishedGame unfinished = null;
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                Recovery recovery = recover(channel);
+                unfinished = recovery.game;
+                if (unfinished == null) {
+                    // Totes les partides s'han acabat: només queda la capçalera
+                    channel.truncate(HEADER_SIZE);
+                } else if (recovery.gameStart > HEADER_SIZE) {
+                    channel = rotate(path, channel, recovery.gameStart, recovery.end);
+                } else {
+                    // Descartar una possible escriptura tallada al final
+                    channel.truncate(recovery.end);
+                }
+            }
+            channel.position(channel.size());
+            return new GameJournal(channel, policy, syncIntervalMillis, unfinished);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put((byte) VERSION).flip();
+        writeFully(channel, header);
+    }
+
+    /**
+     * Reescriu el diari amb la capçalera i els registres de la partida sense acabar. La còpia
+     * es fa en un fitxer temporal que substitueix l'original d'una sola vegada: si el programa
+     * s'atura a mig copiar, el diari anterior continua sencer.
+     *
+     * @param start Inici del registre d'inici de la partida
+     * @param end Final de l'últim registre vàlid
+     * @return Canal del diari nou (el del diari anterior queda tancat)
+     */
+    private static FileChannel rotate(Path path, FileChannel channel, long start, long end) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            long copied = 0;
+            while (copied < end - start) {
+                copied += channel.transferTo(start + copied, end - start - copied, out);
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return openChannel(path);
+    }
+
+    /**
+     * Resultat de llegir els registres d'un diari.
+     */
+    private static final class Recovery {
+
+        // L'última partida sense registre de final, o null
+        UnfinishedGame game;
+        // Posició al fitxer del registre d'inici de la partida sense acabar
+        long gameStart;
+        // Posició al fitxer del final de l'últim registre vàlid
+        long end;
+    }
+
+    /**
+     * Llegeix els registres fins al primer d'incomplet o corrupte. El fitxer es recorre amb
+     * un buffer de mida fixa i posicions long, de manera que no importa la seva mida.
+     */
+    private static Recovery recover(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE).flip();
+        if (!fill(channel, buffer, 0, HEADER_SIZE)) {
+            throw new IOException("El diari de partides no té capçalera");
+        }
+        for (byte expected : MAGIC) {
+            if (buffer.get() != expected) {
+                throw new IOException("El fitxer no és un diari de partides");
+            }
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Versió de diari no suportada: " + version);
+        }
+
+        CRC32 checksum = new CRC32();
+        Recovery recovery = new Recovery();
+        long offset = HEADER_SIZE;
+        while (fill(channel, buffer, offset, 1 + Short.BYTES)) {
+            int length = Short.toUnsignedInt(buffer.getShort(buffer.position() + 1));
+            int size = RECORD_OVERHEAD + length;
+            if (!fill(channel, buffer, offset, size)) {
+                break;
+            }
+            int start = buffer.position();
+            byte type = buffer.get(start);
+            checksum.reset();
+            checksum.update(buffer.slice(start, 1 + Short.BYTES + length));
+            if (buffer.getInt(start + size - Integer.BYTES) != (int) checksum.getValue()) {
+                break;
+            }
+            ByteBuffer data = buffer.slice(start + 1 + Short.BYTES, length);
+            buffer.position(start + size);
+
+            if (type == GAME_START) {
+                recovery.game = readGameStart(data);
+                recovery.gameStart = offset;
+            } else if (type == MOVE && recovery.game != null && length == Short.BYTES) {
+                recovery.game.moves.addPacked(data.getShort());
+            } else if (type == GAME_END) {
+                recovery.game = null;
+            }
+            offset += size;
+        }
+        recovery.end = offset;
+        return recovery;
+    }
+
+    /**
+     * Assegura que el buffer (en mode lectura) té almenys count bytes pendents, llegint-ne
+     * més del fitxer.
+     *
+     * @param offset Posició al fitxer del primer byte pendent del buffer
+     * @return false si el fitxer s'acaba abans
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, long offset, int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return true;
+        }
+        long readOffset = offset + buffer.remaining();
+        buffer.compact();
+        while (buffer.position() < count) {
+            int read = channel.read(buffer, readOffset);
+            if (read < 0) {
+                break;
+            }
+            readOffset += read;
+        }
+        buffer.flip();
+        return buffer.remaining() >= count;
+    }
+
+    private static UnfinishedGame readGameStart(ByteBuffer data) {
+        int flags = data.get();
+        String white = readName(data);
+        String black = readName(data);
+        return new UnfinishedGame(white, black, (flags & FLAG_VS_COMPUTER) != 0,
+                (flags & FLAG_COMPUTER_WHITE) != 0, new GameRecord());
+    }
+
+    private static String readName(ByteBuffer data) {
+        byte[] bytes = new byte[Short.toUnsignedInt(data.getShort())];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return La partida que no es va acabar l'última vegada, o null si no n'hi ha
+     */
+    public UnfinishedGame getUnfinishedGame() {
+        return unfinishedGame;
+    }
+
+    /**
+     * Registra l'inici d'una partida.
+     *
+     * @param playerWhite Nom del jugador de blanques
+     * @param playerBlack Nom del jugador de negres
+     * @param vsComputer true si es juga contra l'ordinador
+     * @param computerIsWhite true si l'ordinador porta les blanques
+     * @throws UncheckedIOException si el fil d'escriptura ha fallat i el diari ja no desa res
+     */
+    public void startGame(String playerWhite, String playerBlack, boolean vsComputer, boolean computerIsWhite) {
+        byte[] white = encodeName(playerWhite);
+        byte[] black = encodeName(playerBlack);
+        int flags = (vsComputer ? FLAG_VS_COMPUTER : 0) | (computerIsWhite ? FLAG_COMPUTER_WHITE : 0);
+
+        int length = 1 + 2 * Short.BYTES + white.length + black.length;
+
+        synchronized (this) {
+            ByteBuffer out = reserve(length);
+            int start = out.position();
+            out.put(GAME_START).putShort((short) length);
+            out.put((byte) flags);
+            out.putShort((short) white.length).put(white);
+            out.putShort((short) black.length).put(black);
+            finishRecord(out, start);
+        }
+    }
+
+    /**
+     * Registra una jugada acceptada de la partida en curs. No fa cap escriptura al disc.
+     *
+     * @param move Moviment codificat (vegeu Move)
+     * @throws UncheckedIOException si el fil d'escriptura ha fallat i el diari ja no desa res
+     */
+    public synchronized void recordMove(int move) {
+        ByteBuffer out = reserve(Short.BYTES);
+        int start = out.position();
+        out.put(MOVE).putShort((short) Short.BYTES).putShort(GameRecord.pack(move));
+        finishRecord(out, start);
+    }
+
+    /**
+     * Registra el final de la partida en curs, que ja no es recuperarà.
+     *
+     * @throws UncheckedIOException si el fil d'escriptura ha fallat i el diari ja no desa res
+     */
+    public synchronized void endGame() {
+        ByteBuffer out = reserve(0);
+        int start = out.position();
+        out.put(GAME_END).putShort((short) 0);
+        finishRecord(out, start);
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_NAME_BYTES ? bytes : Arrays.copyOf(bytes, MAX_NAME_BYTES);
+    }
+
+    /**
+     * Assegura espai al buffer pendent per a un registre amb dades de la mida indicada.
+     * Si el buffer arriba a MAX_PENDING_BYTES, espera que el fil d'escriptura el buidi.
+     * Un cop el fil d'escriptura ha fallat no s'accepta cap registre més: en lloc d'acumular
+     * jugades en memòria que no es desaran, es llança l'error.
+     */
+    private ByteBuffer reserve(int length) {
+        if (closed) {
+            throw new IllegalStateException("El diari de partides està tancat");
+        }
+        int needed = RECORD_OVERHEAD + length;
+        while (failure == null && pending.position() > 0 && pending.position() + needed > MAX_PENDING_BYTES) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interromput esperant el diari de partides"));
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("El diari de partides ha deixat d'escriure", failure);
+        }
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        return pending;
+    }
+
+    /**
+     * Afegeix el CRC del registre que comença a la posició indicada i avisa el fil d'escriptura.
+     */
+    private void finishRecord(ByteBuffer out, int start) {
+        crc.reset();
+        crc.update(out.slice(start, out.position() - start));
+        out.putInt((int) crc.getValue());
+        appended += out.position() - start;
+        notifyAll();
+    }
+
+    /**
+     * Espera fins que tot el que s'ha registrat és al fitxer (i al disc, si la política
+     * ho demana).
+     *
+     * @throws IOException si el fil d'escriptura ha fallat
+     */
+    public synchronized void flush() throws IOException {
+        long target = appended;
+        while (written < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interromput esperant el diari de partides", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Escriu el que quedi pendent, força el disc i tanca el fitxer.
+     *
+     * @throws IOException si no s'han pogut escriure totes les dades
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return Lots escrits pel fil d'escriptura (cada lot pot agrupar molts registres)
+     */
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Bucle del fil d'escriptura: intercanvia els buffers, escriu el lot i sincronitza.
+     * Amb SyncPolicy.INTERVAL, si queden dades sense sincronitzar i no arriba cap lot
+     * nou, se sincronitza igualment quan passa l'interval.
+     */
+    private void writeLoop() {
+        boolean unsynced = false;
+        while (true) {
+            ByteBuffer batch = null;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    long waitMillis = 0;
+                    if (unsynced && policy == SyncPolicy.INTERVAL) {
+                        waitMillis = (lastSyncNanos + syncIntervalNanos - System.nanoTime()) / 1_000_000;
+                        if (waitMillis <= 0) {
+                            break;
+                        }
+                    }
+                    try {
+                        wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                if (pending.position() > 0) {
+                    batch = pending;
+                    pending = writing;
+                    writing = batch;
+                } else if (closed) {
+                    return; // close() força el disc
+                }
+            }
+
+            long size = 0;
+            try {
+                if (batch != null) {
+                    size = batch.position();
+                    batch.flip();
+                    writeFully(channel, batch);
+                    batch.clear();
+                    unsynced = true;
+                }
+                if (unsynced && isSyncDue()) {
+                    channel.force(false);
+                    lastSyncNanos = System.nanoTime();
+                    unsynced = false;
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+
+            if (batch != null) {
+                synchronized (this) {
+                    written += size;
+                    batches++;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private boolean isSyncDue() {
+        return policy == SyncPolicy.ALWAYS
+                || (policy == SyncPolicy.INTERVAL && System.nanoTime() - lastSyncNanos >= syncIntervalNanos);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Historial compacte d'una partida: una jugada de 16 bits per mitja jugada en un short[]
+ * que creix quan cal, sense crear cap objecte per jugada.
+ * Format dels bits de cada jugada:
+ * - 0-5: casella origen (0-63)
+ * - 6-11: casella destí (0-63)
+ * - 12-14: tipus de la peça de promoció (vegeu Piece.ROOK_INDEX...QUEEN_INDEX), 0 si no n'hi ha
+ *
+ * Format binari del fitxer (big-endian):
+ * - 4 bytes: "ESCP"
+ * - 1 byte: versió (1)
+ * - 4 bytes: nombre de mitges jugades
+ * - 2 bytes per mitja jugada
+ *
+ * També es pot convertir a la notació de la consola ("e2 e4", on el dígit '1' és la fila 0;
+ * les promocions s'indiquen amb la lletra de la peça, ex: "e2 e1=C").
+ */
+public class GameRecord {
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'E', 'S', 'C', 'P'};
+    private static final int HEADER_SIZE = MAGIC.length + 1 + Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 128;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+
+    private short[] moves;
+    private int size;
+
+    /**
+     * Constructor d'un historial buit.
+     */
+    public GameRecord() {
+        this.moves = new short[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Afegeix una jugada al final de l'historial.
+     *
+     * @param move Moviment codificat (vegeu Move)
+     */
+    public void add(int move) {
+        addPacked(pack(move));
+    }
+
+    /**
+     * Afegeix una jugada ja comprimida (vegeu pack).
+     *
+     * @param packed Jugada compacta
+     */
+    void addPacked(short packed) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = packed;
+    }
+
+    /**
+     * Elimina l'última jugada, si n'hi ha.
+     */
+    public void removeLast() {
+        if (size > 0) {
+            size--;
+        }
+    }
+
+    /**
+     * Buida l'historial mantenint la capacitat reservada.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param ply Mitja jugada (des de 0)
+     * @return Jugada compacta de 16 bits
+     */
+    public short get(int ply) {
+        if (ply < 0 || ply >= size) {
+            throw new IndexOutOfBoundsException("Mitja jugada " + ply + " fora de l'historial (" + size + ")");
+        }
+        return moves[ply];
+    }
+
+    /**
+     * Comprimeix un moviment codificat als 16 bits de l'historial.
+     *
+     * @param move Moviment codificat (vegeu Move)
+     * @return Jugada compacta
+     */
+    public static short pack(int move) {
+        int promotion = Move.promotion(move);
+        int promotionType = promotion == Piece.NO_PIECE ? 0 : Piece.typeOfIndex(promotion);
+        return pack(Move.from(move), Move.to(move), promotionType);
+    }
+
+    /**
+     * Comprimeix una jugada a partir de les caselles i del tipus de promoció.
+     *
+     * @param from Casella origen (0-63)
+     * @param to Casella destí (0-63)
+     * @param promotionType Tipus de la peça de promoció (vegeu Piece.ROOK_INDEX...QUEEN_INDEX), 0 si no n'hi ha
+     * @return Jugada compacta
+     */
+    public static short pack(int from, int to, int promotionType) {
+        return (short) (from | (to << TO_SHIFT) | (promotionType << PROMOTION_SHIFT));
+    }
+
+    public static int from(short packed) {
+        return packed & SQUARE_MASK;
+    }
+
+    public static int to(short packed) {
+        return (packed >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return Tipus de la peça de promoció, o Piece.NO_PIECE si no n'hi ha
+     */
+    public static int promotionType(short packed) {
+        int type = (packed >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return type == 0 ? Piece.NO_PIECE : type;
+    }
+
+    /**
+     * Reprodueix l'historial des de la posició inicial.
+     *
+     * @param board Tauler on es reprodueix la partida (es reinicia)
+     */
+    public void replay(Board board) {
+        MoveGenerator generator = new MoveGenerator(board);
+        board.initializeBoard();
+        for (int i = 0; i < size; i++) {
+            board.makeMove(toMove(moves[i], board, generator));
+        }
+    }
+
+    /**
+     * Reconstrueix el moviment codificat d'una jugada compacta a la posició actual.
+     *
+     * @param packed Jugada compacta
+     * @param board Tauler amb la posició abans de la jugada
+     * @param generator Generador de moviments del mateix tauler
+     * @return Moviment codificat (vegeu Move)
+     */
+    public static int toMove(short packed, Board board, MoveGenerator generator) {
+        int promotionType = promotionType(packed);
+        int promotion = Piece.NO_PIECE;
+        if (promotionType != Piece.NO_PIECE) {
+            promotion = board.isWhiteToMove() ? promotionType : promotionType + Piece.TYPE_COUNT;
+        }
+        return generator.createMove(from(packed), to(packed), promotion);
+    }
+
+    /**
+     * Converteix una mitja jugada a la notació de la consola (ex: "e2 e4").
+     *
+     * @param ply Mitja jugada (des de 0)
+     * @return Jugada en notació de la consola
+     */
+    public String toNotation(int ply) {
+        return toNotation(get(ply));
+    }
+
+    /**
+     * Converteix una jugada compacta a la notació de la consola (ex: "e2 e4").
+     *
+     * @param packed Jugada compacta
+     * @return Jugada en notació de la consola
+     */
+    public static String toNotation(short packed) {
+        StringBuilder text = new StringBuilder(8);
+        appendSquare(text, from(packed));
+        text.append(' ');
+        appendSquare(text, to(packed));
+        int promotionType = promotionType(packed);
+        if (promotionType != Piece.NO_PIECE) {
+            text.append('=').append(Piece.fromIndex(promotionType));
+        }
+        return text.toString();
+    }
+
+    private static void appendSquare(StringBuilder text, int square) {
+        text.append((char) ('a' + Bitboards.colOf(square)));
+        text.append((char) ('1' + Bitboards.rowOf(square)));
+    }
+
+    /**
+     * Interpreta una jugada en la notació de la consola (ex: "e2 e4" o "e2 e1=C"), amb el
+     * mateix intèrpret que la consola (vegeu UIConsole.parseCoordinates).
+     *
+     * @param notation Jugada en notació de la consola
+     * @return Jugada compacta
+     * @throws IllegalArgumentException si el text no és una jugada
+     */
+    public static short fromNotation(String notation) {
+        int move = UIConsole.parseCoordinates(notation, 0, notation.length());
+        if (move == UIConsole.NO_MOVE) {
+            throw invalidNotation(notation);
+        }
+        return (short) move;
+    }
+
+    private static IllegalArgumentException invalidNotation(String notation) {
+        return new IllegalArgumentException("Jugada invàlida: '" + notation + "'");
+    }
+
+    /**
+     * @return Llista de jugades en la notació de la consola, per mostrar l'historial
+     */
+    public List<String> toNotationList() {
+        List<String> notation = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            notation.add(toNotation(moves[i]));
+        }
+        return notation;
+    }
+
+    /**
+     * Construeix un historial a partir de jugades en la notació de la consola.
+     *
+     * @param notation Jugades (ex: "e2 e4")
+     * @return Historial equivalent
+     * @throws IllegalArgumentException si alguna jugada no s'entén
+     */
+    public static GameRecord fromNotationList(List<String> notation) {
+        GameRecord record = new GameRecord();
+        for (String move : notation) {
+            record.addPacked(fromNotation(move));
+        }
+        return record;
+    }
+
+    /**
+     * @return Mida en bytes de l'historial en format binari
+     */
+    public int binarySize() {
+        return HEADER_SIZE + size * Short.BYTES;
+    }
+
+    /**
+     * Escriu l'historial en format binari a partir de la posició del buffer.
+     *
+     * @param buffer Buffer de sortida amb com a mínim binarySize() bytes lliures
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putShort(moves[i]);
+        }
+    }
+
+    /**
+     * Llegeix un historial en format binari i avança la posició del buffer.
+     *
+     * @param buffer Buffer d'entrada
+     * @return Historial llegit
+     * @throws IllegalArgumentException si les dades no tenen el format esperat
+     */
+    public static GameRecord readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Partida binària incompleta: falta la capçalera");
+        }
+        for (byte expected : MAGIC) {
+            if (buffer.get() != expected) {
+                throw new IllegalArgumentException("No és una partida binària (capçalera desconeguda)");
+            }
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versió de partida binària no suportada: " + version);
+        }
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() < (long) count * Short.BYTES) {
+            throw new IllegalArgumentException("Partida binària incompleta: s'esperaven " + count + " jugades");
+        }
+
+        GameRecord record = new GameRecord();
+        record.moves = new short[Math.max(INITIAL_CAPACITY, count)];
+        for (int i = 0; i < count; i++) {
+            record.moves[i] = buffer.getShort();
+        }
+        record.size = count;
+        return record;
+    }
+
+    /**
+     * Desa l'historial en un fitxer binari (el sobreescriu si ja existeix).
+     *
+     * @param path Ruta del fitxer
+     * @throws IOException si no es pot escriure
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(binarySize());
+        writeTo(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Carrega un historial d'un fitxer binari.
+     *
+     * @param path Ruta del fitxer
+     * @return Historial llegit
+     * @throws IOException si no es pot llegir
+     * @throws IllegalArgumentException si el fitxer no té el format esperat
+     */
+    public static GameRecord load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Llegir fins omplir el buffer
+            }
+            buffer.flip();
+            return readFrom(buffer);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de partides sense consola: cada connexió és atesa per un fil virtual que
+ * juga una GameSession pròpia, de manera que una sola JVM pot mantenir milers de
+ * partides alhora. Només escolta a l'adreça local.
+ *
+ * Protocol de línies (UTF-8), una ordre per línia i una resposta per ordre:
+ * - "NEW": comença una partida a la connexió, o torna a començar la que ja hi ha
+ *   amb el mateix identificador → "OK id"
+ * - "MOVE e7 e5": jugada en la notació de la consola → "OK estat" (PLAYING, CHECK,
+ *   CHECKMATE, STALEMATE, REPETITION o FIFTY_MOVES) o "ERR motiu missatge" (vegeu MoveError)
+ * - "BOARD": posició actual → "OK fen"
+ * - "HISTORY": jugades fetes → "OK e7 e5, e2 e4, ..."
+ * - "QUIT": tanca la connexió → "BYE"
+ * Les ordres desconegudes o mal formades responen "ERR PROTOCOL missatge".
+ *
+ * Atenció a la numeració de les files: MOVE i HISTORY fan servir la de la consola, on el
+ * dígit '1' és la fila de les negres (el primer avanç de peó blanc és "e7 e5"), mentre
+ * que BOARD torna un FEN estàndard, on la fila 1 és la de les blanques.
+ */
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 5555;
+
+    private static final int ACCEPT_BACKLOG = 4096;
+    // Espera després d'un error d'accept (ex: massa fitxers oberts), que es dobla a cada error seguit
+    private static final long ACCEPT_RETRY_MIN_MILLIS = 10;
+    private static final long ACCEPT_RETRY_MAX_MILLIS = 1000;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId = new AtomicLong(1);
+    private final AtomicLong movesPlayed = new AtomicLong();
+    private final Thread acceptor;
+
+    private GameServer(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        this.acceptor = Thread.ofVirtual().name("servidor-partides").start(this::acceptLoop);
+    }
+
+    /**
+     * Obre el servidor a l'adreça local i comença a acceptar connexions.
+     *
+     * @param port Port on escoltar (0 per triar-ne un de lliure)
+     * @return Servidor en marxa
+     * @throws IOException si no es pot obrir el port
+     */
+    public static GameServer start(int port) throws IOException {
+        return new GameServer(new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress()));
+    }
+
+    /**
+     * @return Port on escolta el servidor
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Partides obertes en aquest moment
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Jugades vàlides aplicades des que s'ha obert el servidor
+     */
+    public long getMovesPlayed() {
+        return movesPlayed.get();
+    }
+
+    /**
+     * Deixa d'acceptar connexions i espera que acabin les obertes.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connections.close();
+    }
+
+    /**
+     * Accepta connexions fins que es tanca el servidor. Si accept falla (per exemple, perquè
+     * s'han acabat els descriptors de fitxer), espera abans de tornar-ho a provar, cada cop
+     * més, i només mostra el primer error de cada sèrie per no omplir la sortida.
+     */
+    private void acceptLoop() {
+        long retryMillis = 0;
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                retryMillis = 0;
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return; // Servidor tancat
+                }
+                if (retryMillis == 0) {
+                    System.out.println("ERROR: No s'ha pogut acceptar una connexió: " + e.getMessage()
+                            + ". Es tornarà a provar.");
+                }
+                retryMillis = Math.min(ACCEPT_RETRY_MAX_MILLIS, Math.max(ACCEPT_RETRY_MIN_MILLIS, retryMillis * 2));
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Atén una connexió fins que el client envia QUIT o es desconnecta.
+     */
+    private void serve(Socket socket) {
+        GameSession session = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.trim();
+                if (command.equalsIgnoreCase("QUIT")) {
+                    out.print("BYE\n");
+                    out.flush();
+                    break;
+                }
+                if (command.equalsIgnoreCase("NEW")) {
+                    // Una connexió que ja té partida la torna a començar sense crear-ne cap de nova
+                    if (session == null) {
+                        session = new GameSession(nextSessionId.getAndIncrement());
+                        sessions.put(session.getId(), session);
+                    } else {
+                        session.reset();
+                    }
+                    out.print("OK " + session.getId() + "\n");
+                } else {
+                    out.print(handle(session, command) + "\n");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // El client s'ha desconnectat: la partida es descarta
+        } finally {
+            if (session != null) {
+                sessions.remove(session.getId());
+            }
+        }
+    }
+
+    /**
+     * Executa una ordre sobre la partida de la connexió.
+     *
+     * @param session Partida de la connexió, o null si encara no n'ha començat cap
+     * @param command Ordre rebuda
+     * @return Resposta per al client
+     */
+    private String handle(GameSession session, String command) {
+        if (session == null) {
+            return "ERR PROTOCOL Cal començar una partida amb NEW.";
+        }
+        if (command.regionMatches(true, 0, "MOVE ", 0, 5)) {
+            return handleMove(session, command, 5);
+        }
+        if (command.equalsIgnoreCase("BOARD")) {
+            return "OK " + session.toFen();
+        }
+        if (command.equalsIgnoreCase("HISTORY")) {
+            return "OK " + session.historyText();
+        }
+        return "ERR PROTOCOL Ordre desconeguda: " + command;
+    }
+
+    /**
+     * Juga la jugada que segueix l'ordre, llegida directament de la línia rebuda.
+     */
+    private String handleMove(GameSession session, String command, int start) {
+        // Format "e7 e5": dues caselles separades per espais (sense promoció, que sempre és a reina)
+        int parsed = UIConsole.parseCoordinates(command, start, command.length());
+        if (parsed == UIConsole.NO_MOVE || GameRecord.promotionType((short) parsed) != Piece.NO_PIECE) {
+            return "ERR PROTOCOL Format invàlid. Utilitza format 'e7 e5' amb lletres a-h i números 1-8,"
+                    + " on la fila 1 és la de les negres; la promoció sempre és a reina.";
+        }
+        int from = GameRecord.from((short) parsed);
+        int to = GameRecord.to((short) parsed);
+
+        boolean whiteTurn = session.isWhiteToMove();
+        int code = session.play(Bitboards.rowOf(from), Bitboards.colOf(from),
+                Bitboards.rowOf(to), Bitboards.colOf(to));
+        if (code != MoveError.VALID.code()) {
+            MoveError error = MoveError.fromCode(code);
+            return "ERR " + error.name() + " " + error.describe(whiteTurn);
+        }
+        movesPlayed.incrementAndGet();
+        return "OK " + session.getStatus().name();
+    }
+}
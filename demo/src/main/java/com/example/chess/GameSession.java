@@ -0,0 +1,135 @@
+package com.example.chess;
+
+/**
+ * Partida sense consola: cada sessió té el seu propi tauler, validador i historial,
+ * de manera que moltes sessions poden jugar-se alhora en fils diferents.
+ * Els mètodes estan sincronitzats per si la mateixa sessió rep ordres de més d'un fil.
+ */
+public class GameSession {
+
+    /**
+     * Estat de la partida després d'una jugada.
+     */
+    public enum Status {
+        PLAYING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        REPETITION,
+        FIFTY_MOVES;
+
+        /**
+         * @return true si la partida ha acabat (mat o qualsevol mena de taules)
+         */
+        public boolean isGameOver() {
+            return this != PLAYING && this != CHECK;
+        }
+    }
+
+    private final long id;
+    private final Board board;
+    private final MoveValidator validator;
+    private final MoveGenerator generator;
+    private final GameRecord history;
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private Status status;
+
+    /**
+     * Constructor d'una sessió amb la posició inicial.
+     *
+     * @param id Identificador de la sessió
+     */
+    public GameSession(long id) {
+        this.id = id;
+        this.board = new Board();
+        this.validator = new MoveValidator(board);
+        this.generator = new MoveGenerator(board);
+        this.history = new GameRecord();
+        this.status = Status.PLAYING;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Torna a començar la partida des de la posició inicial.
+     */
+    public synchronized void reset() {
+        board.initializeBoard();
+        history.clear();
+        status = Status.PLAYING;
+    }
+
+    /**
+     * Valida i aplica una jugada del color que mou.
+     *
+     * @param fromRow Fila d'origen
+     * @param fromCol Columna d'origen
+     * @param toRow Fila de destí
+     * @param toCol Columna de destí
+     * @return Codi de MoveError (MoveError.VALID si s'ha aplicat, GAME_OVER si la partida ja ha acabat)
+     */
+    public synchronized int play(int fromRow, int fromCol, int toRow, int toCol) {
+        if (status.isGameOver()) {
+            return MoveError.GAME_OVER.code();
+        }
+        boolean whiteTurn = board.isWhiteToMove();
+        int result = validator.checkMove(fromRow, fromCol, toRow, toCol, whiteTurn);
+        if (result != MoveError.VALID.code()) {
+            return result;
+        }
+
+        int move = generator.createMove(Bitboards.square(fromRow, fromCol), Bitboards.square(toRow, toCol),
+                Piece.NO_PIECE);
+        board.makeMove(move);
+        history.add(move);
+        status = computeStatus();
+        return result;
+    }
+
+    /**
+     * Calcula l'estat amb una sola generació de moviments legals. El mat té prioritat
+     * sobre les taules per repetició o per la regla de les 50 jugades.
+     */
+    private Status computeStatus() {
+        boolean whiteTurn = board.isWhiteToMove();
+        boolean inCheck = generator.isInCheck(whiteTurn);
+        if (generator.generateLegalMoves(legalMoves, whiteTurn) == 0) {
+            return inCheck ? Status.CHECKMATE : Status.STALEMATE;
+        }
+        if (board.isThreefoldRepetition()) {
+            return Status.REPETITION;
+        }
+        if (board.isFiftyMoveDraw()) {
+            return Status.FIFTY_MOVES;
+        }
+        return inCheck ? Status.CHECK : Status.PLAYING;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized boolean isWhiteToMove() {
+        return board.isWhiteToMove();
+    }
+
+    /**
+     * @return Posició actual en notació FEN
+     */
+    public synchronized String toFen() {
+        return board.toFen();
+    }
+
+    /**
+     * @return Jugades fetes, en la notació de la consola i separades per comes
+     */
+    public synchronized String historyText() {
+        return String.join(", ", history.toNotationList());
+    }
+
+    public synchronized int getPlies() {
+        return history.size();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador de càrrega per al GameServer: obre moltes connexions alhora (una per fil
+ * virtual), totes juguen la mateixa obertura i es mesura la latència de cada jugada
+ * (des que s'envia fins que arriba la resposta). Les connexions s'obren abans de
+ * començar, de manera que totes les partides estan actives a la vegada.
+ */
+public class LoadGenerator {
+
+    // Obertura legal en la notació de la consola; es torna a començar amb NEW en acabar-la
+    private static final String[] OPENING = {
+        "e7 e5", "e2 e4", "g8 f6", "b1 c3", "f8 c5", "f1 c4", "d7 d6", "d2 d3"
+    };
+
+    private final String host;
+    private final int port;
+
+    /**
+     * Constructor que rep l'adreça del servidor.
+     *
+     * @param host Nom o adreça del servidor
+     * @param port Port del servidor
+     */
+    public LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Executa la prova de càrrega.
+     *
+     * @param clients Nombre de partides simultànies
+     * @param pliesPerClient Jugades que envia cada partida
+     * @return Resum amb les latències
+     * @throws IOException si alguna connexió falla
+     * @throws InterruptedException si s'interromp l'espera
+     */
+    public Report run(int clients, int pliesPerClient) throws IOException, InterruptedException {
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        long elapsed;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> playClient(pliesPerClient, connected, go)));
+            }
+            connected.await();
+            long start = System.nanoTime();
+            go.countDown();
+
+            long[] latencies = new long[clients * pliesPerClient];
+            int count = 0;
+            long errors = 0;
+            for (Future<long[]> result : results) {
+                long[] client = get(result);
+                for (long latency : client) {
+                    if (latency < 0) {
+                        errors++;
+                    } else {
+                        latencies[count++] = latency;
+                    }
+                }
+            }
+            elapsed = System.nanoTime() - start;
+            return new Report(clients, Arrays.copyOf(latencies, count), errors, elapsed);
+        }
+    }
+
+    /**
+     * Juga una partida: es connecta, espera el senyal de sortida i envia les jugades.
+     *
+     * @return Latència de cada jugada en nanosegons (negativa si el servidor l'ha rebutjada)
+     */
+    private long[] playClient(int plies, CountDownLatch connected, CountDownLatch go)
+            throws IOException, InterruptedException {
+        long[] latencies = new long[plies];
+        boolean ready = false;
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            request(in, out, "NEW");
+            connected.countDown();
+            ready = true;
+            go.await();
+
+            for (int i = 0; i < plies; i++) {
+                if (i > 0 && i % OPENING.length == 0) {
+                    request(in, out, "NEW");
+                }
+                long start = System.nanoTime();
+                String response = request(in, out, "MOVE " + OPENING[i % OPENING.length]);
+                long latency = System.nanoTime() - start;
+                latencies[i] = response.startsWith("OK") ? latency : -1;
+            }
+            request(in, out, "QUIT");
+        } finally {
+            if (!ready) {
+                connected.countDown(); // No bloquejar la sortida si la connexió falla
+            }
+        }
+        return latencies;
+    }
+
+    private static String request(BufferedReader in, PrintWriter out, String command) throws IOException {
+        out.print(command + "\n");
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("El servidor ha tancat la connexió");
+        }
+        return response;
+    }
+
+    private static long[] get(Future<long[]> result) throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Ha fallat un client de la prova: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Resultat d'una prova de càrrega.
+     */
+    public static final class Report {
+
+        private final int clients;
+        private final long[] latencies;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Report(int clients, long[] latencies, long errors, long elapsedNanos) {
+            this.clients = clients;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            Arrays.sort(this.latencies);
+        }
+
+        public int getClients() {
+            return clients;
+        }
+
+        /**
+         * @return Jugades acceptades pel servidor
+         */
+        public long getMoves() {
+            return latencies.length;
+        }
+
+        /**
+         * @return Jugades rebutjades pel servidor
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @param fraction Fracció entre 0 i 1 (0.5 per a la mediana, 0.99 per al p99)
+         * @return Latència del percentil en nanosegons (0 si no hi ha cap jugada)
+         */
+        public long percentileNanos(double fraction) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        public double getMovesPerSecond() {
+            return elapsedNanos == 0 ? 0 : latencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Construeix el resum per mostrar per consola.
+         *
+         * @return Text amb partides, jugades, percentils i velocitat
+         */
+        public String report() {
+            return String.format("Partides simultànies: %d | Jugades: %d (%d rebutjades) | "
+                    + "p50: %.1f µs | p99: %.1f µs | màx: %.1f µs | %.0f jugades/s",
+                    clients, getMoves(), errors, percentileNanos(0.5) / 1000.0, percentileNanos(0.99) / 1000.0,
+                    percentileNanos(1.0) / 1000.0, getMovesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.chess;
+
+/**
+ * Utilitats per codificar un moviment en un sol int.
+ * Format dels bits:
+ * - 0-5: casella origen (0-63)
+ * - 6-11: casella destí (0-63)
+ * - 12-15: índex de la peça que es mou (vegeu Piece.index)
+ * - 16-19: índex de la peça capturada + 1 (0 si no hi ha captura)
+ * - 20-23: índex de la peça de promoció + 1 (0 si no hi ha promoció)
+ * - 24-27: indicadors de moviment especial (captura al pas, enroc)
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    // Indicadors de moviments especials (bits 24-27)
+    public static final int FLAG_NONE = 0;
+    public static final int FLAG_EN_PASSANT = 1;
+    public static final int FLAG_CASTLING = 2;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+    private static final int TO_SHIFT = 6;
+    private static final int PIECE_SHIFT = 12;
+    private static final int CAPTURE_SHIFT = 16;
+    private static final int PROMOTION_SHIFT = 20;
+    private static final int FLAG_SHIFT = 24;
+
+    // Lletres de promoció en notació estàndard, en l'ordre de Piece.index (P T C A Q K)
+    private static final String STANDARD_LETTERS = "prnbqk";
+
+    private Move() {
+    }
+
+    /**
+     * Codifica un moviment.
+     *
+     * @param from Casella origen (0-63)
+     * @param to Casella destí (0-63)
+     * @param piece Índex de la peça que es mou
+     * @param captured Índex de la peça capturada o Piece.NO_PIECE
+     * @param promotion Índex de la peça de promoció o Piece.NO_PIECE
+     * @return Moviment codificat
+     */
+    public static int encode(int from, int to, int piece, int captured, int promotion) {
+        return encode(from, to, piece, captured, promotion, FLAG_NONE);
+    }
+
+    /**
+     * Codifica un moviment amb indicadors de moviment especial.
+     *
+     * @param from Casella origen (0-63)
+     * @param to Casella destí (0-63)
+     * @param piece Índex de la peça que es mou
+     * @param captured Índex de la peça capturada o Piece.NO_PIECE
+     * @param promotion Índex de la peça de promoció o Piece.NO_PIECE
+     * @param flags FLAG_NONE, FLAG_EN_PASSANT o FLAG_CASTLING
+     * @return Moviment codificat
+     */
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from
+                | (to << TO_SHIFT)
+                | (piece << PIECE_SHIFT)
+                | ((captured + 1) << CAPTURE_SHIFT)
+                | ((promotion + 1) << PROMOTION_SHIFT)
+                | (flags << FLAG_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int piece(int move) {
+        return (move >>> PIECE_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * @return Índex de la peça capturada o Piece.NO_PIECE
+     */
+    public static int captured(int move) {
+        return ((move >>> CAPTURE_SHIFT) & PIECE_MASK) - 1;
+    }
+
+    /**
+     * @return Índex de la peça de promoció o Piece.NO_PIECE
+     */
+    public static int promotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & PIECE_MASK) - 1;
+    }
+
+    public static int flags(int move) {
+        return (move >>> FLAG_SHIFT) & PIECE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return captured(move) != Piece.NO_PIECE;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != Piece.NO_PIECE;
+    }
+
+    /**
+     * @return true si és una captura al pas (el peó capturat no és a la casella destí)
+     */
+    public static boolean isEnPassant(int move) {
+        return flags(move) == FLAG_EN_PASSANT;
+    }
+
+    /**
+     * @return true si és un enroc (moviment del rei de dues columnes)
+     */
+    public static boolean isCastling(int move) {
+        return flags(move) == FLAG_CASTLING;
+    }
+
+    /**
+     * Obté el nom estàndard d'una casella (ex: "e4"), amb les blanques a les files 7 i 6.
+     *
+     * @param square Índex de casella (0-63)
+     * @return Nom de la casella
+     */
+    public static String squareName(int square) {
+        char file = (char) ('a' + Bitboards.colOf(square));
+        char rank = (char) ('8' - Bitboards.rowOf(square));
+        return "" + file + rank;
+    }
+
+    /**
+     * Converteix un moviment a notació de coordenades estàndard (ex: "e2e4").
+     *
+     * @param move Moviment codificat
+     * @return Cadena amb el moviment
+     */
+    public static String toString(int move) {
+        String text = squareName(from(move)) + squareName(to(move));
+        int promotion = promotion(move);
+        return promotion == Piece.NO_PIECE ? text : text + STANDARD_LETTERS.charAt(Piece.typeOfIndex(promotion));
+    }
+}
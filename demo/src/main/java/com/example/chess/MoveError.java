@@ -0,0 +1,73 @@
+package com.example.chess;
+
+/**
+ * Motius pels quals es rebutja un moviment.
+ * MoveValidator.checkMove retorna el codi (ordinal) sense fer cap sortida per consola;
+ * la interfície el converteix en missatge amb fromCode i describe.
+ */
+public enum MoveError {
+
+    VALID("Moviment vàlid."),
+    OUT_OF_BOARD("Posició fora del tauler."),
+    NO_PIECE("No hi ha cap peça a aquesta posició."),
+    WRONG_COLOR("No pots moure peces del rival."),
+    SAME_SQUARE("L'origen i el destí són la mateixa posició."),
+    OWN_PIECE("No pots capturar les teves pròpies peces."),
+    UNKNOWN_PIECE("Peça desconeguda."),
+    INVALID_PAWN_MOVE("Moviment de peó invàlid."),
+    ROOK_NOT_STRAIGHT("La torre només es pot moure en línia recta."),
+    INVALID_KNIGHT_MOVE("El cavall es mou en forma de L (2+1)."),
+    BISHOP_NOT_DIAGONAL("L'alfil només es pot moure en diagonal."),
+    PATH_BLOCKED("Hi ha una peça en el camí."),
+    DIAGONAL_PATH_BLOCKED("Hi ha una peça en el camí diagonal."),
+    INVALID_KING_MOVE("El rei només es pot moure 1 casella."),
+    KING_CAPTURE("No es pot capturar el rei."),
+    KING_IN_CHECK("Aquest moviment deixa el teu rei en escac."),
+    CASTLING_NOT_ALLOWED("No es pot enrocar: el rei o la torre ja s'han mogut."),
+    CASTLING_THROUGH_CHECK("No es pot enrocar estant en escac ni passant per una casella atacada."),
+    GAME_OVER("La partida ja s'ha acabat.");
+
+    private static final MoveError[] VALUES = values();
+
+    private final String message;
+
+    MoveError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Obté el motiu a partir del codi retornat per MoveValidator.
+     *
+     * @param code Codi del motiu (ordinal)
+     * @return Motiu corresponent
+     */
+    public static MoveError fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * @return Codi numèric del motiu, tal com el retorna MoveValidator.checkMove
+     */
+    public int code() {
+        return ordinal();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Construeix el missatge per mostrar al jugador, amb els colors quan calen.
+     *
+     * @param isWhiteTurn true si és el torn de les blanques
+     * @return Missatge en català
+     */
+    public String describe(boolean isWhiteTurn) {
+        if (this == WRONG_COLOR) {
+            String pieceColor = isWhiteTurn ? "negres" : "blanques";
+            String expectedColor = isWhiteTurn ? "blanques" : "negres";
+            return "No pots moure peces " + pieceColor + ". Ara toca moure " + expectedColor + ".";
+        }
+        return message;
+    }
+}
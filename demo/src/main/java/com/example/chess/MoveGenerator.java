@@ -0,0 +1,473 @@
+package com.example.chess;
+
+/**
+ * Classe que genera tots els moviments possibles del jugador que ha de moure.
+ * Aplica les mateixes regles per peça que MoveValidator, però sobre bitboards,
+ * i omple una llista d'ints proporcionada pel cridador (vegeu Move) sense crear objectes.
+ */
+public class MoveGenerator {
+
+    // Mida suficient per a qualsevol posició legal d'escacs
+    public static final int MAX_MOVES = 256;
+
+    private static final int WHITE_PAWN_START_ROW = 6;
+    private static final int BLACK_PAWN_START_ROW = 1;
+    private static final int BLACK = Piece.TYPE_COUNT;
+    private static final long ALL_SQUARES = ~0L;
+
+    private final Board board;
+    private final int[] scratchMoves = new int[MAX_MOVES];
+
+    /**
+     * Constructor que rep el tauler del qual es generaran els moviments.
+     *
+     * @param board Tauler d'escacs
+     */
+    public MoveGenerator(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Genera els moviments pseudolegals (sense comprovar si el rei queda en escac).
+     *
+     * @param moves Llista on s'escriuen els moviments (mida mínima MAX_MOVES)
+     * @param whiteTurn true si mouen les blanques
+     * @return Nombre de moviments generats
+     */
+    public int generatePseudoLegalMoves(int[] moves, boolean whiteTurn) {
+        return generateMoves(moves, whiteTurn, false);
+    }
+
+    /**
+     * Genera només les captures i les promocions a reina pseudolegals (per a la cerca de quiescència).
+     *
+     * @param moves Llista on s'escriuen els moviments (mida mínima MAX_MOVES)
+     * @param whiteTurn true si mouen les blanques
+     * @return Nombre de moviments generats
+     */
+    public int generateCaptures(int[] moves, boolean whiteTurn) {
+        return generateMoves(moves, whiteTurn, true);
+    }
+
+    private int generateMoves(int[] moves, boolean whiteTurn, boolean capturesOnly) {
+        int count = 0;
+        int offset = whiteTurn ? 0 : Piece.TYPE_COUNT;
+        long occupancy = board.getOccupancy();
+        long targets = capturesOnly ? board.getOccupancy(!whiteTurn) : ~board.getOccupancy(whiteTurn);
+
+        count = generatePawnMoves(moves, count, whiteTurn, capturesOnly);
+
+        long knights = board.getPieceBitboard(offset + Piece.KNIGHT_INDEX);
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(moves, count, from, offset + Piece.KNIGHT_INDEX,
+                    AttackTables.knightAttacks(from) & targets);
+        }
+
+        long bishops = board.getPieceBitboard(offset + Piece.BISHOP_INDEX);
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            count = addMoves(moves, count, from, offset + Piece.BISHOP_INDEX,
+                    AttackTables.bishopAttacks(from, occupancy) & targets);
+        }
+
+        long rooks = board.getPieceBitboard(offset + Piece.ROOK_INDEX);
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            count = addMoves(moves, count, from, offset + Piece.ROOK_INDEX,
+                    AttackTables.rookAttacks(from, occupancy) & targets);
+        }
+
+        long queens = board.getPieceBitboard(offset + Piece.QUEEN_INDEX);
+        while (queens != 0) {
+            int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            count = addMoves(moves, count, from, offset + Piece.QUEEN_INDEX,
+                    AttackTables.queenAttacks(from, occupancy) & targets);
+        }
+
+        long kings = board.getPieceBitboard(offset + Piece.KING_INDEX);
+        while (kings != 0) {
+            int from = Long.numberOfTrailingZeros(kings);
+            kings &= kings - 1;
+            count = addMoves(moves, count, from, offset + Piece.KING_INDEX,
+                    AttackTables.kingAttacks(from) & targets);
+        }
+        if (!capturesOnly) {
+            count = generateCastling(moves, count, whiteTurn);
+        }
+
+        return count;
+    }
+
+    /**
+     * Genera els moviments legals: els pseudolegals que no deixen el rei propi en escac.
+     * En lloc de provar cada moviment, fa servir la màscara d'escac (caselles que
+     * capturen o tapen l'escac) i les peces clavades contra el rei.
+     *
+     * @param moves Llista on s'escriuen els moviments (mida mínima MAX_MOVES)
+     * @param whiteTurn true si mouen les blanques
+     * @return Nombre de moviments generats
+     */
+    public int generateLegalMoves(int[] moves, boolean whiteTurn) {
+        int count = generatePseudoLegalMoves(moves, whiteTurn);
+        long kingBit = board.getPieceBitboard((whiteTurn ? 0 : Piece.TYPE_COUNT) + Piece.KING_INDEX);
+        if (kingBit == 0) {
+            // Posicions de prova sense rei: no hi ha escacs possibles
+            return count;
+        }
+
+        int king = Long.numberOfTrailingZeros(kingBit);
+        long pinned = pinnedPieces(king, whiteTurn);
+        long checkMask = checkMask(king, whiteTurn);
+
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            if (isLegal(moves[i], whiteTurn, king, pinned, checkMask)) {
+                moves[legal++] = moves[i];
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Comprova si un moviment pseudolegal deixa el rei propi fora d'escac,
+     * amb les mateixes màscares que generateLegalMoves i sense tocar el tauler.
+     *
+     * @param move Moviment codificat
+     * @param whiteTurn true si mouen les blanques
+     * @return true si el moviment és legal
+     */
+    public boolean isLegal(int move, boolean whiteTurn) {
+        long kingBit = board.getPieceBitboard((whiteTurn ? 0 : Piece.TYPE_COUNT) + Piece.KING_INDEX);
+        if (kingBit == 0) {
+            return true;
+        }
+        int king = Long.numberOfTrailingZeros(kingBit);
+        return isLegal(move, whiteTurn, king, pinnedPieces(king, whiteTurn), checkMask(king, whiteTurn));
+    }
+
+    private boolean isLegal(int move, boolean whiteTurn, int king, long pinned, long checkMask) {
+        if (Move.isEnPassant(move)) {
+            // Treu dos peons de la mateixa fila: pot descobrir un atac que les màscares no veuen
+            board.makeMove(move);
+            boolean legal = !isInCheck(whiteTurn);
+            board.unmakeMove();
+            return legal;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long toBit = Bitboards.bit(to);
+
+        if (from == king) {
+            // El rei no pot anar a una casella atacada; es treu de l'ocupació
+            // perquè no tapi els raigs que travessen la seva casella actual
+            long occupancy = board.getOccupancy() ^ Bitboards.bit(king);
+            return (attackersTo(to, occupancy) & board.getOccupancy(!whiteTurn) & ~toBit) == 0;
+        }
+        return (toBit & checkMask) != 0
+                && ((pinned & Bitboards.bit(from)) == 0 || (AttackTables.line(king, from) & toBit) != 0);
+    }
+
+    /**
+     * Caselles on una peça que no és el rei pot resoldre l'escac: totes si no n'hi ha,
+     * capturar o tapar si és simple i cap si és doble (només pot moure el rei).
+     */
+    private long checkMask(int king, boolean whiteTurn) {
+        long checkers = attackersTo(king, board.getOccupancy()) & board.getOccupancy(!whiteTurn);
+        if (checkers == 0) {
+            return ALL_SQUARES;
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return Bitboards.EMPTY;
+        }
+        return checkers | AttackTables.between(king, Long.numberOfTrailingZeros(checkers));
+    }
+
+    /**
+     * Construeix el moviment codificat entre dues caselles segons la posició actual:
+     * detecta la captura al pas, l'enroc i la promoció. No comprova si és vàlid.
+     *
+     * @param from Casella origen
+     * @param to Casella destí
+     * @param promotion Índex de la peça de promoció o Piece.NO_PIECE (un peó que arriba
+     *                  a l'última fila promociona a reina)
+     * @return Moviment codificat
+     */
+    public int createMove(int from, int to, int promotion) {
+        int piece = Piece.index(board.getPieceAt(from));
+        int captured = Piece.index(board.getPieceAt(to));
+        int type = piece == Piece.NO_PIECE ? Piece.NO_PIECE : Piece.typeOfIndex(piece);
+        int offset = piece - type;
+
+        if (type == Piece.PAWN_INDEX) {
+            if (to == board.getEnPassantSquare() && Bitboards.colOf(from) != Bitboards.colOf(to)) {
+                int enemyPawn = Piece.TYPE_COUNT - offset + Piece.PAWN_INDEX;
+                return Move.encode(from, to, piece, enemyPawn, Piece.NO_PIECE, Move.FLAG_EN_PASSANT);
+            }
+            int toRow = Bitboards.rowOf(to);
+            if ((toRow == 0 || toRow == 7) && promotion == Piece.NO_PIECE) {
+                promotion = offset + Piece.QUEEN_INDEX;
+            }
+            return Move.encode(from, to, piece, captured, promotion);
+        }
+        if (type == Piece.KING_INDEX && Math.abs(Bitboards.colOf(to) - Bitboards.colOf(from)) == 2) {
+            return Move.encode(from, to, piece, captured, Piece.NO_PIECE, Move.FLAG_CASTLING);
+        }
+        return Move.encode(from, to, piece, captured, Piece.NO_PIECE);
+    }
+
+    /**
+     * Comprova si el rei d'un color està en escac.
+     *
+     * @param white true per al rei blanc
+     * @return true si el rei és atacat (false si no hi ha rei al tauler)
+     */
+    public boolean isInCheck(boolean white) {
+        long king = board.getPieceBitboard((white ? 0 : Piece.TYPE_COUNT) + Piece.KING_INDEX);
+        if (king == 0) {
+            return false;
+        }
+        return isSquareAttacked(Long.numberOfTrailingZeros(king), !white);
+    }
+
+    /**
+     * Comprova si el jugador no té cap moviment legal i el seu rei està en escac.
+     *
+     * @param white true per comprovar les blanques
+     * @return true si és escac i mat
+     */
+    public boolean isCheckmate(boolean white) {
+        return isInCheck(white) && generateLegalMoves(scratchMoves, white) == 0;
+    }
+
+    /**
+     * Comprova si el jugador no té cap moviment legal però el seu rei no està en escac.
+     *
+     * @param white true per comprovar les blanques
+     * @return true si és ofegat (taules)
+     */
+    public boolean isStalemate(boolean white) {
+        return !isInCheck(white) && generateLegalMoves(scratchMoves, white) == 0;
+    }
+
+    /**
+     * Obté totes les peces (de qualsevol color) que ataquen una casella.
+     *
+     * @param square Casella atacada
+     * @param occupancy Ocupació a considerar per a les peces lliscants
+     * @return Bitboard de les peces atacants
+     */
+    public long attackersTo(int square, long occupancy) {
+        long rooks = board.getPieceBitboard(Piece.ROOK_INDEX) | board.getPieceBitboard(BLACK + Piece.ROOK_INDEX)
+                | board.getPieceBitboard(Piece.QUEEN_INDEX) | board.getPieceBitboard(BLACK + Piece.QUEEN_INDEX);
+        long bishops = board.getPieceBitboard(Piece.BISHOP_INDEX) | board.getPieceBitboard(BLACK + Piece.BISHOP_INDEX)
+                | board.getPieceBitboard(Piece.QUEEN_INDEX) | board.getPieceBitboard(BLACK + Piece.QUEEN_INDEX);
+        long knights = board.getPieceBitboard(Piece.KNIGHT_INDEX) | board.getPieceBitboard(BLACK + Piece.KNIGHT_INDEX);
+        long kings = board.getPieceBitboard(Piece.KING_INDEX) | board.getPieceBitboard(BLACK + Piece.KING_INDEX);
+
+        return (AttackTables.pawnAttacks(square, true) & board.getPieceBitboard(BLACK + Piece.PAWN_INDEX))
+                | (AttackTables.pawnAttacks(square, false) & board.getPieceBitboard(Piece.PAWN_INDEX))
+                | (AttackTables.knightAttacks(square) & knights)
+                | (AttackTables.kingAttacks(square) & kings)
+                | (AttackTables.rookAttacks(square, occupancy) & rooks)
+                | (AttackTables.bishopAttacks(square, occupancy) & bishops);
+    }
+
+    /**
+     * Obté les peces pròpies clavades: les que no es poden apartar de la línia
+     * entre el seu rei i una peça lliscant rival sense deixar el rei en escac.
+     *
+     * @param king Casella del rei
+     * @param white true si el rei és blanc
+     * @return Bitboard de les peces clavades
+     */
+    public long pinnedPieces(int king, boolean white) {
+        int enemy = white ? BLACK : 0;
+        long own = board.getOccupancy(white);
+        long enemyOccupancy = board.getOccupancy(!white);
+        long queens = board.getPieceBitboard(enemy + Piece.QUEEN_INDEX);
+
+        // Atacants que veurien el rei si no hi hagués peces pròpies pel mig
+        long snipers = (AttackTables.rookAttacks(king, enemyOccupancy)
+                        & (board.getPieceBitboard(enemy + Piece.ROOK_INDEX) | queens))
+                | (AttackTables.bishopAttacks(king, enemyOccupancy)
+                        & (board.getPieceBitboard(enemy + Piece.BISHOP_INDEX) | queens));
+
+        long pinned = Bitboards.EMPTY;
+        long occupancy = own | enemyOccupancy;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = AttackTables.between(king, sniper) & occupancy;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Comprova si una casella és atacada per alguna peça d'un color.
+     *
+     * @param square Casella a comprovar
+     * @param byWhite true si es comproven els atacs de les blanques
+     * @return true si la casella és atacada
+     */
+    public boolean isSquareAttacked(int square, boolean byWhite) {
+        int offset = byWhite ? 0 : Piece.TYPE_COUNT;
+        long occupancy = board.getOccupancy();
+
+        if ((AttackTables.pawnAttacks(square, !byWhite) & board.getPieceBitboard(offset + Piece.PAWN_INDEX)) != 0) {
+            return true;
+        }
+        if ((AttackTables.knightAttacks(square) & board.getPieceBitboard(offset + Piece.KNIGHT_INDEX)) != 0) {
+            return true;
+        }
+        if ((AttackTables.kingAttacks(square) & board.getPieceBitboard(offset + Piece.KING_INDEX)) != 0) {
+            return true;
+        }
+
+        long queens = board.getPieceBitboard(offset + Piece.QUEEN_INDEX);
+        long straight = board.getPieceBitboard(offset + Piece.ROOK_INDEX) | queens;
+        if ((AttackTables.rookAttacks(square, occupancy) & straight) != 0) {
+            return true;
+        }
+        long diagonal = board.getPieceBitboard(offset + Piece.BISHOP_INDEX) | queens;
+        return (AttackTables.bishopAttacks(square, occupancy) & diagonal) != 0;
+    }
+
+    /**
+     * Genera els moviments dels peons: avanç d'una casella, avanç doble des de
+     * la fila inicial, captura en diagonal, captura al pas i promoció.
+     * Amb capturesOnly només s'afegeixen captures i promocions a reina.
+     */
+    private int generatePawnMoves(int[] moves, int count, boolean whiteTurn, boolean capturesOnly) {
+        int piece = (whiteTurn ? 0 : Piece.TYPE_COUNT) + Piece.PAWN_INDEX;
+        int direction = whiteTurn ? -1 : 1;
+        int startingRow = whiteTurn ? WHITE_PAWN_START_ROW : BLACK_PAWN_START_ROW;
+        int promotionRow = whiteTurn ? 0 : 7;
+        long empty = ~board.getOccupancy();
+        long enemies = board.getOccupancy(!whiteTurn);
+
+        long pawns = board.getPieceBitboard(piece);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int row = Bitboards.rowOf(from);
+            int col = Bitboards.colOf(from);
+            int nextRow = row + direction;
+            if (nextRow < 0 || nextRow > 7) {
+                continue;
+            }
+
+            long captures = AttackTables.pawnAttacks(from, whiteTurn) & enemies;
+            int oneStep = Bitboards.square(nextRow, col);
+            if (nextRow == promotionRow) {
+                if ((empty & Bitboards.bit(oneStep)) != 0) {
+                    count = addPromotions(moves, count, from, oneStep, piece, Piece.NO_PIECE, capturesOnly);
+                }
+                while (captures != 0) {
+                    int to = Long.numberOfTrailingZeros(captures);
+                    captures &= captures - 1;
+                    count = addPromotions(moves, count, from, to, piece, Piece.index(board.getPieceAt(to)), capturesOnly);
+                }
+                continue;
+            }
+
+            if (!capturesOnly && (empty & Bitboards.bit(oneStep)) != 0) {
+                moves[count++] = Move.encode(from, oneStep, piece, Piece.NO_PIECE, Piece.NO_PIECE);
+                int twoSteps = oneStep + direction * 8;
+                if (row == startingRow && (empty & Bitboards.bit(twoSteps)) != 0) {
+                    moves[count++] = Move.encode(from, twoSteps, piece, Piece.NO_PIECE, Piece.NO_PIECE);
+                }
+            }
+
+            count = addMoves(moves, count, from, piece, captures);
+        }
+
+        // Captura al pas: els peons propis que atacarien la casella saltada pel peó rival
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != Board.NO_SQUARE) {
+            int enemyPawn = (whiteTurn ? Piece.TYPE_COUNT : 0) + Piece.PAWN_INDEX;
+            long attackers = AttackTables.pawnAttacks(enPassant, !whiteTurn) & board.getPieceBitboard(piece);
+            while (attackers != 0) {
+                int from = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                moves[count++] = Move.encode(from, enPassant, piece, enemyPawn, Piece.NO_PIECE, Move.FLAG_EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Afegeix les promocions d'un peó (reina, torre, alfil i cavall, o només reina).
+     */
+    private int addPromotions(int[] moves, int count, int from, int to, int piece, int captured, boolean queenOnly) {
+        int offset = piece - Piece.PAWN_INDEX;
+        moves[count++] = Move.encode(from, to, piece, captured, offset + Piece.QUEEN_INDEX);
+        if (!queenOnly) {
+            moves[count++] = Move.encode(from, to, piece, captured, offset + Piece.ROOK_INDEX);
+            moves[count++] = Move.encode(from, to, piece, captured, offset + Piece.BISHOP_INDEX);
+            moves[count++] = Move.encode(from, to, piece, captured, offset + Piece.KNIGHT_INDEX);
+        }
+        return count;
+    }
+
+    /**
+     * Genera els enrocs: cal el dret d'enroc, la torre al seu lloc, les caselles entre
+     * rei i torre buides, i que el rei no estigui en escac ni passi per una casella atacada.
+     * La casella final del rei es comprova com qualsevol altre moviment de rei.
+     */
+    private int generateCastling(int[] moves, int count, boolean whiteTurn) {
+        int rights = board.getCastlingRights();
+        int kingside = whiteTurn ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        int queenside = whiteTurn ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        if ((rights & (kingside | queenside)) == 0) {
+            return count;
+        }
+
+        int offset = whiteTurn ? 0 : Piece.TYPE_COUNT;
+        int row = whiteTurn ? 7 : 0;
+        int king = Bitboards.square(row, Board.KING_START_COL);
+        if (Piece.index(board.getPieceAt(king)) != offset + Piece.KING_INDEX || isSquareAttacked(king, !whiteTurn)) {
+            return count;
+        }
+
+        if ((rights & kingside) != 0) {
+            count = addCastling(moves, count, offset, king, Bitboards.square(row, Board.KINGSIDE_KING_COL));
+        }
+        if ((rights & queenside) != 0) {
+            count = addCastling(moves, count, offset, king, Bitboards.square(row, Board.QUEENSIDE_KING_COL));
+        }
+        return count;
+    }
+
+    private int addCastling(int[] moves, int count, int offset, int king, int kingTo) {
+        int rookFrom = Board.castlingRookFrom(kingTo);
+        boolean byWhite = offset != 0;
+        if (Piece.index(board.getPieceAt(rookFrom)) != offset + Piece.ROOK_INDEX
+                || (AttackTables.between(king, rookFrom) & board.getOccupancy()) != 0
+                || isSquareAttacked(Board.castlingRookTo(kingTo), byWhite)) {
+            return count;
+        }
+        moves[count++] = Move.encode(king, kingTo, offset + Piece.KING_INDEX,
+                Piece.NO_PIECE, Piece.NO_PIECE, Move.FLAG_CASTLING);
+        return count;
+    }
+
+    /**
+     * Afegeix un moviment per cada casella destí del bitboard.
+     */
+    private int addMoves(int[] moves, int count, int from, int piece, long targets) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[count++] = Move.encode(from, to, piece, Piece.index(board.getPieceAt(to)), Piece.NO_PIECE);
+        }
+        return count;
+    }
+}
@@ -3,10 +3,17 @@ package com.example.chess;
 /**
  * Classe responsable de validar els moviments de les peces d'escacs.
  * Conté la lògica específica per cada tipus de peça.
+ * 
+ * Els mètodes check* són purs: retornen un codi de MoveError sense escriure res
+ * per consola ni crear cadenes. Els mètodes validate* mantenen el comportament
+ * anterior i mostren el missatge d'error quan el moviment no és vàlid.
  */
 public class MoveValidator {
     
+    private static final int VALID = MoveError.VALID.code();
+    
     private Board board;
+    private final MoveGenerator generator;
     
     /**
      * Constructor que rep el tauler per poder validar moviments.
@@ -15,10 +22,12 @@ public class MoveValidator {
      */
     public MoveValidator(Board board) {
         this.board = board;
+        this.generator = new MoveGenerator(board);
     }
     
     /**
      * Valida un moviment complet des d'origen fins a destí.
+     * Si no és vàlid, mostra el motiu per consola.
      * 
      * @param fromRow Fila origen
      * @param fromCol Columna origen
@@ -28,73 +37,94 @@ public class MoveValidator {
      * @return true si el moviment és vàlid, false altrament
      */
     public boolean validateMove(int fromRow, int fromCol, int toRow, int toCol, boolean isWhiteTurn) {
+        return report(checkMove(fromRow, fromCol, toRow, toCol, isWhiteTurn), isWhiteTurn);
+    }
+    
+    /**
+     * Comprova un moviment complet des d'origen fins a destí sense mostrar res.
+     * 
+     * @param fromRow Fila origen
+     * @param fromCol Columna origen
+     * @param toRow Fila destí
+     * @param toCol Columna destí
+     * @param isWhiteTurn true si és el torn de les blanques
+     * @return Codi de MoveError: MoveError.VALID.code() si el moviment és vàlid
+     */
+    public int checkMove(int fromRow, int fromCol, int toRow, int toCol, boolean isWhiteTurn) {
         
         // Validar que les posicions estan dins del tauler
         if (!board.isValidPosition(fromRow, fromCol) || !board.isValidPosition(toRow, toCol)) {
-            System.out.println("ERROR: Posició fora del tauler.");
-            return false;
+            return MoveError.OUT_OF_BOARD.code();
         }
         
         // Validar que hi ha una peça a l'origen
         char piece = board.getPiece(fromRow, fromCol);
         if (Piece.isEmpty(piece)) {
-            System.out.println("ERROR: No hi ha cap peça a aquesta posició.");
-            return false;
+            return MoveError.NO_PIECE.code();
         }
         
         // Validar que la peça és del color correcte
-        boolean isPieceWhite = Piece.isWhite(piece);
-        if (isPieceWhite != isWhiteTurn) {
-            String expectedColor = isWhiteTurn ? "blanques" : "negres";
-            System.out.println("ERROR: No pots moure peces " + (isPieceWhite ? "blanques" : "negres") + 
-                             ". Ara toca moure " + expectedColor + ".");
-            return false;
+        if (Piece.isWhite(piece) != isWhiteTurn) {
+            return MoveError.WRONG_COLOR.code();
         }
         
         // Validar que l'origen i el destí no són iguals
         if (fromRow == toRow && fromCol == toCol) {
-            System.out.println("ERROR: L'origen i el destí són la mateixa posició.");
-            return false;
+            return MoveError.SAME_SQUARE.code();
         }
         
         // Validar que al destí no hi ha una peça del mateix color
         char destPiece = board.getPiece(toRow, toCol);
         if (!Piece.isEmpty(destPiece) && Piece.isSameColor(piece, destPiece)) {
-            System.out.println("ERROR: No pots capturar les teves pròpies peces.");
-            return false;
+            return MoveError.OWN_PIECE.code();
+        }
+        
+        // El rei mai no es captura: la partida acaba abans amb l'escac i mat
+        if (Piece.getType(destPiece) == Piece.KING) {
+            return MoveError.KING_CAPTURE.code();
         }
         
         // Validar moviment específic segons el tipus de peça
-        return validatePieceMove(piece, fromRow, fromCol, toRow, toCol);
+        int result = checkPieceMove(piece, fromRow, fromCol, toRow, toCol);
+        if (result != VALID) {
+            return result;
+        }
+        
+        // Validar que el rei propi no queda en escac (màscares d'escac i clavades)
+        int move = generator.createMove(Bitboards.square(fromRow, fromCol), Bitboards.square(toRow, toCol),
+                Piece.NO_PIECE);
+        if (!generator.isLegal(move, isWhiteTurn)) {
+            return MoveError.KING_IN_CHECK.code();
+        }
+        return VALID;
     }
     
     /**
-     * Valida el moviment segons el tipus de peça.
+     * Comprova el moviment segons el tipus de peça.
      * 
      * @param piece Peça a moure
      * @param fromRow Fila origen
      * @param fromCol Columna origen
      * @param toRow Fila destí
      * @param toCol Columna destí
-     * @return true si el moviment és vàlid segons les regles de la peça
+     * @return Codi de MoveError
      */
-    private boolean validatePieceMove(char piece, int fromRow, int fromCol, int toRow, int toCol) {
+    private int checkPieceMove(char piece, int fromRow, int fromCol, int toRow, int toCol) {
         switch (Piece.getType(piece)) {
             case Piece.PAWN:
-                return validatePawnMove(fromRow, fromCol, toRow, toCol);
+                return checkPawnMove(fromRow, fromCol, toRow, toCol);
             case Piece.ROOK:
-                return validateRookMove(fromRow, fromCol, toRow, toCol);
+                return checkRookMove(fromRow, fromCol, toRow, toCol);
             case Piece.KNIGHT:
-                return validateKnightMove(fromRow, fromCol, toRow, toCol);
+                return checkKnightMove(fromRow, fromCol, toRow, toCol);
             case Piece.BISHOP:
-                return validateBishopMove(fromRow, fromCol, toRow, toCol);
+                return checkBishopMove(fromRow, fromCol, toRow, toCol);
             case Piece.QUEEN:
-                return validateQueenMove(fromRow, fromCol, toRow, toCol);
+                return checkQueenMove(fromRow, fromCol, toRow, toCol);
             case Piece.KING:
-                return validateKingMove(fromRow, fromCol, toRow, toCol);
+                return checkKingMove(fromRow, fromCol, toRow, toCol);
             default:
-                System.out.println("ERROR: Peça desconeguda.");
-                return false;
+                return MoveError.UNKNOWN_PIECE.code();
         }
     }
     
@@ -112,6 +142,15 @@ public class MoveValidator {
      * @return true si el moviment del peó és vàlid
      */
     public boolean validatePawnMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return report(checkPawnMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'un peó sense mostrar res (vegeu validatePawnMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkPawnMove(int fromRow, int fromCol, int toRow, int toCol) {
         char piece = board.getPiece(fromRow, fromCol);
         char destPiece = board.getPiece(toRow, toCol);
         boolean isWhite = Piece.isWhite(piece);
@@ -123,16 +162,16 @@ public class MoveValidator {
         
         // Moviment normal (1 casella endavant)
         if (colDiff == 0 && rowDiff == direction && Piece.isEmpty(destPiece)) {
-            return true;
+            return VALID;
         }
         
         // Moviment inicial (2 caselles endavant)
         int startingRow = isWhite ? 6 : 1;
         if (fromRow == startingRow && colDiff == 0 && rowDiff == 2 * direction) {
             // Comprovar que ambdues caselles estan buides
-            if (Piece.isEmpty(board.getPiece(fromRow + direction, fromCol)) && 
+            if (Piece.isEmpty(board.getPiece(fromRow + direction, fromCol)) &&
                 Piece.isEmpty(destPiece)) {
-                return true;
+                return VALID;
             }
         }
         
@@ -140,12 +179,17 @@ public class MoveValidator {
         if (colDiff == 1 && rowDiff == direction && !Piece.isEmpty(destPiece)) {
             // Verificar que és una peça rival
             if (!Piece.isSameColor(piece, destPiece)) {
-                return true;
+                return VALID;
             }
         }
         
-        System.out.println("ERROR: Moviment de peó invàlid.");
-        return false;
+        // Captura al pas: la casella saltada pel peó rival a l'última jugada
+        if (colDiff == 1 && rowDiff == direction
+                && Bitboards.square(toRow, toCol) == board.getEnPassantSquare()) {
+            return VALID;
+        }
+        
+        return MoveError.INVALID_PAWN_MOVE.code();
     }
     
     /**
@@ -159,18 +203,20 @@ public class MoveValidator {
      * @return true si el moviment de la torre és vàlid
      */
     public boolean validateRookMove(int fromRow, int fromCol, int toRow, int toCol) {
-        // Moviment horitzontal (mateixa fila)
-        if (fromRow == toRow) {
-            return isPathClear(fromRow, fromCol, toRow, toCol, true);
-        }
-        // Moviment vertical (mateixa columna)
-        else if (fromCol == toCol) {
-            return isPathClear(fromRow, fromCol, toRow, toCol, false);
-        }
-        else {
-            System.out.println("ERROR: La torre només es pot moure en línia recta.");
-            return false;
+        return report(checkRookMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'una torre sense mostrar res (vegeu validateRookMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkRookMove(int fromRow, int fromCol, int toRow, int toCol) {
+        // Moviment horitzontal (mateixa fila) o vertical (mateixa columna)
+        if (fromRow == toRow || fromCol == toCol) {
+            return isSegmentClear(fromRow, fromCol, toRow, toCol) ? VALID : MoveError.PATH_BLOCKED.code();
         }
+        return MoveError.ROOK_NOT_STRAIGHT.code();
     }
     
     /**
@@ -184,16 +230,22 @@ public class MoveValidator {
      * @return true si el moviment del cavall és vàlid
      */
     public boolean validateKnightMove(int fromRow, int fromCol, int toRow, int toCol) {
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
+        return report(checkKnightMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'un cavall sense mostrar res (vegeu validateKnightMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkKnightMove(int fromRow, int fromCol, int toRow, int toCol) {
+        long knightTargets = AttackTables.knightAttacks(Bitboards.square(fromRow, fromCol));
         
         // Moviment en L: (2,1) o (1,2)
-        if ((rowDiff == 2 && colDiff == 1) || (rowDiff == 1 && colDiff == 2)) {
-            return true;
-        } else {
-            System.out.println("ERROR: El cavall es mou en forma de L (2+1).");
-            return false;
+        if ((knightTargets & Bitboards.bit(Bitboards.square(toRow, toCol))) != 0) {
+            return VALID;
         }
+        return MoveError.INVALID_KNIGHT_MOVE.code();
     }
     
     /**
@@ -207,16 +259,24 @@ public class MoveValidator {
      * @return true si el moviment de l'alfil és vàlid
      */
     public boolean validateBishopMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return report(checkBishopMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'un alfil sense mostrar res (vegeu validateBishopMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkBishopMove(int fromRow, int fromCol, int toRow, int toCol) {
         int rowDiff = Math.abs(toRow - fromRow);
         int colDiff = Math.abs(toCol - fromCol);
         
         // L'alfil es mou en diagonal (rowDiff == colDiff)
         if (rowDiff != colDiff) {
-            System.out.println("ERROR: L'alfil només es pot moure en diagonal.");
-            return false;
+            return MoveError.BISHOP_NOT_DIAGONAL.code();
         }
         
-        return isDiagonalPathClear(fromRow, fromCol, toRow, toCol);
+        return isSegmentClear(fromRow, fromCol, toRow, toCol) ? VALID : MoveError.DIAGONAL_PATH_BLOCKED.code();
     }
     
     /**
@@ -230,14 +290,21 @@ public class MoveValidator {
      * @return true si el moviment de la reina és vàlid
      */
     public boolean validateQueenMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return report(checkQueenMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'una reina sense mostrar res (vegeu validateQueenMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkQueenMove(int fromRow, int fromCol, int toRow, int toCol) {
         // Moviment en línia recta (com torre)
         if (fromRow == toRow || fromCol == toCol) {
-            return validateRookMove(fromRow, fromCol, toRow, toCol);
+            return checkRookMove(fromRow, fromCol, toRow, toCol);
         }
         // Moviment en diagonal (com alfil)
-        else {
-            return validateBishopMove(fromRow, fromCol, toRow, toCol);
-        }
+        return checkBishopMove(fromRow, fromCol, toRow, toCol);
     }
     
     /**
@@ -251,78 +318,96 @@ public class MoveValidator {
      * @return true si el moviment del rei és vàlid
      */
     public boolean validateKingMove(int fromRow, int fromCol, int toRow, int toCol) {
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
+        return report(checkKingMove(fromRow, fromCol, toRow, toCol), true);
+    }
+    
+    /**
+     * Comprova el moviment d'un rei sense mostrar res (vegeu validateKingMove).
+     * 
+     * @return Codi de MoveError
+     */
+    public int checkKingMove(int fromRow, int fromCol, int toRow, int toCol) {
+        long kingTargets = AttackTables.kingAttacks(Bitboards.square(fromRow, fromCol));
         
         // El rei es pot moure 1 casella en qualsevol direcció
-        if (rowDiff <= 1 && colDiff <= 1) {
-            return true;
-        } else {
-            System.out.println("ERROR: El rei només es pot moure 1 casella.");
-            return false;
+        if ((kingTargets & Bitboards.bit(Bitboards.square(toRow, toCol))) != 0) {
+            return VALID;
+        }
+        
+        // Enroc: el rei es mou dues columnes per la seva fila
+        if (fromRow == toRow && Math.abs(toCol - fromCol) == 2) {
+            return checkCastling(fromRow, fromCol, toCol);
         }
+        return MoveError.INVALID_KING_MOVE.code();
     }
     
     /**
-     * Comprova si el camí està lliure en moviment horitzontal o vertical.
+     * Comprova un enroc: el rei i la torre no s'han mogut, no hi ha peces entre ells
+     * i el rei no està en escac ni passa per una casella atacada.
+     * La casella final es comprova després, com per a qualsevol moviment.
      * 
-     * @param fromRow Fila origen
-     * @param fromCol Columna origen
-     * @param toRow Fila destí
-     * @param toCol Columna destí
-     * @param isHorizontal true si és horitzontal, false si és vertical
-     * @return true si el camí està lliure
+     * @param row Fila del rei
+     * @param fromCol Columna origen del rei
+     * @param toCol Columna destí del rei
+     * @return Codi de MoveError
      */
-    private boolean isPathClear(int fromRow, int fromCol, int toRow, int toCol, boolean isHorizontal) {
-        if (isHorizontal) {
-            int start = Math.min(fromCol, toCol) + 1;
-            int end = Math.max(fromCol, toCol);
-            
-            for (int col = start; col < end; col++) {
-                if (!board.isEmpty(fromRow, col)) {
-                    System.out.println("ERROR: Hi ha una peça en el camí.");
-                    return false;
-                }
-            }
+    private int checkCastling(int row, int fromCol, int toCol) {
+        boolean isWhite = Piece.isWhite(board.getPiece(row, fromCol));
+        boolean kingside = toCol == Board.KINGSIDE_KING_COL;
+        int right;
+        if (isWhite) {
+            right = kingside ? Board.WHITE_KINGSIDE : Board.WHITE_QUEENSIDE;
         } else {
-            int start = Math.min(fromRow, toRow) + 1;
-            int end = Math.max(fromRow, toRow);
-            
-            for (int row = start; row < end; row++) {
-                if (!board.isEmpty(row, fromCol)) {
-                    System.out.println("ERROR: Hi ha una peça en el camí.");
-                    return false;
-                }
-            }
+            right = kingside ? Board.BLACK_KINGSIDE : Board.BLACK_QUEENSIDE;
+        }
+        
+        int king = Bitboards.square(row, fromCol);
+        int kingTo = Bitboards.square(row, toCol);
+        int rookFrom = Board.castlingRookFrom(kingTo);
+        char rook = isWhite ? Piece.ROOK : Character.toLowerCase(Piece.ROOK);
+        if (row != (isWhite ? 7 : 0) || fromCol != Board.KING_START_COL
+                || (board.getCastlingRights() & right) == 0 || board.getPieceAt(rookFrom) != rook) {
+            return MoveError.CASTLING_NOT_ALLOWED.code();
         }
-        return true;
+        
+        if ((AttackTables.between(king, rookFrom) & board.getOccupancy()) != 0) {
+            return MoveError.PATH_BLOCKED.code();
+        }
+        
+        if (generator.isSquareAttacked(king, !isWhite)
+                || generator.isSquareAttacked(Board.castlingRookTo(kingTo), !isWhite)) {
+            return MoveError.CASTLING_THROUGH_CHECK.code();
+        }
+        return VALID;
     }
     
     /**
-     * Comprova si el camí diagonal està lliure.
+     * Comprova amb la màscara d'ocupació que no hi ha cap peça entre dues caselles alineades.
+     * Les caselles intermèdies surten de la taula precalculada d'AttackTables.
      * 
      * @param fromRow Fila origen
      * @param fromCol Columna origen
      * @param toRow Fila destí
      * @param toCol Columna destí
-     * @return true si el camí diagonal està lliure
+     * @return true si totes les caselles intermèdies estan buides
      */
-    private boolean isDiagonalPathClear(int fromRow, int fromCol, int toRow, int toCol) {
-        int rowDirection = (toRow > fromRow) ? 1 : -1;
-        int colDirection = (toCol > fromCol) ? 1 : -1;
-        
-        int currentRow = fromRow + rowDirection;
-        int currentCol = fromCol + colDirection;
-        
-        while (currentRow != toRow && currentCol != toCol) {
-            if (!board.isEmpty(currentRow, currentCol)) {
-                System.out.println("ERROR: Hi ha una peça en el camí diagonal.");
-                return false;
-            }
-            currentRow += rowDirection;
-            currentCol += colDirection;
+    private boolean isSegmentClear(int fromRow, int fromCol, int toRow, int toCol) {
+        long path = AttackTables.between(Bitboards.square(fromRow, fromCol), Bitboards.square(toRow, toCol));
+        return (path & board.getOccupancy()) == 0;
+    }
+    
+    /**
+     * Mostra el missatge d'error d'un codi (si no és vàlid) per als mètodes validate*.
+     * 
+     * @param code Codi de MoveError
+     * @param isWhiteTurn true si és el torn de les blanques
+     * @return true si el codi indica un moviment vàlid
+     */
+    private boolean report(int code, boolean isWhiteTurn) {
+        if (code == VALID) {
+            return true;
         }
-        
-        return true;
+        System.out.println("ERROR: " + MoveError.fromCode(code).describe(isWhiteTurn));
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,423 @@
+package com.example.chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Llibre d'obertures: un fitxer binari d'entrades (hash de la posició, jugada, pes)
+ * ordenades pel hash de Zobrist, que es projecta a memòria (memory-mapped) i es consulta
+ * amb una cerca binària. El llibre no es carrega al heap: el sistema operatiu llegeix
+ * només les pàgines que toca cada consulta, de manera que la mida la limita el disc.
+ * El pes d'una entrada és el nombre de partides on s'ha jugat la jugada en aquella posició.
+ *
+ * Format binari del fitxer (big-endian):
+ * - 4 bytes: "ESCB"
+ * - 1 byte: versió (1), seguit de 3 bytes a zero
+ * - 8 bytes: nombre d'entrades
+ * - 16 bytes per entrada: hash (8), jugada compacta de GameRecord (2), zero (2), pes (4)
+ *
+ * Les entrades estan ordenades pel hash i, dins d'un mateix hash, per la jugada.
+ * El fitxer es crea a partir d'arxius PGN amb OpeningBook.Builder.
+ */
+public class OpeningBook implements Closeable {
+
+    public static final int VERSION = 1;
+    public static final int DEFAULT_MAX_PLIES = 20;
+
+    private static final byte[] MAGIC = {'E', 'S', 'C', 'B'};
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final int ENTRY_SHIFT = 4;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 12;
+
+    // Un MappedByteBuffer arriba com a màxim a 2 GiB: el fitxer es projecta en trossos d'1 GiB
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_ENTRIES - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer[] segments, long size) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Obre un llibre d'obertures i el projecta a memòria.
+     *
+     * @param path Ruta del fitxer
+     * @return Llibre obert
+     * @throws IOException si no es pot llegir
+     * @throws IllegalArgumentException si el fitxer no té el format esperat
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Llegir fins omplir la capçalera
+            }
+            header.flip();
+            long size = readHeader(header, channel.size());
+
+            int segmentCount = (int) ((size + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long entries = Math.min(SEGMENT_ENTRIES, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + (first << ENTRY_SHIFT), entries << ENTRY_SHIFT);
+            }
+            return new OpeningBook(channel, segments, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long readHeader(ByteBuffer header, long fileSize) {
+        if (header.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Llibre d'obertures incomplet: falta la capçalera");
+        }
+        for (byte expected : MAGIC) {
+            if (header.get() != expected) {
+                throw new IllegalArgumentException("No és un llibre d'obertures (capçalera desconeguda)");
+            }
+        }
+        int version = header.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versió de llibre d'obertures no suportada: " + version);
+        }
+        header.position(header.position() + 3);
+        long size = header.getLong();
+        if (size < 0 || HEADER_SIZE + size * ENTRY_SIZE != fileSize) {
+            throw new IllegalArgumentException("Llibre d'obertures incomplet: s'esperaven " + size + " entrades");
+        }
+        return size;
+    }
+
+    /**
+     * @return Nombre d'entrades (parells posició-jugada) del llibre
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Busca les jugades del llibre per a una posició, sense comprovar-ne la legalitat.
+     *
+     * @param hash Hash de Zobrist de la posició (vegeu Board.hash)
+     * @param moves On s'escriuen les jugades compactes (vegeu GameRecord)
+     * @param weights On s'escriuen els pesos de cada jugada
+     * @return Nombre de jugades trobades (com a màxim la mida dels arrays)
+     */
+    public int findMoves(long hash, short[] moves, int[] weights) {
+        int count = 0;
+        for (long i = firstEntry(hash); i < size && hashAt(i) == hash && count < moves.length; i++) {
+            moves[count] = moveAt(i);
+            weights[count] = weightAt(i);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Tria una jugada del llibre per a la posició actual del tauler. Només es tenen en compte
+     * les jugades legals, de manera que una col·lisió de hash no pot donar una jugada il·legal.
+     *
+     * @param board Tauler amb la posició
+     * @param generator Generador de moviments del mateix tauler
+     * @param random Generador aleatori per triar segons els pesos, o null per triar la més jugada
+     * @return Moviment codificat (vegeu Move), o Move.NONE si la posició no és al llibre
+     */
+    public int selectMove(Board board, MoveGenerator generator, Random random) {
+        long hash = board.hash();
+        long first = firstEntry(hash);
+        if (first == size || hashAt(first) != hash) {
+            return Move.NONE;
+        }
+
+        int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+        int legalCount = generator.generateLegalMoves(legalMoves, board.isWhiteToMove());
+        long totalWeight = 0;
+        int best = Move.NONE;
+        int bestWeight = 0;
+        for (long i = first; i < size && hashAt(i) == hash; i++) {
+            int move = findLegal(moveAt(i), legalMoves, legalCount);
+            if (move != Move.NONE) {
+                totalWeight += weightAt(i);
+                if (weightAt(i) > bestWeight) {
+                    best = move;
+                    bestWeight = weightAt(i);
+                }
+            }
+        }
+        if (random == null || totalWeight == 0) {
+            return best;
+        }
+
+        // Triar una jugada amb probabilitat proporcional al pes
+        long target = (long) (random.nextDouble() * totalWeight);
+        for (long i = first; i < size && hashAt(i) == hash; i++) {
+            int move = findLegal(moveAt(i), legalMoves, legalCount);
+            if (move != Move.NONE) {
+                target -= weightAt(i);
+                if (target < 0) {
+                    return move;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Allibera el fitxer. Les projeccions a memòria es desfan quan el recol·lector les allibera.
+     *
+     * @throws IOException si no es pot tancar el fitxer
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Cerca binària de la primera entrada amb un hash més gran o igual que l'indicat.
+     */
+    private long firstEntry(long hash) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (hashAt(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long hashAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) (entry & SEGMENT_MASK) << ENTRY_SHIFT);
+    }
+
+    private short moveAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)]
+                .getShort(((int) (entry & SEGMENT_MASK) << ENTRY_SHIFT) + MOVE_OFFSET);
+    }
+
+    private int weightAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)]
+                .getInt(((int) (entry & SEGMENT_MASK) << ENTRY_SHIFT) + WEIGHT_OFFSET);
+    }
+
+    private static int findLegal(short packed, int[] legalMoves, int legalCount) {
+        for (int i = 0; i < legalCount; i++) {
+            if (GameRecord.pack(legalMoves[i]) == packed) {
+                return legalMoves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Construeix un llibre d'obertures a partir de partides PGN.
+     * Cada jugada de les primeres mitges jugades de cada partida es compta com una ocurrència
+     * del parell (posició, jugada). Les ocurrències es guarden en arrays primitius que
+     * s'ordenen i es fusionen (sumant els pesos) cada cop que s'omplen, i només creixen
+     * si després de fusionar-les encara són més de la meitat de la capacitat.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1 << 16;
+        private static final int INSERTION_SORT_THRESHOLD = 16;
+        private static final int WRITE_BUFFER_ENTRIES = 4096;
+
+        private final int maxPlies;
+        private long[] hashes = new long[INITIAL_CAPACITY];
+        private short[] moves = new short[INITIAL_CAPACITY];
+        private int[] weights = new int[INITIAL_CAPACITY];
+        private int size;
+        private long games;
+
+        /**
+         * Constructor que rep quantes mitges jugades de cada partida entren al llibre.
+         *
+         * @param maxPlies Mitges jugades per partida (com a mínim 1)
+         */
+        public Builder(int maxPlies) {
+            if (maxPlies < 1) {
+                throw new IllegalArgumentException("Cal com a mínim una mitja jugada per partida");
+            }
+            this.maxPlies = maxPlies;
+        }
+
+        /**
+         * Afegeix les obertures de totes les partides d'un fitxer PGN. Les jugades vàlides
+         * d'una partida abans d'una jugada il·legal també s'hi afegeixen.
+         *
+         * @param path Ruta del fitxer PGN
+         * @throws IOException si el fitxer no es pot llegir
+         */
+        public void readPgn(Path path) throws IOException {
+            PgnReader reader = new PgnReader();
+            reader.setMoveListener((board, ply, move) -> {
+                if (ply < maxPlies) {
+                    addMove(board.hash(), move);
+                }
+            });
+            reader.read(path);
+            games += reader.getGames();
+        }
+
+        /**
+         * Afegeix una ocurrència d'una jugada en una posició.
+         *
+         * @param hash Hash de Zobrist de la posició abans de la jugada
+         * @param move Moviment codificat (vegeu Move)
+         */
+        public void addMove(long hash, int move) {
+            if (size == hashes.length) {
+                compact();
+                if (size > hashes.length / 2) {
+                    hashes = Arrays.copyOf(hashes, hashes.length * 2);
+                    moves = Arrays.copyOf(moves, moves.length * 2);
+                    weights = Arrays.copyOf(weights, weights.length * 2);
+                }
+            }
+            hashes[size] = hash;
+            moves[size] = GameRecord.pack(move);
+            weights[size] = 1;
+            size++;
+        }
+
+        /**
+         * @return Partides llegides dels fitxers PGN
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Escriu el llibre (el sobreescriu si ja existeix).
+         *
+         * @param path Ruta del fitxer
+         * @return Nombre d'entrades escrites
+         * @throws IOException si no es pot escriure
+         */
+        public long write(Path path) throws IOException {
+            compact();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_ENTRIES * ENTRY_SIZE);
+            buffer.put(MAGIC);
+            buffer.put((byte) VERSION);
+            buffer.put(new byte[3]);
+            buffer.putLong(size);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int i = 0; i < size; i++) {
+                    if (buffer.remaining() < ENTRY_SIZE) {
+                        writeFully(channel, buffer);
+                    }
+                    buffer.putLong(hashes[i]);
+                    buffer.putShort(moves[i]);
+                    buffer.putShort((short) 0);
+                    buffer.putInt(weights[i]);
+                }
+                writeFully(channel, buffer);
+            }
+            return size;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Ordena les ocurrències per (hash, jugada) i fusiona les repetides sumant-ne els pesos.
+         */
+        private void compact() {
+            sort(0, size - 1);
+            int merged = 0;
+            for (int i = 0; i < size; i++) {
+                if (merged > 0 && hashes[merged - 1] == hashes[i] && moves[merged - 1] == moves[i]) {
+                    weights[merged - 1] = (int) Math.min(Integer.MAX_VALUE, (long) weights[merged - 1] + weights[i]);
+                } else {
+                    hashes[merged] = hashes[i];
+                    moves[merged] = moves[i];
+                    weights[merged] = weights[i];
+                    merged++;
+                }
+            }
+            size = merged;
+        }
+
+        /**
+         * Quicksort dels tres arrays alhora (sense crear objectes), amb inserció per als trams petits.
+         */
+        private void sort(int low, int high) {
+            while (high - low >= INSERTION_SORT_THRESHOLD) {
+                int middle = (low + high) >>> 1;
+                long pivotHash = hashes[middle];
+                short pivotMove = moves[middle];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (compare(i, pivotHash, pivotMove) < 0) {
+                        i++;
+                    }
+                    while (compare(j, pivotHash, pivotMove) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // Recursió pel tram més petit per limitar la profunditat de la pila
+                if (j - low < high - i) {
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && compare(j, hashes[j - 1], moves[j - 1]) < 0; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private int compare(int index, long hash, short move) {
+            int result = Long.compare(hashes[index], hash);
+            return result != 0 ? result : Short.compare(moves[index], move);
+        }
+
+        private void swap(int a, int b) {
+            long hash = hashes[a];
+            hashes[a] = hashes[b];
+            hashes[b] = hash;
+            short move = moves[a];
+            moves[a] = moves[b];
+            moves[b] = move;
+            int weight = weights[a];
+            weights[a] = weights[b];
+            weights[b] = weight;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.chess;
+
+/**
+ * Classe que recorre l'arbre de moviments legals i compta els nodes (perft).
+ * Serveix per comprovar que el generador de moviments és correcte, comparant
+ * amb els valors de referència coneguts, i per mesurar-ne la velocitat.
+ */
+public class Perft {
+
+    private static final int MAX_DEPTH = 16;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final int[][] moveBuffers = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+
+    /**
+     * Constructor que rep el tauler des del qual es comptaran els nodes.
+     *
+     * @param board Tauler amb la posició inicial del recompte
+     */
+    public Perft(Board board) {
+        this.board = board;
+        this.generator = new MoveGenerator(board);
+    }
+
+    /**
+     * Compta les posicions fulla a una profunditat donada des de la posició actual.
+     *
+     * @param depth Profunditat en mitges jugades (0-16)
+     * @return Nombre de nodes fulla
+     */
+    public long perft(int depth) {
+        checkDepth(depth);
+        return countNodes(depth, 0);
+    }
+
+    /**
+     * Mostra el nombre de nodes sota cada moviment de la posició actual
+     * i el total, amb el temps emprat i els nodes per segon.
+     *
+     * @param depth Profunditat en mitges jugades (1-16)
+     * @return Nombre total de nodes fulla
+     */
+    public long divide(int depth) {
+        checkDepth(depth);
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] moves = moveBuffers[0];
+        int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+        long start = System.nanoTime();
+        long total = 0;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            long nodes = countNodes(depth - 1, 1);
+            board.unmakeMove();
+
+            System.out.println(Move.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+
+        System.out.println("\nMoviments: " + count);
+        printReport(depth, total, System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * Executa perft i en mostra el resultat amb el temps emprat i els nodes per segon.
+     *
+     * @param depth Profunditat en mitges jugades (0-16)
+     * @return Nombre de nodes fulla
+     */
+    public long run(int depth) {
+        long start = System.nanoTime();
+        long nodes = perft(depth);
+        printReport(depth, nodes, System.nanoTime() - start);
+        return nodes;
+    }
+
+    private long countNodes(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            nodes += countNodes(depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private void checkDepth(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Profunditat de perft invàlida: " + depth);
+        }
+    }
+
+    private static void printReport(int depth, long nodes, long elapsedNanos) {
+        long millis = elapsedNanos / 1_000_000L;
+        long nodesPerSecond = elapsedNanos > 0 ? (long) (nodes * NANOS_PER_SECOND / elapsedNanos) : 0;
+        System.out.println("Perft(" + depth + ") = " + nodes + " nodes en " + millis + " ms ("
+                + nodesPerSecond + " nodes/s)");
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lector de fitxers PGN en streaming per reproduir i validar partides en bloc.
+ * Llegeix el canal amb un buffer de mida fixa i un autòmat byte a byte, de manera
+ * que el fitxer mai no es carrega sencer a memòria. Cada jugada SAN es converteix
+ * amb SanParser, es valida amb MoveValidator i s'aplica al tauler; quan una jugada
+ * no és vàlida, la resta de la partida s'ignora.
+ * Se salten les etiquetes (excepte [FEN]), els comentaris, les variants i els NAG.
+ */
+public class PgnReader {
+
+    /**
+     * Rep el resultat de cada partida en acabar-la.
+     */
+    public interface GameListener {
+
+        /**
+         * @param plies Jugades vàlides aplicades abans d'acabar o de trobar l'error
+         * @param invalidMove Primera jugada rebutjada, o null si la partida és vàlida
+         *                    (el text només és vàlid durant la crida)
+         */
+        void gameFinished(int plies, CharSequence invalidMove);
+    }
+
+    /**
+     * Rep cada jugada vàlida abans d'aplicar-la al tauler.
+     */
+    public interface MoveListener {
+
+        /**
+         * @param board Tauler amb la posició abans de la jugada (no s'ha de modificar)
+         * @param ply Mitja jugada dins de la partida (des de 0)
+         * @param move Moviment codificat (vegeu Move)
+         */
+        void moveAccepted(Board board, int ply, int move);
+    }
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_TOKEN_LENGTH = 256;
+
+    // Estats de l'autòmat
+    private static final int MOVES = 0;
+    private static final int TAG = 1;
+    private static final int TAG_VALUE = 2;
+    private static final int COMMENT = 3;
+    private static final int LINE_COMMENT = 4;
+
+    private final Board board;
+    private final MoveValidator validator;
+    private final SanParser sanParser;
+    private final ByteBuffer buffer;
+
+    // Testimoni actual (jugada o nom d'etiqueta) sense crear cadenes
+    private final char[] token = new char[MAX_TOKEN_LENGTH];
+    private final CharBuffer tokenView = CharBuffer.wrap(token);
+    private int tokenLength;
+
+    // Valor de l'etiqueta [FEN] de la partida actual, si n'hi ha
+    private final StringBuilder fenTag = new StringBuilder();
+    private boolean tagIsFen;
+
+    private int state = MOVES;
+    private int variationDepth;
+    private boolean inGame;
+    private boolean gameHasMoves;
+    private boolean gameInvalid;
+    private int gamePlies;
+    private final StringBuilder invalidMove = new StringBuilder();
+    private GameListener listener;
+    private MoveListener moveListener;
+
+    private long games;
+    private long invalidGames;
+    private long moves;
+    private long invalidMoves;
+    private long elapsedNanos;
+
+    /**
+     * Constructor amb un buffer de lectura de mida per defecte.
+     */
+    public PgnReader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor que rep la mida del buffer de lectura.
+     *
+     * @param bufferSize Mida del buffer en bytes
+     */
+    public PgnReader(int bufferSize) {
+        this.board = new Board();
+        this.validator = new MoveValidator(board);
+        this.sanParser = new SanParser(board);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Estableix qui rep el resultat de cada partida.
+     *
+     * @param listener Receptor dels resultats, o null per no avisar ningú
+     */
+    public void setGameListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Estableix qui rep cada jugada vàlida.
+     *
+     * @param moveListener Receptor de les jugades, o null per no avisar ningú
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    /**
+     * Reprodueix totes les partides d'un fitxer PGN.
+     *
+     * @param path Ruta del fitxer
+     * @throws IOException si el fitxer no es pot llegir
+     */
+    public void read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel);
+        }
+    }
+
+    /**
+     * Reprodueix totes les partides que es llegeixen d'un canal fins al final.
+     *
+     * @param channel Canal d'entrada amb text PGN
+     * @throws IOException si hi ha un error de lectura
+     */
+    public void read(ReadableByteChannel channel) throws IOException {
+        long start = System.nanoTime();
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            consume(buffer);
+            buffer.clear();
+        }
+        finish();
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Reprodueix les partides contingudes entre la posició i el límit d'un buffer.
+     *
+     * @param input Buffer amb text PGN (s'avança fins al límit)
+     */
+    public void read(ByteBuffer input) {
+        long start = System.nanoTime();
+        consume(input);
+        finish();
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    private void consume(ByteBuffer input) {
+        while (input.hasRemaining()) {
+            accept((char) (input.get() & 0xFF));
+        }
+    }
+
+    /**
+     * Tanca la partida pendent si el text s'acaba sense resultat.
+     */
+    private void finish() {
+        endToken();
+        endGame();
+        state = MOVES;
+        variationDepth = 0;
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case TAG:
+                if (c == '"') {
+                    tagIsFen = tokenEquals(tokenLength, "FEN");
+                    if (tagIsFen) {
+                        fenTag.setLength(0);
+                    }
+                    state = TAG_VALUE;
+                } else if (c == ']') {
+                    state = MOVES;
+                } else if (c != ' ' && c != '\t') {
+                    appendToken(c);
+                }
+                return;
+            case TAG_VALUE:
+                if (c == '"') {
+                    tokenLength = 0;
+                    state = TAG;
+                } else if (tagIsFen) {
+                    fenTag.append(c);
+                }
+                return;
+            case COMMENT:
+                if (c == '}') {
+                    state = MOVES;
+                }
+                return;
+            case LINE_COMMENT:
+                if (c == '\n') {
+                    state = MOVES;
+                }
+                return;
+            default:
+                acceptMoveText(c);
+        }
+    }
+
+    private void acceptMoveText(char c) {
+        switch (c) {
+            case '[':
+                endToken();
+                if (variationDepth == 0) {
+                    // Una etiqueta després de jugades comença una partida nova
+                    if (gameHasMoves) {
+                        endGame();
+                    }
+                    if (!inGame) {
+                        startGame();
+                    }
+                    tokenLength = 0;
+                    state = TAG;
+                }
+                return;
+            case '{':
+                endToken();
+                state = COMMENT;
+                return;
+            case ';':
+                endToken();
+                state = LINE_COMMENT;
+                return;
+            case '(':
+                endToken();
+                variationDepth++;
+                return;
+            case ')':
+                endToken();
+                if (variationDepth > 0) {
+                    variationDepth--;
+                }
+                return;
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+                endToken();
+                return;
+            default:
+                if (variationDepth == 0) {
+                    appendToken(c);
+                }
+        }
+    }
+
+    private void appendToken(char c) {
+        if (tokenLength < MAX_TOKEN_LENGTH) {
+            token[tokenLength++] = c;
+        }
+    }
+
+    /**
+     * Processa el testimoni acabat: resultat, número de jugada, NAG o jugada SAN.
+     */
+    private void endToken() {
+        if (tokenLength == 0) {
+            return;
+        }
+        int length = tokenLength;
+        tokenLength = 0;
+
+        if (isResult(length)) {
+            endGame();
+            return;
+        }
+
+        // Saltar el número de jugada ("12." o "12...", també enganxat: "1.e4")
+        int start = 0;
+        while (start < length && Character.isDigit(token[start])) {
+            start++;
+        }
+        if (start < length && token[start] == '.') {
+            while (start < length && token[start] == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        if (start == length || token[start] == '$' || isEnPassantMark(start, length)) {
+            return;
+        }
+
+        playSan(start, length);
+    }
+
+    private void playSan(int start, int end) {
+        if (!inGame) {
+            startGame();
+        }
+        if (!gameHasMoves && fenTag.length() > 0) {
+            applyFenTag();
+        }
+        gameHasMoves = true;
+        if (gameInvalid) {
+            return;
+        }
+
+        tokenView.limit(end).position(start);
+        int move = sanParser.parse(tokenView);
+        tokenView.clear();
+        if (move == Move.NONE || !isAcceptedByValidator(move)) {
+            invalidMoves++;
+            gameInvalid = true;
+            invalidMove.append(token, start, end - start);
+            return;
+        }
+        if (moveListener != null) {
+            moveListener.moveAccepted(board, gamePlies, move);
+        }
+        board.makeMove(move);
+        moves++;
+        gamePlies++;
+    }
+
+    /**
+     * Comprova la jugada amb les regles de MoveValidator, en coordenades de tauler.
+     */
+    private boolean isAcceptedByValidator(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        return validator.checkMove(Bitboards.rowOf(from), Bitboards.colOf(from),
+                Bitboards.rowOf(to), Bitboards.colOf(to), board.isWhiteToMove()) == MoveError.VALID.code();
+    }
+
+    private void startGame() {
+        inGame = true;
+        gameHasMoves = false;
+        gameInvalid = false;
+        gamePlies = 0;
+        invalidMove.setLength(0);
+        fenTag.setLength(0);
+        board.initializeBoard();
+    }
+
+    private void endGame() {
+        if (!inGame) {
+            return;
+        }
+        games++;
+        if (gameInvalid) {
+            invalidGames++;
+        }
+        if (listener != null) {
+            listener.gameFinished(gamePlies, gameInvalid ? invalidMove : null);
+        }
+        inGame = false;
+        gameHasMoves = false;
+    }
+
+    /**
+     * Abans de la primera jugada, aplica la posició de l'etiqueta [FEN] si n'hi ha.
+     */
+    private void applyFenTag() {
+        try {
+            board.loadFen(fenTag);
+        } catch (IllegalArgumentException e) {
+            gameInvalid = true;
+            invalidMove.append("[FEN]");
+        }
+        fenTag.setLength(0);
+    }
+
+    private boolean isResult(int length) {
+        return tokenEquals(length, "1-0") || tokenEquals(length, "0-1") || tokenEquals(length, "1/2-1/2")
+                || (length == 1 && token[0] == '*');
+    }
+
+    private boolean isEnPassantMark(int start, int end) {
+        return end - start == 4 && token[start] == 'e' && token[start + 1] == '.'
+                && token[start + 2] == 'p' && token[start + 3] == '.';
+    }
+
+    private boolean tokenEquals(int length, String text) {
+        if (length != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (token[i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getInvalidGames() {
+        return invalidGames;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getInvalidMoves() {
+        return invalidMoves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Partides per segon de totes les lectures fetes
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Construeix el resum de la reproducció per mostrar per consola.
+     *
+     * @return Text amb partides, jugades, errors i velocitat
+     */
+    public String report() {
+        return String.format("Partides: %d (%d amb jugades invàlides) | Jugades: %d (%d invàlides) | "
+                + "%d ms (%.0f partides/s)", games, invalidGames, moves, invalidMoves,
+                elapsedNanos / 1_000_000, getGamesPerSecond());
+    }
+}
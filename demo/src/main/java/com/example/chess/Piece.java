@@ -15,6 +15,31 @@ public class Piece {
     public static final char KING = 'K';
     public static final char EMPTY = '.';
     
+    // Índexs de peça per a les representacions amb bitboards (blanques 0-5, negres 6-11)
+    public static final int PAWN_INDEX = 0;
+    public static final int ROOK_INDEX = 1;
+    public static final int KNIGHT_INDEX = 2;
+    public static final int BISHOP_INDEX = 3;
+    public static final int QUEEN_INDEX = 4;
+    public static final int KING_INDEX = 5;
+    public static final int TYPE_COUNT = 6;
+    public static final int PIECE_COUNT = 12;
+    public static final int NO_PIECE = -1;
+    
+    private static final char[] PIECE_CHARS = {
+        'P', 'T', 'C', 'A', 'Q', 'K',
+        'p', 't', 'c', 'a', 'q', 'k'
+    };
+    
+    private static final int[] INDEX_BY_CHAR = new int[128];
+    
+    static {
+        java.util.Arrays.fill(INDEX_BY_CHAR, NO_PIECE);
+        for (int i = 0; i < PIECE_COUNT; i++) {
+            INDEX_BY_CHAR[PIECE_CHARS[i]] = i;
+        }
+    }
+    
     /**
      * Determina si una peça és blanca.
      * Les peces blanques són majúscules.
@@ -98,4 +123,44 @@ public class Piece {
                 return "Peça desconeguda";
         }
     }
+    
+    /**
+     * Obté l'índex (0-11) d'una peça per accedir als bitboards.
+     * 
+     * @param piece Caràcter que representa la peça
+     * @return Índex de la peça o NO_PIECE si no és una peça coneguda
+     */
+    public static int index(char piece) {
+        return piece < INDEX_BY_CHAR.length ? INDEX_BY_CHAR[piece] : NO_PIECE;
+    }
+    
+    /**
+     * Obté el caràcter d'una peça a partir del seu índex.
+     * 
+     * @param index Índex de la peça (0-11)
+     * @return Caràcter que representa la peça
+     */
+    public static char fromIndex(int index) {
+        return PIECE_CHARS[index];
+    }
+    
+    /**
+     * Comprova si un índex de peça correspon a una peça blanca.
+     * 
+     * @param index Índex de la peça (0-11)
+     * @return true si la peça és blanca
+     */
+    public static boolean isWhiteIndex(int index) {
+        return index < TYPE_COUNT;
+    }
+    
+    /**
+     * Obté el tipus (0-5) d'un índex de peça, sense tenir en compte el color.
+     * 
+     * @param index Índex de la peça (0-11)
+     * @return Índex del tipus de peça
+     */
+    public static int typeOfIndex(int index) {
+        return index % TYPE_COUNT;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.example.chess;
+
+/**
+ * Converteix jugades en notació algebraica estàndard (SAN, ex: "Nf3", "exd5", "O-O", "e8=Q+")
+ * al moviment codificat del projecte (vegeu Move) per a la posició actual del tauler.
+ * La jugada es busca entre els moviments legals, de manera que només s'accepten
+ * jugades legals i sense ambigüitat. No crea objectes per jugada.
+ * Les peces es poden escriure amb les lletres angleses (R, N, B) o amb les del projecte (T, C, A).
+ */
+public class SanParser {
+
+    // Lletres de peça SAN en l'ordre de Piece.index (P T C A Q K); el peó no en porta
+    private static final String SAN_LETTERS = "PRNBQK";
+    // Les mateixes lletres amb la notació del projecte (torre, cavall, alfil)
+    private static final String PROJECT_LETTERS = "PTCAQK";
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Constructor que rep el tauler sobre el qual s'interpreten les jugades.
+     *
+     * @param board Tauler d'escacs
+     */
+    public SanParser(Board board) {
+        this.board = board;
+        this.generator = new MoveGenerator(board);
+    }
+
+    /**
+     * Interpreta una jugada SAN per al color que mou al tauler.
+     * S'ignoren els sufixos d'escac, mat i anotació ("+", "#", "!", "?").
+     *
+     * @param san Jugada en notació SAN
+     * @return Moviment codificat, o Move.NONE si no és legal, és ambigua o no s'entén
+     */
+    public int parse(CharSequence san) {
+        return parse(san, 0, san.length());
+    }
+
+    /**
+     * Interpreta la jugada SAN que ocupa una part del text, sense copiar-la.
+     *
+     * @param san Text que conté la jugada
+     * @param begin Primer caràcter de la jugada
+     * @param end Caràcter següent a l'últim de la jugada
+     * @return Moviment codificat, o Move.NONE si no és legal, és ambigua o no s'entén
+     */
+    public int parse(CharSequence san, int begin, int end) {
+        while (end > begin && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end - begin < 2) {
+            return Move.NONE;
+        }
+
+        boolean whiteTurn = board.isWhiteToMove();
+        int count = generator.generateLegalMoves(moves, whiteTurn);
+
+        // Enrocs: "O-O" i "O-O-O" (també amb zeros)
+        char first = san.charAt(begin);
+        if (first == 'O' || first == '0') {
+            int kingCol = castlingKingCol(san, begin, end);
+            return kingCol < 0 ? Move.NONE : findCastling(count, kingCol);
+        }
+
+        int start = begin;
+        int type = pieceType(first);
+        if (type >= 0) {
+            start++;
+        } else {
+            type = Piece.PAWN_INDEX;
+        }
+
+        // Promoció: "e8=Q" o "e8Q"
+        int promotionType = Piece.NO_PIECE;
+        if (type == Piece.PAWN_INDEX) {
+            int letter = pieceType(san.charAt(end - 1));
+            if (letter > Piece.PAWN_INDEX && letter != Piece.KING_INDEX) {
+                promotionType = letter;
+                end--;
+                if (end > begin && san.charAt(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+
+        // Destí: els dos últims caràcters
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRank = san.charAt(end - 1) - '1';
+        if (!isOnBoard(toCol) || !isOnBoard(toRank)) {
+            return Move.NONE;
+        }
+        int to = Bitboards.square(7 - toRank, toCol);
+
+        // Desambiguació: columna i/o fila d'origen entre la peça i el destí
+        int fromCol = -1;
+        int fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = 7 - (c - '1');
+            } else if (c != 'x' && c != '-' && c != ':') {
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Move.from(move);
+            if (Move.to(move) != to
+                    || Piece.typeOfIndex(Move.piece(move)) != type
+                    || promotionTypeOf(move) != promotionType
+                    || Move.isCastling(move)
+                    || (fromCol >= 0 && Bitboards.colOf(from) != fromCol)
+                    || (fromRow >= 0 && Bitboards.rowOf(from) != fromRow)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE; // Jugada ambigua
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private int findCastling(int count, int kingCol) {
+        for (int i = 0; i < count; i++) {
+            if (Move.isCastling(moves[i]) && Bitboards.colOf(Move.to(moves[i])) == kingCol) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return Columna destí del rei (6 curt, 2 llarg) o -1 si el text no és un enroc
+     */
+    private static int castlingKingCol(CharSequence san, int begin, int end) {
+        int castles = 0;
+        for (int i = begin; i < end; i++) {
+            char c = san.charAt(i);
+            if (c == 'O' || c == '0') {
+                castles++;
+            } else if (c != '-') {
+                return -1;
+            }
+        }
+        if (castles == 2) {
+            return Board.KINGSIDE_KING_COL;
+        }
+        return castles == 3 ? Board.QUEENSIDE_KING_COL : -1;
+    }
+
+    /**
+     * Tipus de peça d'una lletra SAN (R, N, B, Q, K, P) o del projecte (T, C, A).
+     *
+     * @param letter Lletra majúscula de la peça
+     * @return Tipus de peça (vegeu Piece.index), o -1 si la lletra no és cap peça
+     */
+    public static int pieceType(char letter) {
+        int type = SAN_LETTERS.indexOf(letter);
+        return type >= 0 ? type : PROJECT_LETTERS.indexOf(letter);
+    }
+
+    private static int promotionTypeOf(int move) {
+        int promotion = Move.promotion(move);
+        return promotion == Piece.NO_PIECE ? Piece.NO_PIECE : Piece.typeOfIndex(promotion);
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isOnBoard(int coordinate) {
+        return coordinate >= 0 && coordinate < 8;
+    }
+}
@@ -0,0 +1,564 @@
+package com.example.chess;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Motor de cerca que tria el millor moviment per al jugador que ha de moure.
+ * Fa servir negamax amb poda alfa-beta i aprofundiment iteratiu, cerca de
+ * quiescència per a les captures i la taula de transposicions compartida.
+ * Els moviments s'ordenen per: moviment de la taula, captures MVV-LVA,
+ * moviments killer i heurística d'historial.
+ * 
+ * Amb més d'un fil fa servir Lazy SMP: cada fil auxiliar cerca la mateixa
+ * posició sobre la seva pròpia còpia del tauler i comparteix només la taula
+ * de transposicions, que és on es reparteixen la feina.
+ * 
+ * Les repeticions i la regla de les 50 jugades es puntuen com a taules; el
+ * tauler conserva els hashes des de l'última jugada irreversible, també per
+ * als fils auxiliars.
+ * 
+ * Amb taules de finals (vegeu setTablebase), les posicions de poques peces
+ * no es cerquen: es puntuen amb el valor exacte de la taula.
+ */
+public class SearchEngine {
+
+    public static final int MAX_PLY = 64;
+    public static final int MATE_SCORE = 30000;
+    // Puntuacions per sobre d'aquest valor indiquen un mat trobat
+    public static final int MATE_BOUND = MATE_SCORE - MAX_PLY;
+    public static final int MAX_THREADS = 256;
+
+    private static final int INFINITY = 32000;
+    private static final int NODES_BETWEEN_TIME_CHECKS = 2048;
+
+    // Prioritats d'ordenació dels moviments
+    private static final int TT_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int FIRST_KILLER_SCORE = 90_000;
+    private static final int SECOND_KILLER_SCORE = 80_000;
+    private static final int HISTORY_LIMIT = 70_000;
+
+    /**
+     * Rep el resultat de cada iteració completada de l'aprofundiment iteratiu.
+     * Es crida des del fil que fa la cerca.
+     */
+    public interface SearchListener {
+
+        /**
+         * @param depth Profunditat completada
+         * @param score Puntuació des del punt de vista del jugador que mou
+         * @param nodes Nodes visitats fins ara, sumant tots els fils
+         * @param bestMove Millor moviment d'aquesta iteració
+         */
+        void iterationCompleted(int depth, int score, long nodes, int bestMove);
+    }
+
+    private final Board board;
+    private final MoveGenerator generator;
+    private final TranspositionTable table;
+
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] scoreBuffers = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[Piece.PIECE_COUNT * Bitboards.SQUARE_COUNT];
+
+    // Es substitueix sencer sota el monitor (setThreads, shutdown); stop i getNodes el llegeixen
+    // des d'altres fils sense bloquejar
+    private volatile SearchEngine[] helpers = new SearchEngine[0];
+    private ExecutorService helperPool;
+    private final Future<?>[] helperTasks = new Future<?>[MAX_THREADS];
+
+    private volatile boolean stopped;
+    private long deadline;
+    private long nodes;
+
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+    private SearchListener listener;
+    private Tablebase tablebase;
+
+    /**
+     * Constructor que rep el tauler on es farà la cerca i la taula de transposicions.
+     *
+     * @param board Tauler d'escacs (la cerca el deixa tal com estava)
+     * @param table Taula de transposicions, que es pot compartir entre motors
+     */
+    public SearchEngine(Board board, TranspositionTable table) {
+        this.board = board;
+        this.generator = new MoveGenerator(board);
+        this.table = table;
+    }
+
+    /**
+     * Busca el millor moviment amb aprofundiment iteratiu fins a la profunditat
+     * o el temps indicats; el que s'acabi abans.
+     *
+     * @param maxDepth Profunditat màxima en mitges jugades (1-64)
+     * @param timeLimitMillis Temps màxim en mil·lisegons (0 per no limitar-lo)
+     * @return El millor moviment trobat o Move.NONE si no hi ha cap moviment legal
+     */
+    public int search(int maxDepth, long timeLimitMillis) {
+        long searchDeadline = timeLimitMillis > 0 ? System.currentTimeMillis() + timeLimitMillis : Long.MAX_VALUE;
+        table.newSearch();
+        prepareSearch(searchDeadline);
+        SearchEngine[] active = helpers;
+        startHelpers(active, maxDepth, searchDeadline);
+        int move = iterativeDeepening(maxDepth, 1);
+        stopHelpers(active);
+        return move;
+    }
+
+    /**
+     * Estableix qui rep la informació de cada iteració de la cerca.
+     *
+     * @param listener Receptor de les iteracions, o null per no avisar ningú
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Estableix les taules de finals que es consulten durant la cerca.
+     *
+     * @param tablebase Taules de finals, o null per no fer-ne servir
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Estableix el nombre de fils de cerca. Els fils auxiliars es creen un cop
+     * i es reutilitzen a cada cerca.
+     *
+     * @param threads Nombre total de fils, comptant el principal (1-256)
+     */
+    public synchronized void setThreads(int threads) {
+        if (threads < 1 || threads > MAX_THREADS) {
+            throw new IllegalArgumentException("Nombre de fils invàlid: " + threads);
+        }
+        shutdown();
+        SearchEngine[] created = new SearchEngine[threads - 1];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new SearchEngine(new Board(board), table);
+        }
+        if (created.length > 0) {
+            helperPool = Executors.newFixedThreadPool(created.length, runnable -> {
+                Thread thread = new Thread(runnable, "cerca-auxiliar");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // Es publica ja ple perquè els altres fils no vegin mai posicions buides
+        helpers = created;
+    }
+
+    /**
+     * @return Nombre total de fils de cerca
+     */
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Atura els fils auxiliars. El motor continua funcionant amb un sol fil.
+     */
+    public synchronized void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
+        }
+        helpers = new SearchEngine[0];
+    }
+
+    private void startHelpers(SearchEngine[] active, int maxDepth, long searchDeadline) {
+        for (int i = 0; i < active.length; i++) {
+            SearchEngine helper = active[i];
+            helper.board.copyFrom(board);
+            helper.tablebase = tablebaseFor(helper.tablebase);
+            helper.prepareSearch(searchDeadline);
+            // Els fils senars comencen una profunditat més endavant per diversificar la cerca
+            int firstDepth = 1 + (i & 1);
+            helperTasks[i] = helperPool.submit(() -> helper.iterativeDeepening(maxDepth, firstDepth));
+        }
+    }
+
+    /**
+     * Taules de finals d'un fil auxiliar: comparteixen les taules carregades amb les del
+     * fil principal, però amb els buffers de consulta propis. Es reutilitzen entre cerques.
+     */
+    private Tablebase tablebaseFor(Tablebase current) {
+        if (tablebase == null) {
+            return null;
+        }
+        return tablebase.sharesTables(current) ? current : new Tablebase(tablebase);
+    }
+
+    private void stopHelpers(SearchEngine[] active) {
+        for (SearchEngine helper : active) {
+            helper.stop();
+        }
+        for (int i = 0; i < active.length; i++) {
+            try {
+                helperTasks[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error en un fil de cerca auxiliar", e.getCause());
+            }
+            helperTasks[i] = null;
+        }
+    }
+
+    private int iterativeDeepening(int maxDepth, int firstDepth) {
+        int depthLimit = Math.max(1, Math.min(maxDepth, MAX_PLY));
+
+        int[] rootMoves = moveBuffers[0];
+        int rootCount = generator.generateLegalMoves(rootMoves, board.isWhiteToMove());
+        if (rootCount == 0) {
+            return Move.NONE;
+        }
+        bestMove = rootMoves[0];
+
+        for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit && !stopped; depth++) {
+            int score = searchRoot(rootMoves, rootCount, depth);
+            if (stopped && depth > 1) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) {
+                listener.iterationCompleted(depth, score, getNodes(), bestMove);
+            }
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Atura la cerca en curs tan aviat com sigui possible.
+     */
+    public void stop() {
+        stopped = true;
+        for (SearchEngine helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return Puntuació de l'última iteració completada, des del punt de vista del jugador que mou
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return Nodes visitats a l'última cerca, sumant tots els fils
+     */
+    public long getNodes() {
+        long total = nodes;
+        for (SearchEngine helper : helpers) {
+            total += helper.nodes;
+        }
+        return total;
+    }
+
+    private void prepareSearch(long searchDeadline) {
+        stopped = false;
+        nodes = 0;
+        bestMove = Move.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+        deadline = searchDeadline;
+        for (int[] killer : killers) {
+            killer[0] = Move.NONE;
+            killer[1] = Move.NONE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+    }
+
+    private int searchRoot(int[] moves, int count, int depth) {
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        int iterationBest = bestMove;
+        scoreMoves(moves, scoreBuffers[0], count, bestMove, 0);
+
+        for (int i = 0; i < count; i++) {
+            int move = pickNextMove(moves, scoreBuffers[0], i, count);
+            board.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, 1);
+            board.unmakeMove();
+
+            if (stopped) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                iterationBest = move;
+            }
+        }
+
+        bestMove = iterationBest;
+        if (!stopped) {
+            table.store(board.hash(), iterationBest, alpha, depth, TranspositionTable.EXACT);
+        }
+        return alpha;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        // Una posició que ja ha aparegut (a la partida o a la línia cercada) es puntua com a
+        // taules: si fos millor per a algú, ja ho hauria estat la primera vegada
+        if (board.isRepetition()) {
+            return 0;
+        }
+        // La regla de les 50 jugades no anul·la un mat donat amb la jugada que hi arriba
+        if (board.isFiftyMoveDraw()) {
+            return generator.isCheckmate(board.isWhiteToMove()) ? -MATE_SCORE + ply : 0;
+        }
+        boolean inCheck = generator.isInCheck(board.isWhiteToMove());
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (countNode() || ply >= MAX_PLY) {
+            return Evaluation.evaluate(board);
+        }
+        if (tablebase != null && Long.bitCount(board.getOccupancy()) <= Tablebase.MAX_PIECES) {
+            int value = tablebase.probe(board);
+            if (value != Tablebase.NOT_FOUND) {
+                return tablebaseScore(value, ply);
+            }
+        }
+
+        int originalAlpha = alpha;
+        long entry = table.probe(board.hash());
+        int ttMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean whiteTurn = board.isWhiteToMove();
+        int[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = generator.generatePseudoLegalMoves(moves, whiteTurn);
+        scoreMoves(moves, scores, count, ttMove, ply);
+
+        int legalMoves = 0;
+        int best = -INFINITY;
+        int bestLocalMove = Move.NONE;
+
+        for (int i = 0; i < count; i++) {
+            int move = pickNextMove(moves, scores, i, count);
+            board.makeMove(move);
+            if (generator.isInCheck(whiteTurn)) {
+                board.unmakeMove();
+                continue;
+            }
+            legalMoves++;
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestLocalMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (!Move.isCapture(move)) {
+                    storeKiller(move, ply);
+                    addHistory(move, depth);
+                }
+                break;
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(board.hash(), bestLocalMove, toTableScore(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Cerca només captures fins que la posició és tranquil·la, per evitar
+     * avaluar posicions amb intercanvis a mitges.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        int standPat = Evaluation.evaluate(board);
+        if (countNode() || ply >= MAX_PLY) {
+            return standPat;
+        }
+        if (standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        boolean whiteTurn = board.isWhiteToMove();
+        int[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = generator.generateCaptures(moves, whiteTurn);
+        scoreMoves(moves, scores, count, Move.NONE, ply);
+
+        for (int i = 0; i < count; i++) {
+            int move = pickNextMove(moves, scores, i, count);
+            board.makeMove(move);
+            if (generator.isInCheck(whiteTurn)) {
+                board.unmakeMove();
+                continue;
+            }
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Compta un node i comprova periòdicament si s'ha esgotat el temps.
+     *
+     * @return true si la cerca s'ha d'aturar
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((nodes % NODES_BETWEEN_TIME_CHECKS) == 0 && System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void scoreMoves(int[] moves, int[] scores, int count, int ttMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == ttMove) {
+                scores[i] = TT_MOVE_SCORE;
+            } else if (Move.isCapture(move)) {
+                // MVV-LVA: primer la víctima més valuosa, després l'atacant menys valuós
+                scores[i] = CAPTURE_SCORE + Evaluation.pieceValue(Move.captured(move)) * 10
+                        - Evaluation.pieceValue(Move.piece(move)) / 10;
+            } else if (move == killers[ply][0]) {
+                scores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                scores[i] = SECOND_KILLER_SCORE;
+            } else {
+                scores[i] = history[historyIndex(move)];
+            }
+        }
+    }
+
+    /**
+     * Porta a la posició index el moviment amb més prioritat dels que queden (selecció parcial).
+     */
+    private static int pickNextMove(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    private void storeKiller(int move, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void addHistory(int move, int depth) {
+        int index = historyIndex(move);
+        history[index] = Math.min(HISTORY_LIMIT, history[index] + depth * depth);
+    }
+
+    private static int historyIndex(int move) {
+        return Move.piece(move) * Bitboards.SQUARE_COUNT + Move.to(move);
+    }
+
+    /**
+     * Converteix el valor d'una taula de finals en puntuació. Si el mat queda dins de MAX_PLY
+     * es puntua com un mat trobat; si no, amb un valor per sota de MATE_BOUND que prefereix
+     * els mats més curts.
+     */
+    private static int tablebaseScore(int value, int ply) {
+        if (value == Tablebase.DRAW) {
+            return 0;
+        }
+        int plies = Tablebase.pliesToMate(value);
+        int score = ply + plies < MAX_PLY ? MATE_SCORE - ply - plies : MATE_BOUND - 1 - plies;
+        return Tablebase.isWin(value) ? score : -score;
+    }
+
+    /**
+     * Les puntuacions de mat es guarden relatives al node per poder-les reutilitzar a altres profunditats.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+}
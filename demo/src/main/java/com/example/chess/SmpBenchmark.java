@@ -0,0 +1,58 @@
+package com.example.chess;
+
+/**
+ * Mesura com escala la cerca amb el nombre de fils (Lazy SMP).
+ * Per cada nombre de fils (1, 2, 4, ... fins a N) cerca la posició inicial
+ * durant un temps fix i mostra els nodes per segon i l'acceleració respecte d'un fil.
+ */
+public class SmpBenchmark {
+
+    private static final int HASH_SIZE_MB = 64;
+
+    private final long millisPerRun;
+
+    /**
+     * Constructor que rep el temps de cerca per a cada nombre de fils.
+     *
+     * @param millisPerRun Temps de cada cerca en mil·lisegons
+     */
+    public SmpBenchmark(long millisPerRun) {
+        this.millisPerRun = millisPerRun;
+    }
+
+    /**
+     * Executa el benchmark des d'1 fil fins a maxThreads, doblant a cada pas.
+     *
+     * @param maxThreads Nombre màxim de fils
+     */
+    public void run(int maxThreads) {
+        System.out.println("Fils | Nodes | Nodes/s | Profunditat | Acceleració");
+        double baseline = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            Board board = new Board();
+            SearchEngine engine = new SearchEngine(board, new TranspositionTable(HASH_SIZE_MB));
+            engine.setThreads(threads);
+
+            long start = System.nanoTime();
+            engine.search(SearchEngine.MAX_PLY, millisPerRun);
+            long elapsed = System.nanoTime() - start;
+            long nodes = engine.getNodes();
+            engine.shutdown();
+
+            double nodesPerSecond = nodes * 1_000_000_000.0 / elapsed;
+            if (threads == 1) {
+                baseline = nodesPerSecond;
+            }
+            System.out.printf("%4d | %d | %.0f | %d | %.2fx%n", threads, nodes, nodesPerSecond,
+                    engine.getCompletedDepth(), nodesPerSecond / baseline);
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+}
@@ -0,0 +1,896 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Taules de finals de fins a 4 peces (reis inclosos): per cada posició guarden si el jugador
+ * que mou guanya, fa taules o perd, i en quantes mitges jugades es fa el mat.
+ *
+ * Cada combinació de material (ex: "KQK", "KRKP") és una taula amb un byte per posició,
+ * indexada pel torn i la casella de cada peça (2 × 64^n posicions). Les taules es guarden
+ * sempre amb el bàndol fort amb blanques; en consultar-les, les posicions amb el bàndol fort
+ * amb negres es reflecteixen i s'intercanvien els colors.
+ *
+ * Valor de cada posició (també el que retorna probe):
+ * - 0: taules (DRAW)
+ * - positiu: el jugador que mou fa mat en aquest nombre de mitges jugades (sempre senar)
+ * - negatiu: el jugador que mou rep mat en (-valor - 1) mitges jugades (-1: ja és mat)
+ *
+ * Les taules es generen per anàlisi retrògrada iterativa: a la passada k es resolen les
+ * posicions que guanyen en k mitges jugades (k senar: alguna jugada porta a una posició perduda
+ * en k - 1) o que perden en k (k parell: totes les jugades porten a posicions guanyades). Les
+ * captures i promocions surten de la taula i es resolen amb les taules de menys material, que
+ * es generen abans. Cada passada es reparteix en trossos entre diversos fils.
+ * Les taules no tenen en compte l'enroc ni la captura al pas, i ignoren la regla de les 50 jugades.
+ *
+ * Format binari de cada fitxer (ex: "KRK.tb"):
+ * - 4 bytes: "ESCT"
+ * - 1 byte: versió (1)
+ * - 1 byte: nombre de peces n
+ * - 4 bytes: índex de cada peça (vegeu Piece.index), en l'ordre de la taula (1 byte sense ús si n < 4)
+ * - 1 byte: mat més llarg de la taula, en mitges jugades
+ * - 5 bytes a zero
+ * - 2 × 64^n bytes amb el valor de cada posició
+ */
+public class Tablebase {
+
+    public static final int MAX_PIECES = 4;
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+    public static final int DRAW = 0;
+    public static final String FILE_EXTENSION = ".tb";
+    // Finals de 3 peces que es generen si no se n'indica cap
+    public static final String[] DEFAULT_SIGNATURES = {"KQK", "KRK", "KPK"};
+
+    private static final int VERSION = 1;
+    private static final byte[] MAGIC = {'E', 'S', 'C', 'T'};
+    private static final int HEADER_SIZE = 16;
+    private static final byte ILLEGAL = Byte.MIN_VALUE;
+    // Mat més llarg que cap en un byte (el valor d'una derrota en 126 mitges jugades és -127)
+    private static final int MAX_TABLE_PLIES = 126;
+
+    // Lletres de cada tipus de peça en les signatures, en l'ordre de Piece.PAWN_INDEX ... Piece.KING_INDEX
+    private static final String TYPE_LETTERS = "PRNBQK";
+    // Ordre de les peces de cada color dins d'una taula, darrere del rei
+    private static final String ORDER_LETTERS = "QRBNP";
+
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private static final Table MISSING = new Table(new int[0], null, 0);
+
+    private final Path directory;
+    // Taules carregades o generades, indexades pel codi del material (vegeu materialCode)
+    private final AtomicReferenceArray<Table> tables;
+    // Buffers de probe i bestMove, per no crear arrays a cada node de la cerca
+    private final Scratch scratch = new Scratch();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Constructor que rep el directori on es llegeixen i es desen les taules.
+     * Una instància no es pot consultar des de dos fils alhora (vegeu Tablebase(Tablebase)).
+     *
+     * @param directory Directori de les taules (no cal que existeixi fins que se'n generi alguna)
+     */
+    public Tablebase(Path directory) {
+        this.directory = directory;
+        this.tables = new AtomicReferenceArray<>(1 << (4 * MAX_PIECES));
+    }
+
+    /**
+     * Constructor per a un altre fil: comparteix el directori i les taules carregades,
+     * però té els seus propis buffers de consulta.
+     *
+     * @param shared Taules de finals que es comparteixen
+     */
+    public Tablebase(Tablebase shared) {
+        this.directory = shared.directory;
+        this.tables = shared.tables;
+    }
+
+    /**
+     * @param other Unes altres taules de finals
+     * @return true si totes dues instàncies comparteixen les taules carregades
+     */
+    public boolean sharesTables(Tablebase other) {
+        return other != null && tables == other.tables;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Consulta el valor de la posició del tauler.
+     *
+     * @param board Tauler amb la posició
+     * @return Valor de la posició (vegeu la descripció de la classe), o NOT_FOUND si té massa peces,
+     *         drets d'enroc o captura al pas, o si no hi ha la taula del seu material
+     */
+    public int probe(Board board) {
+        long occupancy = board.getOccupancy();
+        int count = Long.bitCount(occupancy);
+        if (count > MAX_PIECES || board.getCastlingRights() != 0 || hasEnPassantCapture(board)) {
+            return NOT_FOUND;
+        }
+        if (count == 2) {
+            return DRAW;
+        }
+
+        int[] pieces = scratch.pieces;
+        int[] squares = scratch.squares;
+        int found = 0;
+        for (int index = 0; index < Piece.PIECE_COUNT; index++) {
+            long bits = board.getPieceBitboard(index);
+            while (bits != 0) {
+                pieces[found] = index;
+                squares[found++] = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return lookup(pieces, squares, count, board.isWhiteToMove(), false, scratch);
+    }
+
+    /**
+     * Tria la jugada perfecta segons les taules: el mat més curt si es guanya, les taules si
+     * n'hi ha i, si es perd, el mat més llarg.
+     *
+     * @param board Tauler amb la posició
+     * @param generator Generador de moviments del mateix tauler
+     * @return Moviment codificat (vegeu Move), o Move.NONE si la posició no és a les taules
+     */
+    public int bestMove(Board board, MoveGenerator generator) {
+        if (probe(board) == NOT_FOUND) {
+            return Move.NONE;
+        }
+        int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+        int best = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int value = probe(board);
+            board.unmakeMove();
+            if (value == NOT_FOUND) {
+                continue;
+            }
+            // El valor és del rival: una derrota seva és una victòria nostra
+            int score;
+            if (isLoss(value)) {
+                score = MAX_TABLE_PLIES * 2 - pliesToMate(value);
+            } else if (isWin(value)) {
+                score = -MAX_TABLE_PLIES * 2 + pliesToMate(value);
+            } else {
+                score = 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param value Valor retornat per probe
+     * @return true si el jugador que mou guanya
+     */
+    public static boolean isWin(int value) {
+        return value != NOT_FOUND && value > 0;
+    }
+
+    /**
+     * @param value Valor retornat per probe
+     * @return true si el jugador que mou perd
+     */
+    public static boolean isLoss(int value) {
+        return value != NOT_FOUND && value < 0;
+    }
+
+    /**
+     * @param value Valor retornat per probe, de victòria o de derrota
+     * @return Mitges jugades fins al mat
+     */
+    public static int pliesToMate(int value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    /**
+     * Genera la taula d'un material, i abans les de menys material de què depèn, si no es poden
+     * carregar del directori. Les taules generades es desen al directori.
+     *
+     * @param signature Material, ex: "KQK" o "KRKP" (K, Q, R, B, N i P; primer el rei de cada color)
+     * @param threads Fils que es reparteixen cada passada
+     * @return Mat més llarg de la taula, en mitges jugades
+     * @throws IOException si no es pot desar alguna taula
+     * @throws IllegalArgumentException si la signatura no és vàlida
+     */
+    public int generate(String signature, int threads) throws IOException {
+        int[] pieces = parseSignature(signature);
+        int[] canonical = new int[pieces.length];
+        canonicalize(pieces, new int[pieces.length], pieces.length, true, canonical, new int[pieces.length],
+                new int[pieces.length]);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "taules-finals");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return ensureTable(canonical, pool, threads).maxPlies;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Nom de la taula d'un material (ex: "KRKP"), que també és el nom del fitxer sense l'extensió.
+     *
+     * @param signature Material en qualsevol ordre i amb qualsevol bàndol fort
+     * @return Signatura amb el bàndol fort primer i les peces en l'ordre de la taula
+     */
+    public static String canonicalSignature(String signature) {
+        int[] pieces = parseSignature(signature);
+        int[] canonical = new int[pieces.length];
+        canonicalize(pieces, new int[pieces.length], pieces.length, true, canonical, new int[pieces.length],
+                new int[pieces.length]);
+        return signatureOf(canonical);
+    }
+
+    /**
+     * Llegeix el valor d'una posició qualsevol, reflectint-la si el bàndol fort és el negre.
+     *
+     * @param required true per generar en lloc de tornar NOT_FOUND (no es fa servir en consultes)
+     * @param scratch Buffers del fil que consulta
+     */
+    private int lookup(int[] pieces, int[] squares, int count, boolean whiteToMove, boolean required,
+            Scratch scratch) {
+        int[] canonicalPieces = scratch.canonicalPieces;
+        int[] canonicalSquares = scratch.canonicalSquares;
+        boolean white = canonicalize(pieces, squares, count, whiteToMove, canonicalPieces, canonicalSquares,
+                scratch.keys);
+        Table table = table(canonicalPieces, count);
+        if (table == MISSING) {
+            if (required) {
+                throw new IllegalStateException("Falta la taula " + signatureOf(Arrays.copyOf(canonicalPieces, count)));
+            }
+            return NOT_FOUND;
+        }
+        int value = table.values.get(indexOf(canonicalSquares, count, white));
+        return value == ILLEGAL ? NOT_FOUND : value;
+    }
+
+    /**
+     * Retorna la taula d'un material en ordre canònic, carregant-la del directori si cal.
+     *
+     * @param count Peces de canonicalPieces que formen el material
+     */
+    private Table table(int[] canonicalPieces, int count) {
+        int code = materialCode(canonicalPieces, count);
+        Table table = tables.get(code);
+        if (table != null) {
+            return table;
+        }
+        // Les instàncies que comparteixen les taules també comparteixen el bloqueig
+        synchronized (tables) {
+            table = tables.get(code);
+            if (table == null) {
+                table = load(Arrays.copyOf(canonicalPieces, count));
+                tables.set(code, table);
+            }
+            return table;
+        }
+    }
+
+    private Table load(int[] canonicalPieces) {
+        if (directory == null) {
+            return MISSING;
+        }
+        Path path = directory.resolve(signatureOf(canonicalPieces) + FILE_EXTENSION);
+        if (!Files.exists(path)) {
+            return MISSING;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Llegir fins omplir la capçalera
+            }
+            header.flip();
+            int maxPlies = readHeader(header, canonicalPieces, path);
+            long size = tableSize(canonicalPieces.length);
+            if (channel.size() != HEADER_SIZE + size) {
+                throw new IllegalArgumentException("Taula de finals incompleta: " + path);
+            }
+            // La projecció continua vàlida un cop tancat el canal
+            ByteBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size);
+            return new Table(canonicalPieces, values, maxPlies);
+        } catch (IOException e) {
+            throw new IllegalStateException("No s'ha pogut llegir la taula " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int readHeader(ByteBuffer header, int[] canonicalPieces, Path path) {
+        if (header.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Taula de finals incompleta: " + path);
+        }
+        for (byte expected : MAGIC) {
+            if (header.get() != expected) {
+                throw new IllegalArgumentException("No és una taula de finals: " + path);
+            }
+        }
+        int version = header.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versió de taula de finals no suportada: " + version);
+        }
+        int count = header.get();
+        boolean matches = count == canonicalPieces.length;
+        for (int i = 0; i < MAX_PIECES; i++) {
+            int piece = header.get();
+            matches &= i >= count || (i < canonicalPieces.length && piece == canonicalPieces[i]);
+        }
+        if (!matches) {
+            throw new IllegalArgumentException("La taula " + path + " no correspon al seu material");
+        }
+        return header.get();
+    }
+
+    /**
+     * Retorna la taula d'un material, generant-la (i abans les que en depenen) si no es pot carregar.
+     */
+    private Table ensureTable(int[] canonicalPieces, ExecutorService pool, int threads) throws IOException {
+        Table table = table(canonicalPieces, canonicalPieces.length);
+        if (table != MISSING) {
+            return table;
+        }
+
+        // Dependències: treure cada peça que no és un rei i promocionar cada peó
+        int maxDependencyPlies = 0;
+        for (int[] dependency : dependencies(canonicalPieces)) {
+            maxDependencyPlies = Math.max(maxDependencyPlies, ensureTable(dependency, pool, threads).maxPlies);
+        }
+
+        table = build(canonicalPieces, maxDependencyPlies, pool, threads);
+        if (directory != null) {
+            save(table);
+        }
+        tables.set(materialCode(canonicalPieces, canonicalPieces.length), table);
+        return table;
+    }
+
+    private static List<int[]> dependencies(int[] pieces) {
+        List<int[]> result = new ArrayList<>();
+        for (int i = 0; i < pieces.length; i++) {
+            if (Piece.typeOfIndex(pieces[i]) == Piece.KING_INDEX) {
+                continue;
+            }
+            if (pieces.length > 3) {
+                int[] captured = new int[pieces.length - 1];
+                for (int j = 0, k = 0; j < pieces.length; j++) {
+                    if (j != i) {
+                        captured[k++] = pieces[j];
+                    }
+                }
+                result.add(canonicalPieces(captured));
+            }
+            if (Piece.typeOfIndex(pieces[i]) == Piece.PAWN_INDEX) {
+                int offset = Piece.isWhiteIndex(pieces[i]) ? 0 : Piece.TYPE_COUNT;
+                for (int type : new int[] {Piece.QUEEN_INDEX, Piece.ROOK_INDEX, Piece.BISHOP_INDEX,
+                        Piece.KNIGHT_INDEX}) {
+                    int[] promoted = pieces.clone();
+                    promoted[i] = type + offset;
+                    result.add(canonicalPieces(promoted));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] canonicalPieces(int[] pieces) {
+        int[] canonical = new int[pieces.length];
+        canonicalize(pieces, new int[pieces.length], pieces.length, true, canonical, new int[pieces.length],
+                new int[pieces.length]);
+        return canonical;
+    }
+
+    /**
+     * Anàlisi retrògrada iterativa d'una taula, amb cada passada repartida entre els fils.
+     */
+    private Table build(int[] pieces, int maxDependencyPlies, ExecutorService pool, int threads)
+            throws IOException {
+        int size = (int) tableSize(pieces.length);
+        byte[] values = new byte[size];
+        int chunks = threads * CHUNKS_PER_THREAD;
+        int chunkSize = (size + chunks - 1) / chunks;
+
+        int maxPlies = 0;
+        for (int ply = 0; ply <= MAX_TABLE_PLIES; ply++) {
+            List<Future<Integer>> results = new ArrayList<>(chunks);
+            for (int start = 0; start < size; start += chunkSize) {
+                int chunkStart = start;
+                int chunkEnd = Math.min(size, start + chunkSize);
+                int pass = ply;
+                results.add(pool.submit(() -> new Worker(pieces, values).pass(chunkStart, chunkEnd, pass)));
+            }
+            int changes = 0;
+            for (Future<Integer> result : results) {
+                changes += get(result);
+            }
+            if (changes > 0 && ply > 0) {
+                maxPlies = ply;
+            }
+            // Sense canvis, la passada següent ja no pot resoldre res, llevat de les sortides
+            // a taules de menys material, que poden tenir mats més llargs
+            if (changes == 0 && ply > maxDependencyPlies + 1) {
+                break;
+            }
+        }
+        return new Table(pieces, ByteBuffer.wrap(values), maxPlies);
+    }
+
+    private static int get(Future<Integer> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("S'ha interromput la generació de la taula", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error generant la taula: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void save(Table table) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(signatureOf(table.pieces) + FILE_EXTENSION);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC);
+        header.put((byte) VERSION);
+        header.put((byte) table.pieces.length);
+        for (int i = 0; i < MAX_PIECES; i++) {
+            header.put((byte) (i < table.pieces.length ? table.pieces[i] : 0));
+        }
+        header.put((byte) table.maxPlies);
+        header.rewind(); // La resta de la capçalera queda a zero
+
+        ByteBuffer values = table.values.duplicate();
+        values.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (values.hasRemaining()) {
+                values.limit(Math.min(values.capacity(), values.position() + WRITE_BUFFER_SIZE));
+                channel.write(values);
+                values.limit(values.capacity());
+            }
+        }
+    }
+
+    /**
+     * Posa les peces en l'ordre de les taules: rei blanc, peces blanques (Q, R, B, N, P),
+     * rei negre i peces negres, reflectint la posició si el bàndol fort és el negre.
+     *
+     * @param keys Buffer per a l'ordenació, d'almenys count posicions
+     * @return Torn de la posició resultant (true per a les blanques)
+     */
+    private static boolean canonicalize(int[] pieces, int[] squares, int count, boolean whiteToMove,
+            int[] outPieces, int[] outSquares, int[] keys) {
+        boolean flip = sideKey(pieces, count, true) < sideKey(pieces, count, false);
+        for (int i = 0; i < count; i++) {
+            int piece = pieces[i];
+            int square = squares[i];
+            if (flip) {
+                piece = Piece.isWhiteIndex(piece) ? piece + Piece.TYPE_COUNT : piece - Piece.TYPE_COUNT;
+                square ^= 56;
+            }
+            int type = Piece.typeOfIndex(piece);
+            int rank = type == Piece.KING_INDEX ? 0 : 1 + ORDER_LETTERS.indexOf(TYPE_LETTERS.charAt(type));
+            int key = (Piece.isWhiteIndex(piece) ? 0 : 1 << 12) | rank << 8 | square;
+            // Ordenació per inserció (com a molt 4 peces)
+            int j = i;
+            while (j > 0 && keys[j - 1] > key) {
+                keys[j] = keys[j - 1];
+                outPieces[j] = outPieces[j - 1];
+                outSquares[j] = outSquares[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            outPieces[j] = piece;
+            outSquares[j] = square;
+        }
+        return flip != whiteToMove;
+    }
+
+    /**
+     * Clau per decidir quin bàndol és el fort: primer el material i després les peces,
+     * de manera que dos bàndols amb la mateixa clau tenen exactament les mateixes peces.
+     */
+    private static long sideKey(int[] pieces, int count, boolean white) {
+        long key = 0;
+        for (int i = 0; i < count; i++) {
+            if (Piece.isWhiteIndex(pieces[i]) == white && Piece.typeOfIndex(pieces[i]) != Piece.KING_INDEX) {
+                key += Evaluation.pieceValue(pieces[i]);
+            }
+        }
+        // Després del material, un dígit per tipus amb el nombre de peces, en l'ordre de ORDER_LETTERS
+        for (int order = 0; order < ORDER_LETTERS.length(); order++) {
+            int type = TYPE_LETTERS.indexOf(ORDER_LETTERS.charAt(order));
+            int typeCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (Piece.isWhiteIndex(pieces[i]) == white && Piece.typeOfIndex(pieces[i]) == type) {
+                    typeCount++;
+                }
+            }
+            key = key * MAX_PIECES + typeCount;
+        }
+        return key;
+    }
+
+    private static int materialCode(int[] canonicalPieces, int count) {
+        int code = 0;
+        for (int i = 0; i < count; i++) {
+            code |= (canonicalPieces[i] + 1) << (4 * i);
+        }
+        return code;
+    }
+
+    private static long tableSize(int count) {
+        return 2L << (6 * count);
+    }
+
+    private static int indexOf(int[] squares, int count, boolean whiteToMove) {
+        int index = whiteToMove ? 0 : 1;
+        for (int i = 0; i < count; i++) {
+            index = (index << 6) | squares[i];
+        }
+        return index;
+    }
+
+    private static int[] parseSignature(String signature) {
+        String text = signature.trim().toUpperCase();
+        int secondKing = text.indexOf('K', 1);
+        if (text.isEmpty() || text.charAt(0) != 'K' || secondKing < 0 || text.indexOf('K', secondKing + 1) >= 0) {
+            throw new IllegalArgumentException("La signatura ha de tenir dos reis, ex: KQK o KRKP: " + signature);
+        }
+        if (text.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("Les taules tenen com a molt " + MAX_PIECES + " peces: " + signature);
+        }
+        int[] pieces = new int[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            int type = TYPE_LETTERS.indexOf(text.charAt(i));
+            if (type < 0) {
+                throw new IllegalArgumentException("Peça desconeguda '" + text.charAt(i) + "' a " + signature);
+            }
+            pieces[i] = i < secondKing ? type : type + Piece.TYPE_COUNT;
+        }
+        return pieces;
+    }
+
+    private static String signatureOf(int[] canonicalPieces) {
+        StringBuilder text = new StringBuilder();
+        for (int piece : canonicalPieces) {
+            text.append(TYPE_LETTERS.charAt(Piece.typeOfIndex(piece)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Cert si el jugador que mou pot capturar al pas (les taules no tenen en compte aquest dret).
+     */
+    private static boolean hasEnPassantCapture(Board board) {
+        int square = board.getEnPassantSquare();
+        if (square == Board.NO_SQUARE) {
+            return false;
+        }
+        boolean white = board.isWhiteToMove();
+        long pawns = board.getPieceBitboard(white ? Piece.PAWN_INDEX : Piece.PAWN_INDEX + Piece.TYPE_COUNT);
+        return (AttackTables.pawnAttacks(square, !white) & pawns) != 0;
+    }
+
+    private static long attacks(int piece, int square, long occupancy) {
+        switch (Piece.typeOfIndex(piece)) {
+            case Piece.PAWN_INDEX:
+                return AttackTables.pawnAttacks(square, Piece.isWhiteIndex(piece));
+            case Piece.ROOK_INDEX:
+                return AttackTables.rookAttacks(square, occupancy);
+            case Piece.KNIGHT_INDEX:
+                return AttackTables.knightAttacks(square);
+            case Piece.BISHOP_INDEX:
+                return AttackTables.bishopAttacks(square, occupancy);
+            case Piece.QUEEN_INDEX:
+                return AttackTables.queenAttacks(square, occupancy);
+            default:
+                return AttackTables.kingAttacks(square);
+        }
+    }
+
+    /**
+     * Buffers per canonicalitzar i consultar una posició sense crear arrays.
+     * Cada fil que consulta les taules en fa servir uns de propis.
+     */
+    private static final class Scratch {
+
+        final int[] pieces = new int[MAX_PIECES];
+        final int[] squares = new int[MAX_PIECES];
+        final int[] canonicalPieces = new int[MAX_PIECES];
+        final int[] canonicalSquares = new int[MAX_PIECES];
+        final int[] keys = new int[MAX_PIECES];
+    }
+
+    /**
+     * Una taula carregada (projectada a memòria) o generada.
+     */
+    private static final class Table {
+
+        final int[] pieces;
+        final ByteBuffer values;
+        final int maxPlies;
+
+        Table(int[] pieces, ByteBuffer values, int maxPlies) {
+            this.pieces = pieces;
+            this.values = values;
+            this.maxPlies = maxPlies;
+        }
+    }
+
+    /**
+     * Resol un tros de les posicions d'una taula en una passada. Cada fil només escriu
+     * les posicions del seu tros; les que llegeix d'altres trossos no poden canviar de
+     * manera que afecti el resultat de la passada (vegeu pass).
+     */
+    private final class Worker {
+
+        private static final int COUNT = 0;
+        private static final int FIND_WIN = 1;
+        private static final int FIND_LOSS = 2;
+
+        private final int[] pieces;
+        private final byte[] values;
+        private final int count;
+        private final int whiteCount;
+        private final int sideBit;
+        private final int[] squares;
+        private final int[] nextPieces;
+        private final int[] nextSquares;
+        private final Scratch scratch = new Scratch();
+
+        private int mode;
+        private int ply;
+        private int moves;
+
+        Worker(int[] pieces, byte[] values) {
+            this.pieces = pieces;
+            this.values = values;
+            this.count = pieces.length;
+            int white = 0;
+            while (white < count && Piece.isWhiteIndex(pieces[white])) {
+                white++;
+            }
+            this.whiteCount = white;
+            this.sideBit = 1 << (6 * count);
+            this.squares = new int[count];
+            this.nextPieces = new int[count];
+            this.nextSquares = new int[count];
+        }
+
+        /**
+         * A la passada 0 marca les posicions il·legals i els mats. A la passada k senar,
+         * una posició guanya en k si alguna jugada porta a una derrota en k - 1; a la k parell,
+         * perd en k si totes les jugades porten a victòries en k - 1 o menys. Les escriptures
+         * d'una passada senar són victòries i les lectures que importen són derrotes (i al revés
+         * a les parells), de manera que el resultat no depèn de l'ordre entre fils.
+         *
+         * @return Posicions resoltes
+         */
+        int pass(int start, int end, int pass) {
+            int changes = 0;
+            for (int index = start; index < end; index++) {
+                if (values[index] != DRAW) {
+                    continue;
+                }
+                boolean white = decode(index);
+                if (pass == 0) {
+                    if (!isLegalPosition(white)) {
+                        values[index] = ILLEGAL;
+                    } else if (scan(index, white, COUNT, 0) == 0 && inCheck(white)) {
+                        values[index] = -1;
+                        changes++;
+                    }
+                } else if ((pass & 1) == 1) {
+                    if (scan(index, white, FIND_WIN, pass) != 0) {
+                        values[index] = (byte) pass;
+                        changes++;
+                    }
+                } else if (scan(index, white, FIND_LOSS, pass) != 0) {
+                    values[index] = (byte) (-pass - 1);
+                    changes++;
+                }
+            }
+            return changes;
+        }
+
+        private boolean decode(int index) {
+            int rest = index;
+            for (int i = count - 1; i >= 0; i--) {
+                squares[i] = rest & 63;
+                rest >>>= 6;
+            }
+            return rest == 0;
+        }
+
+        private boolean isLegalPosition(boolean white) {
+            long occupancy = 0;
+            for (int i = 0; i < count; i++) {
+                long bit = Bitboards.bit(squares[i]);
+                if ((occupancy & bit) != 0) {
+                    return false;
+                }
+                occupancy |= bit;
+                int row = Bitboards.rowOf(squares[i]);
+                if (Piece.typeOfIndex(pieces[i]) == Piece.PAWN_INDEX && (row == 0 || row == 7)) {
+                    return false;
+                }
+            }
+            // El rei del jugador que no mou no pot estar en escac
+            int otherKing = squares[white ? whiteCount : 0];
+            return !isAttacked(otherKing, white, occupancy, -1);
+        }
+
+        private boolean inCheck(boolean white) {
+            return isAttacked(squares[white ? 0 : whiteCount], !white, occupancy(), -1);
+        }
+
+        private long occupancy() {
+            long occupancy = 0;
+            for (int i = 0; i < count; i++) {
+                occupancy |= Bitboards.bit(squares[i]);
+            }
+            return occupancy;
+        }
+
+        /**
+         * Cert si alguna peça del color indicat (sense comptar la de la posició skip) ataca la casella.
+         */
+        private boolean isAttacked(int square, boolean byWhite, long occupancy, int skip) {
+            long bit = Bitboards.bit(square);
+            int first = byWhite ? 0 : whiteCount;
+            int last = byWhite ? whiteCount : count;
+            for (int i = first; i < last; i++) {
+                if (i != skip && (attacks(pieces[i], squares[i], occupancy) & bit) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Recorre les jugades legals de la posició i les valora segons el mode.
+         *
+         * @return Amb COUNT, el nombre de jugades; amb FIND_WIN i FIND_LOSS, 1 si la posició es resol
+         */
+        private int scan(int index, boolean white, int scanMode, int pass) {
+            mode = scanMode;
+            ply = pass;
+            moves = 0;
+            long occupancy = occupancy();
+            long own = 0;
+            int first = white ? 0 : whiteCount;
+            int last = white ? whiteCount : count;
+            for (int i = first; i < last; i++) {
+                own |= Bitboards.bit(squares[i]);
+            }
+            int king = white ? 0 : whiteCount;
+
+            for (int i = first; i < last; i++) {
+                int from = squares[i];
+                boolean pawn = Piece.typeOfIndex(pieces[i]) == Piece.PAWN_INDEX;
+                long targets;
+                if (pawn) {
+                    int forward = white ? from - 8 : from + 8;
+                    targets = 0;
+                    if ((occupancy & Bitboards.bit(forward)) == 0) {
+                        targets |= Bitboards.bit(forward);
+                        int doublePush = 2 * forward - from;
+                        if (Bitboards.rowOf(from) == (white ? 6 : 1) && (occupancy & Bitboards.bit(doublePush)) == 0) {
+                            targets |= Bitboards.bit(doublePush);
+                        }
+                    }
+                    targets |= AttackTables.pawnAttacks(from, white) & occupancy & ~own;
+                } else {
+                    targets = attacks(pieces[i], from, occupancy) & ~own;
+                }
+
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    int captured = pieceAt(to, !white);
+                    long after = (occupancy & ~Bitboards.bit(from)) | Bitboards.bit(to);
+                    int kingSquare = i == king ? to : squares[king];
+                    squares[i] = to;
+                    boolean legal = !isAttacked(kingSquare, !white, after, captured);
+                    squares[i] = from;
+                    if (!legal) {
+                        continue;
+                    }
+
+                    int row = Bitboards.rowOf(to);
+                    boolean resolved;
+                    if (pawn && (row == 0 || row == 7)) {
+                        int offset = white ? 0 : Piece.TYPE_COUNT;
+                        resolved = accept(exitValue(i, to, captured, Piece.QUEEN_INDEX + offset, white))
+                                || accept(exitValue(i, to, captured, Piece.ROOK_INDEX + offset, white))
+                                || accept(exitValue(i, to, captured, Piece.BISHOP_INDEX + offset, white))
+                                || accept(exitValue(i, to, captured, Piece.KNIGHT_INDEX + offset, white));
+                    } else if (captured >= 0) {
+                        resolved = accept(exitValue(i, to, captured, pieces[i], white));
+                    } else {
+                        // Jugada dins de la taula: canvia el torn i la casella de la peça
+                        int shift = 6 * (count - 1 - i);
+                        resolved = accept(values[(index ^ sideBit) + ((to - from) << shift)]);
+                    }
+                    if (resolved) {
+                        return mode == FIND_WIN ? 1 : 0;
+                    }
+                }
+            }
+            if (mode == COUNT) {
+                return moves;
+            }
+            // FIND_LOSS: cap jugada ha escapat i n'hi ha com a mínim una
+            return mode == FIND_LOSS && moves > 0 ? 1 : 0;
+        }
+
+        /**
+         * Valora una jugada (el valor és del rival).
+         *
+         * @return true si ja no cal mirar més jugades
+         */
+        private boolean accept(int value) {
+            moves++;
+            switch (mode) {
+                case FIND_WIN:
+                    return value < 0 && value > ILLEGAL && pliesToMate(value) + 1 <= ply;
+                case FIND_LOSS:
+                    // La posició no perd si alguna jugada no porta a una victòria prou curta del rival
+                    return !(value > 0 && value + 1 <= ply);
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Valor d'una captura o promoció, que porta a una taula amb un altre material.
+         */
+        private int exitValue(int moved, int to, int captured, int piece, boolean white) {
+            int next = 0;
+            for (int i = 0; i < count; i++) {
+                if (i != captured) {
+                    nextPieces[next] = i == moved ? piece : pieces[i];
+                    nextSquares[next++] = i == moved ? to : squares[i];
+                }
+            }
+            return next == 2 ? DRAW : lookup(nextPieces, nextSquares, next, !white, true, scratch);
+        }
+
+        private int pieceAt(int square, boolean white) {
+            int first = white ? 0 : whiteCount;
+            int last = white ? whiteCount : count;
+            for (int i = first; i < last; i++) {
+                if (squares[i] == square) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Taula de transposicions compartida entre fils, sense bloquejos.
+ * Cada entrada ocupa dos longs consecutius d'un array pla: la clau XOR les dades
+ * i les dades. Si dos fils escriuen alhora la mateixa entrada, la clau
+ * reconstruïda no coincideix i la lectura es descarta com una fallada.
+ *
+ * Format de les dades (64 bits):
+ * - 0-27: moviment (vegeu Move)
+ * - 28-43: puntuació amb signe
+ * - 44-51: profunditat
+ * - 52-53: tipus de cota (EXACT, LOWER_BOUND, UPPER_BOUND)
+ * - 54-61: generació de la cerca que l'ha escrit
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int DEFAULT_SIZE_MB = 16;
+    // La taula és un sol long[]: com a molt 2^29 entrades de 16 bytes, és a dir 8 GB
+    public static final int MAX_SIZE_MB = 8192;
+
+    // Valor que retorna probe quan no hi ha entrada
+    public static final long MISS = 0L;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    private static final int MOVE_MASK = 0x0FFFFFFF;
+    private static final int SCORE_SHIFT = 28;
+    private static final int DEPTH_SHIFT = 44;
+    private static final int BOUND_SHIFT = 52;
+    private static final int GENERATION_SHIFT = 54;
+
+    private final long[] table;
+    private final int indexMask;
+    private final int sizeMb;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Crea una taula de la mida indicada, arrodonida cap avall a una potència de dos
+     * d'entrades (la mida real la retorna getSizeMb).
+     *
+     * @param sizeMb Mida en megabytes (1-8192)
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1 || sizeMb > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Mida de la taula de transposicions invàlida: " + sizeMb + " MB");
+        }
+        long requestedEntries = (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY;
+        long entries = Long.highestOneBit(requestedEntries);
+        this.table = new long[(int) entries * LONGS_PER_ENTRY];
+        this.indexMask = (int) entries - 1;
+        this.sizeMb = (int) (entries * BYTES_PER_ENTRY / (1024 * 1024));
+    }
+
+    /**
+     * Busca una posició a la taula.
+     *
+     * @param key Hash de Zobrist de la posició
+     * @return Dades de l'entrada o MISS si no hi és
+     */
+    public long probe(long key) {
+        probes.increment();
+        int slot = slotOf(key);
+        long data = table[slot + 1];
+        long storedKey = table[slot] ^ data;
+
+        if (storedKey == key && data != MISS) {
+            hits.increment();
+            return data;
+        }
+        if (data != MISS) {
+            collisions.increment();
+        }
+        return MISS;
+    }
+
+    /**
+     * Desa el resultat d'una cerca. Es conserva l'entrada existent si és d'una altra
+     * posició de la mateixa cerca i té més profunditat.
+     *
+     * @param key Hash de Zobrist de la posició
+     * @param move Millor moviment trobat o Move.NONE
+     * @param score Puntuació (ha de cabre en 16 bits amb signe)
+     * @param depth Profunditat de la cerca (0-255)
+     * @param bound Tipus de cota: EXACT, LOWER_BOUND o UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int slot = slotOf(key);
+        long oldData = table[slot + 1];
+        long oldKey = table[slot] ^ oldData;
+
+        if (oldData != MISS && oldKey != key
+                && generationOf(oldData) == generation && depthOf(oldData) > depth) {
+            return;
+        }
+        if (move == Move.NONE && oldKey == key) {
+            move = moveOf(oldData);
+        }
+
+        long data = (move & MOVE_MASK)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) (generation & 0xFF) << GENERATION_SHIFT);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+        stores.increment();
+    }
+
+    /**
+     * Marca l'inici d'una nova cerca perquè les entrades antigues es puguin substituir.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Buida totes les entrades i reinicia els comptadors.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    public static int moveOf(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    public static int scoreOf(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depthOf(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int boundOf(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generationOf(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    /**
+     * @return Mida reservada en megabytes, que pot ser menor que la demanada per l'arrodoniment
+     */
+    public int getSizeMb() {
+        return sizeMb;
+    }
+
+    /**
+     * @return Nombre d'entrades de la taula
+     */
+    public int getCapacity() {
+        return indexMask + 1;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Consultes que han trobat l'entrada ocupada per una altra posició
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return Proporció de consultes encertades (0-1)
+     */
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * Estima l'ocupació de la taula mostrejant les primeres entrades.
+     *
+     * @return Ocupació en tants per mil, com el "hashfull" d'UCI
+     */
+    public int getPermillFull() {
+        int sample = Math.min(1000, getCapacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * LONGS_PER_ENTRY + 1];
+            if (data != MISS && generationOf(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    private int slotOf(long key) {
+        return ((int) key & indexMask) * LONGS_PER_ENTRY;
+    }
+}
@@ -6,11 +6,16 @@ import java.util.InputMismatchException;
 /**
  * Classe responsable de la interfície d'usuari en consola.
  * Gestiona l'entrada/sortida i el parseig de comandes.
+ * Les jugades es llegeixen directament de qualsevol CharSequence a una jugada compacta
+ * (vegeu GameRecord), sense crear objectes intermedis.
  */
 public class UIConsole {
     
     private static final Scanner scanner = new Scanner(System.in);
     
+    // Valor que tornen els mètodes de parseig quan el text no és una jugada
+    public static final int NO_MOVE = -1;
+    
     /**
      * Llegeix una cadena de text de l'usuari.
      * 
@@ -55,68 +60,113 @@ public class UIConsole {
     }
     
     /**
-     * Parseja un moviment en format d'escacs (ex: "e2 e4").
+     * Llegeix una jugada del text introduït per l'usuari, en la notació de la consola
+     * (ex: "e7 e5" o "e2 e1=C") o, en el mode SAN, en notació SAN (ex: "Cf3", "exd5", "O-O").
+     * Les dues notacions no es barregen: a la consola la fila 1 és la de dalt del tauler
+     * (la de les negres), i a SAN és la de les blanques.
+     * Si el text no s'entén, mostra l'error per consola.
      * 
-     * @param moveString Cadena amb el moviment
-     * @return Array amb les coordenades [fromRow, fromCol, toRow, toCol] o null si és invàlid
+     * @param input Text introduït
+     * @param sanParser Intèrpret SAN sobre el tauler de la partida en el mode SAN, o null per a coordenades
+     * @return Jugada compacta en el format de GameRecord, o NO_MOVE si no és vàlida
      */
-    public int[] parseMove(String moveString) {
-        // Validar format bàsic
-        String[] parts = moveString.trim().split("\\s+");
-        
-        if (parts.length != 2) {
-            System.out.println("ERROR: Format invàlid. Utilitza format 'e2 e4'.");
-            return null;
+    public int parseMove(CharSequence input, SanParser sanParser) {
+        int move = parseMove(input, 0, input.length(), sanParser);
+        if (move == NO_MOVE) {
+            if (sanParser == null) {
+                System.out.println("ERROR: Format invàlid. Utilitza format 'e7 e5' (origen destí, amb les files del tauler).");
+            } else {
+                System.out.println("ERROR: Jugada SAN invàlida o il·legal (ex: 'e4', 'Cf3', 'O-O').");
+            }
         }
-        
-        String origin = parts[0].toLowerCase();
-        String destination = parts[1].toLowerCase();
-        
-        // Validar que cada part tingui 2 caràcters
-        if (origin.length() != 2 || destination.length() != 2) {
-            System.out.println("ERROR: Format invàlid. Cada posició ha de tenir 2 caràcters (ex: 'e2').");
-            return null;
+        return move;
+    }
+    
+    /**
+     * Interpreta una jugada en coordenades o en SAN directament del text, sense crear cap
+     * objecte. Serveix per a qualsevol CharSequence: String, StringBuilder o una vista
+     * sobre un ByteBuffer.
+     * 
+     * @param text Text que conté la jugada
+     * @param start Primer caràcter de la jugada
+     * @param end Caràcter següent a l'últim de la jugada
+     * @param sanParser Intèrpret SAN per llegir la jugada en SAN, o null per llegir-la en coordenades
+     * @return Jugada compacta en el format de GameRecord, o NO_MOVE si no és vàlida
+     */
+    public static int parseMove(CharSequence text, int start, int end, SanParser sanParser) {
+        if (sanParser == null) {
+            return parseCoordinates(text, start, end);
         }
-        
-        // Convertir coordenades
-        int[] originCoords = convertCoordinates(origin);
-        int[] destCoords = convertCoordinates(destination);
-        
-        if (originCoords == null || destCoords == null) {
-            System.out.println("ERROR: Coordenades invàlides. Utilitza lletres a-h i números 1-8.");
-            return null;
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
         }
-        
-        return new int[] { 
-            originCoords[0], originCoords[1], 
-            destCoords[0], destCoords[1] 
-        };
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int sanMove = sanParser.parse(text, start, end);
+        return sanMove == Move.NONE ? NO_MOVE : GameRecord.pack(sanMove);
     }
     
     /**
-     * Converteix una coordenada d'escacs (ex: "e2") a índexs d'array.
+     * Interpreta una jugada en la notació de la consola: dues caselles separades per espais
+     * i, opcionalment, la peça de promoció (ex: "e2 e4" o "e2 e1=C"). No crea cap objecte.
+     * És l'únic intèrpret de coordenades: el fan servir també GameRecord, el servidor i la validació per lots.
      * 
-     * @param coord Coordenada en format escacs (ex: "e2")
-     * @return Array amb [fila, columna] o null si és invàlid
+     * @param text Text que conté la jugada
+     * @param start Primer caràcter de la jugada
+     * @param end Caràcter següent a l'últim de la jugada
+     * @return Jugada compacta en el format de GameRecord, o NO_MOVE si no és vàlida
      */
-    private int[] convertCoordinates(String coord) {
-        if (coord.length() != 2) {
-            return null;
+    public static int parseCoordinates(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
         }
         
-        char file = coord.charAt(0); // lletra (columna)
-        char rank = coord.charAt(1); // número (fila)
-        
-        // Validar que la columna sigui entre 'a' i 'h'
-        // Validar que la fila sigui entre '1' i '8'
-        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
-            return null;
+        int promotionType = 0;
+        if (end - start > 2 && text.charAt(end - 2) == '=') {
+            promotionType = SanParser.pieceType(Character.toUpperCase(text.charAt(end - 1)));
+            if (promotionType < Piece.ROOK_INDEX || promotionType > Piece.QUEEN_INDEX) {
+                return NO_MOVE;
+            }
+            end -= 2;
         }
         
-        int row = Character.getNumericValue(rank) - 1; // Fila (0-7)
-        int col = file - 'a'; // Columna (0-7)
+        // Origen i destí als extrems, amb almenys un espai entremig
+        if (end - start < 5) {
+            return NO_MOVE;
+        }
+        for (int i = start + 2; i < end - 2; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return NO_MOVE;
+            }
+        }
+        int from = parseSquare(text, start);
+        int to = parseSquare(text, end - 2);
+        if (from < 0 || to < 0) {
+            return NO_MOVE;
+        }
+        return GameRecord.pack(from, to, promotionType);
+    }
+    
+    /**
+     * Converteix una casella de la consola (ex: "e2", on el dígit '1' és la fila 0) a índex de casella.
+     * 
+     * @param text Text que conté la casella
+     * @param offset Posició de la lletra de la columna
+     * @return Índex de casella (0-63), o -1 si no és vàlida
+     */
+    public static int parseSquare(CharSequence text, int offset) {
+        char file = Character.toLowerCase(text.charAt(offset)); // lletra (columna)
+        char rank = text.charAt(offset + 1); // número (fila)
         
-        return new int[] { row, col };
+        // Validar que la columna sigui entre 'a' i 'h' i la fila entre '1' i '8'
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return Bitboards.square(rank - '1', file - 'a');
     }
     
     /**
@@ -137,19 +187,29 @@ public class UIConsole {
         System.out.println("ERROR: " + errorMessage);
     }
     
+    /**
+     * Mostra el motiu pel qual s'ha rebutjat un moviment.
+     * 
+     * @param code Codi de MoveError retornat per MoveValidator.checkMove
+     * @param isWhiteTurn true si és el torn de les blanques
+     */
+    public void showMoveError(int code, boolean isWhiteTurn) {
+        showError(MoveError.fromCode(code).describe(isWhiteTurn));
+    }
+    
     /**
      * Mostra l'historial de moviments.
      * 
-     * @param moveHistory Llista amb l'historial de moviments
+     * @param moveHistory Historial compacte de la partida
      */
-    public void showMoveHistory(java.util.ArrayList<String> moveHistory) {
+    public void showMoveHistory(GameRecord moveHistory) {
         System.out.println("\n=== HISTORIAL DE MOVIMENTS ===");
         
         if (moveHistory.isEmpty()) {
             System.out.println("No s'han fet moviments.");
         } else {
             for (int i = 0; i < moveHistory.size(); i++) {
-                System.out.println((i + 1) + ". " + moveHistory.get(i));
+                System.out.println((i + 1) + ". " + moveHistory.toNotation(i));
             }
         }
     }
@@ -0,0 +1,398 @@
+package com.example.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Interfície UCI (Universal Chess Interface) per connectar el motor a interfícies
+ * gràfiques i gestors de tornejos, com a alternativa a UIConsole.
+ * Ordres admeses: uci, isready, ucinewgame, setoption (Hash, Threads, BookFile i TablebasePath), position,
+ * go, stop i quit. La cerca s'executa en un fil a part, de manera que stop i isready
+ * es responen mentre es cerca; per cada iteració completada s'envia una línia info
+ * amb la profunditat, la puntuació, els nodes i els nodes per segon.
+ * Les jugades fan servir la notació estàndard de coordenades (ex: "e2e4", "e7e8q").
+ * Amb un llibre d'obertures (opció BookFile), les posicions del llibre es responen
+ * sense cercar, excepte amb "go infinite".
+ */
+public class UciInterface {
+
+    public static final String ENGINE_NAME = "PE7 Escacs";
+    public static final String ENGINE_AUTHOR = "PE7 Escacs";
+
+    private static final int MIN_HASH_MB = 1;
+    // Temps que es reserva per a la comunicació quan es juga amb rellotge
+    private static final long MOVE_OVERHEAD_MILLIS = 30;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Board board;
+    private final MoveGenerator generator;
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+
+    private TranspositionTable table;
+    private SearchEngine engine;
+    private int threads = 1;
+    private OpeningBook book;
+    private Tablebase tablebase;
+    private final Random random = new Random();
+
+    private Thread searchThread;
+    private CountDownLatch stopSignal = new CountDownLatch(0);
+    private long searchStartNanos;
+
+    /**
+     * Constructor que rep l'entrada i la sortida del protocol.
+     *
+     * @param in Ordres de la interfície gràfica, una per línia
+     * @param out Sortida on s'escriuen les respostes
+     */
+    public UciInterface(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+        this.board = new Board();
+        this.generator = new MoveGenerator(board);
+        createEngine(TranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Llegeix i executa ordres fins a rebre quit o arribar al final de l'entrada.
+     *
+     * @throws IOException si hi ha un error de lectura
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line)) {
+                return;
+            }
+        }
+        stopSearch();
+        engine.shutdown();
+        closeBook();
+    }
+
+    /**
+     * Executa una ordre UCI. Les ordres desconegudes s'ignoren, tal com demana el protocol.
+     *
+     * @param line Línia rebuda
+     * @return false si l'ordre és quit
+     */
+    public boolean handle(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                out.println("id name " + ENGINE_NAME);
+                out.println("id author " + ENGINE_AUTHOR);
+                out.println("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB
+                        + " min " + MIN_HASH_MB + " max " + TranspositionTable.MAX_SIZE_MB);
+                out.println("option name Threads type spin default 1 min 1 max " + SearchEngine.MAX_THREADS);
+                out.println("option name BookFile type string default <empty>");
+                out.println("option name TablebasePath type string default <empty>");
+                out.println("uciok");
+                break;
+            case "isready":
+                out.println("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                table.clear();
+                board.initializeBoard();
+                break;
+            case "setoption":
+                stopSearch();
+                setOption(tokens);
+                break;
+            case "position":
+                stopSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                stopSearch();
+                startSearch(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "quit":
+                stopSearch();
+                engine.shutdown();
+                closeBook();
+                return false;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Espera que acabi la cerca en curs sense aturar-la (per a go amb profunditat o temps).
+     *
+     * @throws InterruptedException si s'interromp l'espera
+     */
+    public void waitForSearch() throws InterruptedException {
+        Thread thread = searchThread;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * "setoption name Hash value 64", "setoption name Threads value 4" o
+     * "setoption name BookFile value obertures.book" (buit o "<empty>" per no fer servir llibre) o
+     * "setoption name TablebasePath value finals" (directori de les taules de finals).
+     */
+    private void setOption(String[] tokens) {
+        String name = valueAfter(tokens, "name");
+        String value = valueAfter(tokens, "value");
+        if (name != null && name.equalsIgnoreCase("BookFile")) {
+            // El nom del fitxer pot tenir espais: és tot el que hi ha després de "value"
+            openBook(textAfter(tokens, "value"));
+            return;
+        }
+        if (name != null && name.equalsIgnoreCase("TablebasePath")) {
+            String directory = textAfter(tokens, "value");
+            tablebase = directory == null || directory.equals("<empty>") ? null : new Tablebase(Path.of(directory));
+            engine.setTablebase(tablebase);
+            return;
+        }
+        if (name == null || value == null) {
+            return;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (name.equalsIgnoreCase("Hash")) {
+                createEngine(Math.max(MIN_HASH_MB, Math.min(number, TranspositionTable.MAX_SIZE_MB)));
+            } else if (name.equalsIgnoreCase("Threads")) {
+                threads = Math.max(1, Math.min(number, SearchEngine.MAX_THREADS));
+                engine.setThreads(threads);
+            }
+        } catch (NumberFormatException e) {
+            out.println("info string Valor invàlid per a " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Obre el llibre d'obertures indicat en lloc de l'actual.
+     */
+    private void openBook(String file) {
+        closeBook();
+        if (file == null || file.equals("<empty>")) {
+            return;
+        }
+        try {
+            book = OpeningBook.open(Path.of(file));
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("info string No s'ha pogut obrir el llibre " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void closeBook() {
+        if (book == null) {
+            return;
+        }
+        try {
+            book.close();
+        } catch (IOException e) {
+            out.println("info string No s'ha pogut tancar el llibre: " + e.getMessage());
+        }
+        book = null;
+    }
+
+    /**
+     * Crea una taula de transposicions de la mida indicada i un motor que la faci servir.
+     */
+    private void createEngine(int hashMb) {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        table = new TranspositionTable(hashMb);
+        engine = new SearchEngine(board, table);
+        engine.setThreads(threads);
+        engine.setSearchListener(this::sendInfo);
+        engine.setTablebase(tablebase);
+    }
+
+    /**
+     * "position startpos [moves ...]" o "position fen <fen> [moves ...]".
+     */
+    private void setPosition(String[] tokens) {
+        int index = 1;
+        if (tokens.length > 1 && tokens[1].equals("startpos")) {
+            board.initializeBoard();
+            index = 2;
+        } else if (tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            index = 2;
+            while (index < tokens.length && !tokens[index].equals("moves")) {
+                fen.append(tokens[index++]).append(' ');
+            }
+            try {
+                board.loadFen(fen);
+            } catch (IllegalArgumentException e) {
+                out.println("info string " + e.getMessage());
+                return;
+            }
+        } else {
+            return;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            for (index++; index < tokens.length; index++) {
+                int move = findLegalMove(tokens[index]);
+                if (move == Move.NONE) {
+                    out.println("info string Jugada il·legal: " + tokens[index]);
+                    return;
+                }
+                board.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * Busca entre els moviments legals el que té la notació UCI indicada.
+     *
+     * @return Moviment codificat, o Move.NONE si no és legal
+     */
+    private int findLegalMove(String uciMove) {
+        int count = generator.generateLegalMoves(legalMoves, board.isWhiteToMove());
+        for (int i = 0; i < count; i++) {
+            if (Move.toString(legalMoves[i]).equals(uciMove)) {
+                return legalMoves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * "go [depth N] [movetime ms] [wtime ms btime ms winc ms binc ms movestogo N] [infinite]".
+     */
+    private void startSearch(String[] tokens) {
+        int depth = parseInt(valueAfter(tokens, "depth"), SearchEngine.MAX_PLY);
+        long moveTime = parseInt(valueAfter(tokens, "movetime"), 0);
+        boolean infinite = contains(tokens, "infinite");
+        if (book != null && !infinite) {
+            int bookMove = book.selectMove(board, generator, random);
+            if (bookMove != Move.NONE) {
+                out.println("info string Jugada del llibre");
+                out.println("bestmove " + Move.toString(bookMove));
+                return;
+            }
+        }
+
+        if (moveTime == 0 && !infinite) {
+            boolean white = board.isWhiteToMove();
+            long remaining = parseInt(valueAfter(tokens, white ? "wtime" : "btime"), 0);
+            long increment = parseInt(valueAfter(tokens, white ? "winc" : "binc"), 0);
+            int movesToGo = parseInt(valueAfter(tokens, "movestogo"), DEFAULT_MOVES_TO_GO);
+            if (remaining > 0) {
+                long budget = remaining / Math.max(1, movesToGo) + increment * 3 / 4;
+                moveTime = Math.max(1, Math.min(budget, remaining - MOVE_OVERHEAD_MILLIS));
+            }
+        }
+
+        long timeLimit = infinite ? 0 : moveTime;
+        CountDownLatch signal = new CountDownLatch(infinite ? 1 : 0);
+        stopSignal = signal;
+        searchStartNanos = System.nanoTime();
+        searchThread = new Thread(() -> {
+            int move = engine.search(depth, timeLimit);
+            // Amb "go infinite" el millor moviment no s'envia fins que arriba stop
+            try {
+                signal.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.println("bestmove " + (move == Move.NONE ? "0000" : Move.toString(move)));
+        }, "cerca-uci");
+        searchThread.start();
+    }
+
+    /**
+     * Atura la cerca en curs i espera que el fil de cerca enviï el bestmove.
+     */
+    private void stopSearch() {
+        Thread thread = searchThread;
+        if (thread == null) {
+            return;
+        }
+        stopSignal.countDown();
+        // Si el fil encara no ha començat la cerca, stop es tornaria a desactivar: repetir-lo
+        while (thread.isAlive()) {
+            engine.stop();
+            try {
+                thread.join(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        searchThread = null;
+    }
+
+    /**
+     * Envia la línia info d'una iteració completada.
+     */
+    private void sendInfo(int depth, int score, long nodes, int bestMove) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - searchStartNanos);
+        long nps = nodes * 1_000_000_000L / elapsedNanos;
+        out.println("info depth " + depth + " score " + formatScore(score) + " nodes " + nodes
+                + " nps " + nps + " time " + elapsedNanos / 1_000_000 + " pv " + Move.toString(bestMove));
+    }
+
+    /**
+     * Converteix la puntuació a "cp N" o, si és un mat, a "mate N" (en jugades, negatiu si el rep el motor).
+     */
+    static String formatScore(int score) {
+        if (score >= SearchEngine.MATE_BOUND) {
+            return "mate " + (SearchEngine.MATE_SCORE - score + 1) / 2;
+        }
+        if (score <= -SearchEngine.MATE_BOUND) {
+            return "mate " + -((SearchEngine.MATE_SCORE + score) / 2);
+        }
+        return "cp " + score;
+    }
+
+    private static String valueAfter(String[] tokens, String key) {
+        for (int i = 0; i + 1 < tokens.length; i++) {
+            if (tokens[i].equals(key)) {
+                return tokens[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static String textAfter(String[] tokens, String key) {
+        for (int i = 0; i + 1 < tokens.length; i++) {
+            if (tokens[i].equals(key)) {
+                return String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(String[] tokens, String key) {
+        for (String token : tokens) {
+            if (token.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
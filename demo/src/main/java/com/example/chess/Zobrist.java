@@ -0,0 +1,88 @@
+package com.example.chess;
+
+/**
+ * Claus aleatòries de Zobrist per calcular el hash d'una posició.
+ * El hash és la XOR de les claus de cada peça a la seva casella, del torn
+ * (si mouen les negres), dels drets d'enroc i de la columna de captura al pas.
+ * Les claus es generen amb una llavor fixa perquè el hash sigui reproduïble.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[] PIECE_KEYS = new long[Piece.PIECE_COUNT * Bitboards.SQUARE_COUNT];
+    private static final long[] CASTLING_KEYS = new long[Board.ALL_CASTLING + 1];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long SIDE_KEY;
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < PIECE_KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_KEYS[i] = mix(state);
+        }
+        // Sense drets d'enroc no s'afegeix cap clau
+        for (int i = 1; i < CASTLING_KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING_KEYS[i] = mix(state);
+        }
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_KEYS[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_KEY = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Clau d'una peça en una casella.
+     *
+     * @param pieceIndex Índex de la peça (vegeu Piece.index)
+     * @param square Casella (0-63)
+     * @return Clau de Zobrist
+     */
+    public static long pieceKey(int pieceIndex, int square) {
+        return PIECE_KEYS[pieceIndex * Bitboards.SQUARE_COUNT + square];
+    }
+
+    /**
+     * Clau d'un conjunt de drets d'enroc.
+     *
+     * @param castlingRights Bits dels drets d'enroc
+     * @return Clau de Zobrist (0 si no hi ha drets)
+     */
+    public static long castlingKey(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * Clau de la casella de captura al pas.
+     *
+     * @param enPassantSquare Casella (0-63) o Board.NO_SQUARE
+     * @return Clau de la columna de la casella (0 si no n'hi ha)
+     */
+    public static long enPassantKey(int enPassantSquare) {
+        return enPassantSquare == Board.NO_SQUARE ? 0L : EN_PASSANT_KEYS[Bitboards.colOf(enPassantSquare)];
+    }
+
+    /**
+     * Clau que s'afegeix quan mouen les negres.
+     *
+     * @return Clau de Zobrist del torn
+     */
+    public static long sideKey() {
+        return SIDE_KEY;
+    }
+
+    /**
+     * Funció de barreja de SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
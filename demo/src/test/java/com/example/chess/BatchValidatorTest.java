@@ -0,0 +1,113 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la validació en paral·lel d'arxius de partides.
+ */
+@DisplayName("Tests de la validació en bloc")
+public class BatchValidatorTest {
+
+    private static final String PGN_GAMES =
+            "[Event \"Vàlida\"]\n"
+            + "[Result \"*\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 {Ruy López} 4. Ba4 Nf6 *\n"
+            + "\n"
+            + "[Event \"Il·legal\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Ke3 Nc6 0-1\n"
+            + "\n"
+            + "[Event \"Des d'una posició\"]\n"
+            + "[FEN \"8/8/8/8/8/8/4P3/4K2k w - - 0 1\"]\n"
+            + "\n"
+            + "1. e4 Kg2 2. e5 1/2-1/2\n"
+            + "\n";
+
+    // Notació de la consola: el dígit '1' és la fila 0 (la de les negres)
+    private static final String COORDINATE_GAMES =
+            "# Partides en coordenades\n"
+            + "e7 e5, e2 e4, g8 f6, b1 c3\n"
+            + "\n"
+            + "e7 e5, e2 e4, e8 e6\n"
+            + "e7 e6, e2 e3, d7 d5, z9 a1\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Un arxiu PGN es valida igual amb 1, 2 i 4 fils")
+    public void testPgnSameResultWithAnyThreads() {
+        ByteBuffer input = repeat(PGN_GAMES, 50);
+        for (int threads : new int[] {1, 2, 4}) {
+            BatchValidator validator = new BatchValidator(threads, 64);
+            BatchValidator.Summary summary = validator.validate(input, BatchValidator.Format.PGN);
+            validator.shutdown();
+
+            assertEquals(150, summary.getGames(), "Nombre de partides amb " + threads + " fils");
+            assertEquals(100, summary.getValidGames(), "Partides vàlides amb " + threads + " fils");
+            assertEquals(50 * (8 + 2 + 3), summary.getMoves(), "Jugades aplicades amb " + threads + " fils");
+
+            List<BatchValidator.InvalidGame> invalid = summary.getInvalidGames();
+            assertEquals(50, invalid.size(), "Una partida il·legal per repetició");
+            for (int i = 0; i < invalid.size(); i++) {
+                BatchValidator.InvalidGame game = invalid.get(i);
+                assertEquals(3L * i + 2, game.getGameNumber(), "Les partides es numeren en l'ordre de l'entrada");
+                assertEquals(3, game.getPly(), "El rei a e3 és la tercera mitja jugada");
+                assertEquals("Ke3", game.getMove(), "Primera jugada il·legal");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Les partides en coordenades es validen línia a línia")
+    public void testCoordinateGames() {
+        BatchValidator validator = new BatchValidator(2, 16);
+        BatchValidator.Summary summary = validator.validate(repeat(COORDINATE_GAMES, 20),
+                BatchValidator.Format.COORDINATES);
+        validator.shutdown();
+
+        assertEquals(60, summary.getGames(), "Les línies buides i els comentaris no compten");
+        assertEquals(20, summary.getValidGames(), "Només la primera partida és vàlida");
+        assertEquals(20 * (4 + 2 + 3), summary.getMoves(), "Jugades aplicades");
+
+        BatchValidator.InvalidGame first = summary.getInvalidGames().get(0);
+        assertEquals(2, first.getGameNumber(), "Segona partida");
+        assertEquals(3, first.getPly(), "El rei no pot avançar dues caselles");
+        assertEquals("e8 e6", first.getMove(), "Text de la jugada rebutjada");
+        assertEquals("z9 a1", summary.getInvalidGames().get(1).getMove(), "Jugada que no s'entén");
+    }
+
+    @Test
+    @DisplayName("La validació d'un fitxer coincideix amb la d'un buffer")
+    public void testValidateFile() throws IOException {
+        Path file = tempDir.resolve("partides.pgn");
+        ByteBuffer input = repeat(PGN_GAMES, 200);
+        Files.write(file, input.array());
+        assertEquals(BatchValidator.Format.PGN, BatchValidator.Format.of(file), "Format per l'extensió");
+
+        BatchValidator validator = new BatchValidator(4, 1000);
+        BatchValidator.Summary fromFile = validator.validate(file, BatchValidator.Format.PGN);
+        BatchValidator.Summary fromBuffer = validator.validate(input, BatchValidator.Format.PGN);
+        validator.shutdown();
+
+        assertEquals(600, fromFile.getGames(), "Nombre de partides");
+        assertEquals(fromBuffer.getMoves(), fromFile.getMoves(), "Mateixes jugades");
+        assertEquals(fromBuffer.getInvalidGames().toString(), fromFile.getInvalidGames().toString(),
+                "Mateixes partides il·legals");
+    }
+
+    private static ByteBuffer repeat(String text, int times) {
+        return ByteBuffer.wrap(text.repeat(times).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la detecció d'escac, escac i mat i ofegat, i de la validació
+ * de moviments que deixarien el rei propi en escac.
+ */
+@DisplayName("Tests d'escac, escac i mat i ofegat")
+public class CheckTest {
+
+    private Board board;
+    private MoveGenerator generator;
+    private MoveValidator validator;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        board.clear();
+        generator = new MoveGenerator(board);
+        validator = new MoveValidator(board);
+    }
+
+    @Test
+    @DisplayName("Escac i mat amb reina protegida pel rei")
+    public void testCheckmate() {
+        board.setPiece(0, 0, 'k');
+        board.setPiece(1, 1, 'Q');
+        board.setPiece(2, 2, 'K');
+
+        assertTrue(generator.isInCheck(false), "El rei negre ha d'estar en escac");
+        assertTrue(generator.isCheckmate(false), "Ha de ser escac i mat");
+        assertFalse(generator.isStalemate(false), "No pot ser ofegat si hi ha escac");
+    }
+
+    @Test
+    @DisplayName("Ofegat: sense moviments legals i sense escac")
+    public void testStalemate() {
+        board.setPiece(0, 0, 'k');
+        board.setPiece(2, 1, 'Q');
+        board.setPiece(7, 7, 'K');
+
+        assertFalse(generator.isInCheck(false), "El rei negre no ha d'estar en escac");
+        assertTrue(generator.isStalemate(false), "Ha de ser ofegat");
+        assertFalse(generator.isCheckmate(false), "No pot ser escac i mat sense escac");
+    }
+
+    @Test
+    @DisplayName("Una peça clavada només es pot moure sobre la línia del rei")
+    public void testPinnedPiece() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(6, 4, 'T');
+        board.setPiece(0, 4, 't');
+        board.setPiece(0, 0, 'k');
+
+        assertEquals(MoveError.KING_IN_CHECK.code(), validator.checkMove(6, 4, 6, 0, true),
+                "La torre clavada no pot sortir de la columna");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(6, 4, 3, 4, true),
+                "La torre clavada pot avançar per la columna");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(6, 4, 0, 4, true),
+                "La torre clavada pot capturar la peça que la clava");
+    }
+
+    @Test
+    @DisplayName("En escac només són legals els moviments que el resolen")
+    public void testMovesMustResolveCheck() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(7, 0, 'T');
+        board.setPiece(0, 4, 't');
+        board.setPiece(0, 0, 'k');
+
+        assertTrue(generator.isInCheck(true), "El rei blanc ha d'estar en escac");
+        assertEquals(MoveError.KING_IN_CHECK.code(), validator.checkMove(7, 0, 6, 0, true),
+                "Un moviment que no tapa l'escac no és vàlid");
+        assertEquals(MoveError.KING_IN_CHECK.code(), validator.checkMove(7, 4, 6, 4, true),
+                "El rei no es pot quedar a la columna atacada");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(7, 4, 6, 3, true),
+                "El rei pot sortir de la columna atacada");
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        assertEquals(4, generator.generateLegalMoves(moves, true),
+                "Només hi ha quatre moviments de rei legals");
+    }
+
+    @Test
+    @DisplayName("No es pot capturar el rei")
+    public void testKingCapture() {
+        board.setPiece(7, 7, 'K');
+        board.setPiece(7, 0, 'T');
+        board.setPiece(0, 0, 'k');
+
+        assertEquals(MoveError.KING_CAPTURE.code(), validator.checkMove(7, 0, 0, 0, true),
+                "Capturar el rei ha de ser rebutjat");
+    }
+}
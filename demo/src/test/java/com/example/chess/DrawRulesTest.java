@@ -0,0 +1,121 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de les taules per triple repetició i per la regla de les 50 jugades.
+ */
+@DisplayName("Tests de repeticions i de la regla de les 50 jugades")
+public class DrawRulesTest {
+
+    private Board board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+    }
+
+    private static void play(Board target, String... sanMoves) {
+        SanParser parser = new SanParser(target);
+        for (String san : sanMoves) {
+            int move = parser.parse(san);
+            assertNotEquals(Move.NONE, move, "Jugada " + san);
+            target.makeMove(move);
+        }
+    }
+
+    @Test
+    @DisplayName("Anar i tornar amb els cavalls repeteix la posició inicial fins a tres vegades")
+    public void testThreefoldRepetition() {
+        play(board, "Nf3", "Nf6", "Ng1");
+        assertFalse(board.isRepetition(), "Encara no s'ha repetit");
+        play(board, "Ng8");
+        assertTrue(board.isRepetition(), "Posició inicial per segona vegada");
+        assertFalse(board.isThreefoldRepetition(), "Només dues vegades");
+        assertEquals(1, board.repetitionCount(3), "Una aparició anterior");
+
+        play(board, "Nf3", "Nf6", "Ng1", "Ng8");
+        assertTrue(board.isThreefoldRepetition(), "Posició inicial per tercera vegada");
+        assertEquals(2, board.repetitionCount(3), "Dues aparicions anteriors");
+        assertEquals(1, board.repetitionCount(1), "El límit atura el recompte");
+
+        board.unmakeMove();
+        assertFalse(board.isThreefoldRepetition(), "Desfer la jugada treu la repetició");
+    }
+
+    @Test
+    @DisplayName("Una jugada de peó talla les repeticions anteriors")
+    public void testIrreversibleMove() {
+        play(board, "Nf3", "Nf6", "Ng1", "Ng8", "e3", "e6");
+        assertEquals(0, board.getHalfmoveClock(), "El peó reinicia el rellotge");
+        play(board, "Nf3", "Nf6", "Ng1", "Ng8");
+        assertEquals(1, board.repetitionCount(3), "Només compta la repetició després del peó");
+    }
+
+    @Test
+    @DisplayName("El rellotge de mitges jugades arriba a 100 i fa taules")
+    public void testFiftyMoveRule() {
+        board.loadFen("8/8/4k3/8/8/4K3/8/7R w - - 99 80");
+        assertFalse(board.isFiftyMoveDraw(), "Falta una mitja jugada");
+        play(board, "Rh2");
+        assertTrue(board.isFiftyMoveDraw(), "Cent mitges jugades sense captures ni peons");
+        board.unmakeMove();
+        assertFalse(board.isFiftyMoveDraw(), "Desfer restaura el rellotge");
+    }
+
+    @Test
+    @DisplayName("Un mat a la jugada que arriba a les cent mitges jugades guanya igualment")
+    public void testMateBeatsFiftyMoveRule() {
+        board.loadFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+        SearchEngine engine = new SearchEngine(board, new TranspositionTable(1));
+
+        int move = engine.search(3, 0);
+
+        assertEquals("a1a8", Move.toString(move), "Ta8 és mat");
+        assertEquals(SearchEngine.MATE_SCORE - 1, engine.getBestScore(), "El mat no es puntua com a taules");
+    }
+
+    @Test
+    @DisplayName("La còpia del tauler conserva les posicions que poden repetir-se")
+    public void testCopyKeepsHistory() {
+        play(board, "Nf3", "Nf6", "Ng1", "Ng8", "Nf3", "Nf6");
+        Board copy = new Board(board);
+        assertEquals(0, copy.getUndoCount(), "La pila de desfer de la còpia és buida");
+        assertTrue(copy.isRepetition(), "La repetició es detecta a la còpia");
+        play(copy, "Ng1", "Ng8");
+        assertTrue(copy.isThreefoldRepetition(), "La tercera repetició travessa la còpia");
+        copy.loadFen(board.toFen());
+        assertFalse(copy.isRepetition(), "Carregar un FEN esborra l'historial");
+    }
+
+    @Test
+    @DisplayName("La cerca tria la repetició quan està perdent")
+    public void testSearchScoresRepetitionAsDraw() {
+        board.loadFen("k7/8/8/7q/8/8/8/K7 w - - 0 1");
+        play(board, "Kb1", "Kb8", "Ka1", "Ka8");
+        SearchEngine engine = new SearchEngine(board, new TranspositionTable(1));
+
+        int move = engine.search(4, 0);
+
+        assertEquals("a1b1", Move.toString(move), "Repetir la posició");
+        assertEquals(0, engine.getBestScore(), "La repetició val taules");
+    }
+
+    @Test
+    @DisplayName("Les sessions del servidor acaben en taules per repetició")
+    public void testSessionRepetition() {
+        GameSession session = new GameSession(1);
+        int[][] moves = {{7, 6, 5, 5}, {0, 6, 2, 5}, {5, 5, 7, 6}, {2, 5, 0, 6}};
+        for (int round = 0; round < 2; round++) {
+            for (int[] move : moves) {
+                assertEquals(MoveError.VALID.code(), session.play(move[0], move[1], move[2], move[3]), "Jugada vàlida");
+            }
+        }
+        assertEquals(GameSession.Status.REPETITION, session.getStatus(), "Triple repetició");
+        assertTrue(session.getStatus().isGameOver(), "La partida ha acabat");
+        assertEquals(MoveError.GAME_OVER.code(), session.play(7, 6, 5, 5), "No es pot continuar");
+    }
+}
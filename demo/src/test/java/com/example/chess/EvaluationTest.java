@@ -0,0 +1,117 @@
+package com.example.chess;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de l'avaluació amb taules de posició.
+ * Comprova que les sumes incrementals del tauler coincideixen sempre amb el càlcul des de zero.
+ */
+@DisplayName("Tests de l'avaluació")
+public class EvaluationTest {
+
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 120;
+
+    private Board board;
+    private MoveGenerator generator;
+    private int[] moves;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        generator = new MoveGenerator(board);
+        moves = new int[MoveGenerator.MAX_MOVES];
+    }
+
+    @Test
+    @DisplayName("La posició inicial val 0 i és de mig joc")
+    public void testInitialPosition() {
+        assertEquals(0, Evaluation.evaluate(board), "La posició inicial és simètrica");
+        assertEquals(Evaluation.MAX_PHASE, board.getGamePhase(), "Amb totes les peces la fase és màxima");
+        assertTrue(Evaluation.matchesFullComputation(board), "Sumes de la posició inicial");
+    }
+
+    @Test
+    @DisplayName("L'avaluació incremental coincideix amb la recalculada després de seqüències aleatòries")
+    public void testIncrementalMatchesRecomputation() {
+        Random random = new Random(20260221L);
+
+        for (int game = 0; game < GAMES; game++) {
+            board.initializeBoard();
+            int[] scores = new int[MAX_PLIES + 1];
+            scores[0] = Evaluation.evaluate(board);
+
+            int plies = 0;
+            while (plies < MAX_PLIES) {
+                int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+                plies++;
+                assertTrue(Evaluation.matchesFullComputation(board),
+                        "Sumes després de " + plies + " mitges jugades (partida " + game + ")");
+                scores[plies] = Evaluation.evaluate(board);
+                assertEquals(Evaluation.evaluateFromScratch(board), scores[plies], "Puntuació després de " + plies);
+            }
+
+            while (plies > 0) {
+                board.unmakeMove();
+                plies--;
+                assertEquals(scores[plies], Evaluation.evaluate(board), "Puntuació després de desfer fins a " + plies);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Carregar un FEN, setPiece i movePiece mantenen les sumes")
+    public void testFenAndEditing() {
+        board.loadFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertTrue(Evaluation.matchesFullComputation(board), "Sumes després de carregar el FEN");
+
+        board.setPiece(4, 4, 'C');
+        board.movePiece(4, 4, 2, 5);
+        board.setPiece(0, 0, '.');
+        assertTrue(Evaluation.matchesFullComputation(board), "Sumes després d'editar el tauler");
+
+        Board copy = new Board(board);
+        assertEquals(Evaluation.evaluate(board), Evaluation.evaluate(copy), "La còpia té la mateixa puntuació");
+    }
+
+    @Test
+    @DisplayName("La puntuació és simètrica entre colors")
+    public void testColorSymmetry() {
+        board.loadFen("4k3/8/8/8/3N4/8/PP6/4K3 w - - 0 1");
+        int white = Evaluation.evaluate(board);
+        board.loadFen("4k3/pp6/8/3n4/8/8/8/4K3 b - - 0 1");
+
+        assertEquals(white, Evaluation.evaluate(board), "La posició reflectida val el mateix per a qui mou");
+        assertTrue(white > 0, "Tenir un cavall i dos peons de més és favorable");
+    }
+
+    @Test
+    @DisplayName("Al final el rei centralitzat val més que al racó")
+    public void testTaperedKing() {
+        board.loadFen("4k3/8/8/8/4K3/8/8/8 w - - 0 1");
+        int centralized = Evaluation.evaluate(board);
+        assertEquals(0, board.getGamePhase(), "Només amb reis és un final");
+        board.loadFen("4k3/8/8/8/8/8/8/7K w - - 0 1");
+
+        assertTrue(centralized > Evaluation.evaluate(board), "El rei al centre és millor al final");
+    }
+
+    @Test
+    @DisplayName("Els peons avançats valen més")
+    public void testPawnAdvancement() {
+        board.loadFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        int start = Evaluation.evaluate(board);
+        board.loadFen("4k3/4P3/8/8/8/8/8/4K3 w - - 0 1");
+
+        assertTrue(Evaluation.evaluate(board) > start, "El peó a la setena val més que a la segona");
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.chess;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la lectura i escriptura de posicions en notació FEN.
+ */
+@DisplayName("Tests de FEN")
+public class FenTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private Board board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+    }
+
+    @Test
+    @DisplayName("La posició inicial es converteix al FEN estàndard")
+    public void testStartPositionToFen() {
+        assertEquals(Board.START_FEN, board.toFen(), "FEN de la posició inicial");
+    }
+
+    @Test
+    @DisplayName("Carregar el FEN inicial equival a initializeBoard")
+    public void testLoadStartPosition() {
+        Board reference = new Board();
+        board.clear();
+        board.loadFen(Board.START_FEN);
+
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                assertEquals(reference.getPiece(row, col), board.getPiece(row, col),
+                        "La casella (" + row + ", " + col + ") ha de coincidir");
+            }
+        }
+        assertEquals(reference.hash(), board.hash(), "El hash ha de coincidir");
+        assertEquals(Board.ALL_CASTLING, board.getCastlingRights(), "Tots els drets d'enroc");
+    }
+
+    @Test
+    @DisplayName("Les lletres estàndard es converteixen a les del projecte")
+    public void testPieceLetters() {
+        board.loadFen(KIWIPETE);
+
+        assertEquals('T', board.getPiece(7, 0), "R → T");
+        assertEquals('A', board.getPiece(6, 3), "B → A");
+        assertEquals('C', board.getPiece(3, 4), "N → C");
+        assertEquals('q', board.getPiece(1, 4), "q → q");
+        assertEquals('c', board.getPiece(2, 1), "n → c");
+        assertEquals(board.computeHash(), board.hash(), "El hash incremental ha de coincidir");
+    }
+
+    @Test
+    @DisplayName("Anada i tornada amb torn, drets d'enroc, al pas i comptadors")
+    public void testRoundTrip() {
+        String[] positions = {
+            KIWIPETE,
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+        };
+        for (String fen : positions) {
+            board.loadFen(fen);
+            assertEquals(fen, board.toFen(), "El FEN s'ha de conservar");
+        }
+    }
+
+    @Test
+    @DisplayName("La casella al pas i el torn es llegeixen correctament")
+    public void testSideAndEnPassant() {
+        board.loadFen("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2");
+
+        assertTrue(board.isWhiteToMove(), "Mouen les blanques");
+        assertEquals(Bitboards.square(2, 2), board.getEnPassantSquare(), "c6 és la fila 2, columna 2");
+        assertEquals(2, board.getFullmoveNumber(), "Número de jugada");
+    }
+
+    @Test
+    @DisplayName("Els comptadors finals són opcionals")
+    public void testOptionalCounters() {
+        board.loadFen("8/8/8/8/8/8/8/K6k b - -");
+
+        assertFalse(board.isWhiteToMove(), "Mouen les negres");
+        assertEquals(0, board.getHalfmoveClock(), "Rellotge per defecte");
+        assertEquals(1, board.getFullmoveNumber(), "Número de jugada per defecte");
+    }
+
+    @Test
+    @DisplayName("Es poden llegir diverses posicions seguides d'un ByteBuffer")
+    public void testLoadFromByteBuffer() {
+        String lines = Board.START_FEN + "\n" + KIWIPETE + "\r\n";
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.US_ASCII));
+
+        board.loadFen(buffer);
+        assertEquals(Board.START_FEN, board.toFen(), "Primera línia");
+        board.loadFen(buffer);
+        assertEquals(KIWIPETE, board.toFen(), "Segona línia (amb \\r\\n)");
+        assertFalse(buffer.hasRemaining(), "El buffer s'ha de consumir sencer");
+    }
+
+    @Test
+    @DisplayName("Els FEN incorrectes es rebutgen")
+    public void testInvalidFen() {
+        assertThrows(IllegalArgumentException.class,
+                () -> board.loadFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"), "Falta una fila");
+        assertThrows(IllegalArgumentException.class,
+                () -> board.loadFen("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"), "Fila massa llarga");
+        assertThrows(IllegalArgumentException.class,
+                () -> board.loadFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBXKBNR w KQkq - 0 1"), "Peça desconeguda");
+        assertThrows(IllegalArgumentException.class,
+                () -> board.loadFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"), "Color incorrecte");
+        assertThrows(IllegalArgumentException.class,
+                () -> board.loadFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq z9 0 1"), "Casella al pas");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del diari de partides i de la recuperació després d'una aturada.
+ */
+@DisplayName("Tests del diari de partides")
+public class GameJournalTest {
+
+    private static final List<String> MOVES = List.of("e7 e5", "e2 e4", "g8 f6", "b1 c3");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Una partida sense final es recupera en tornar a obrir el diari")
+    public void testRecoverUnfinishedGame() throws IOException {
+        Path file = tempDir.resolve("partides.journal");
+        try (GameJournal journal = GameJournal.open(file, GameJournal.SyncPolicy.NONE, 0)) {
+            assertNull(journal.getUnfinishedGame(), "Un diari nou no té partides");
+            journal.startGame("Anna", "Ordinador", true, false);
+            recordMoves(journal);
+        }
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            GameJournal.UnfinishedGame game = journal.getUnfinishedGame();
+            assertNotNull(game, "La partida no té registre de final");
+            assertEquals("Anna", game.getPlayerWhite(), "Jugador de blanques");
+            assertEquals("Ordinador", game.getPlayerBlack(), "Jugador de negres");
+            assertTrue(game.isVsComputer(), "Es jugava contra l'ordinador");
+            assertFalse(game.isComputerWhite(), "L'ordinador portava les negres");
+            assertEquals(MOVES, game.getMoves().toNotationList(), "Totes les jugades registrades");
+        }
+    }
+
+    @Test
+    @DisplayName("Una partida acabada no es recupera")
+    public void testFinishedGame() throws IOException {
+        Path file = tempDir.resolve("partides.journal");
+        try (GameJournal journal = GameJournal.open(file, GameJournal.SyncPolicy.ALWAYS, 0)) {
+            journal.startGame("Anna", "Biel", false, false);
+            recordMoves(journal);
+            journal.endGame();
+            journal.flush();
+            assertTrue(journal.getBatches() >= 1, "S'ha escrit com a mínim un lot");
+        }
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertNull(journal.getUnfinishedGame(), "La partida ja s'havia acabat");
+        }
+    }
+
+    @Test
+    @DisplayName("Una escriptura tallada al final es descarta sense perdre els registres anteriors")
+    public void testTornWrite() throws IOException {
+        Path file = tempDir.resolve("partides.journal");
+        try (GameJournal journal = GameJournal.open(file, GameJournal.SyncPolicy.NONE, 0)) {
+            journal.startGame("Anna", "Biel", false, false);
+            recordMoves(journal);
+        }
+        long validSize = Files.size(file);
+
+        // Simular una aturada a mig escriure l'últim registre
+        Files.write(file, new byte[] {2, 0, 2, 0x12}, StandardOpenOption.APPEND);
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(validSize, Files.size(file), "El fitxer es trunca a l'últim registre vàlid");
+            assertEquals(MOVES.size(), journal.getUnfinishedGame().getMoves().size(), "Les jugades vàlides es conserven");
+            journal.endGame();
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertNull(journal.getUnfinishedGame(), "Després de truncar es pot continuar escrivint");
+        }
+    }
+
+    @Test
+    @DisplayName("En obrir el diari es descarten les partides acabades i només queda la que no ho està")
+    public void testFinishedGamesDiscarded() throws IOException {
+        Path expected = tempDir.resolve("nomes-inacabada.journal");
+        try (GameJournal journal = GameJournal.open(expected, GameJournal.SyncPolicy.NONE, 0)) {
+            journal.startGame("Carla", "Dani", false, false);
+            recordMoves(journal);
+        }
+        Path file = tempDir.resolve("partides.journal");
+        try (GameJournal journal = GameJournal.open(file, GameJournal.SyncPolicy.NONE, 0)) {
+            for (int game = 0; game < 3; game++) {
+                journal.startGame("Anna", "Biel", false, false);
+                recordMoves(journal);
+                journal.endGame();
+            }
+            journal.startGame("Carla", "Dani", false, false);
+            recordMoves(journal);
+        }
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(Files.size(expected), Files.size(file), "Només la capçalera i la partida sense acabar");
+            assertEquals("Carla", journal.getUnfinishedGame().getPlayerWhite(), "La partida sense acabar");
+            assertEquals(MOVES, journal.getUnfinishedGame().getMoves().toNotationList(), "Amb totes les jugades");
+            journal.endGame();
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertNull(journal.getUnfinishedGame(), "Ja no queden partides");
+            assertTrue(Files.size(file) < Files.size(expected), "Sense partides només queda la capçalera");
+        }
+        assertFalse(Files.exists(tempDir.resolve("partides.journal.tmp")), "No queda el fitxer temporal");
+    }
+
+    @Test
+    @DisplayName("Un diari més gran que el buffer de lectura es recupera sencer")
+    public void testLargeJournal() throws IOException {
+        Path file = tempDir.resolve("partides.journal");
+        int move = Move.encode(52, 36, Piece.index('P'), Piece.NO_PIECE, Piece.NO_PIECE, 0);
+        try (GameJournal journal = GameJournal.open(file, GameJournal.SyncPolicy.NONE, 0)) {
+            journal.startGame("Anna", "Biel", false, false);
+            for (int i = 0; i < 50_000; i++) {
+                journal.recordMove(move);
+            }
+        }
+        assertTrue(Files.size(file) > 3 * 65536, "El fitxer ocupa diversos buffers");
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(50_000, journal.getUnfinishedGame().getMoves().size(), "Totes les jugades");
+        }
+    }
+
+    @Test
+    @DisplayName("Si el fil d'escriptura falla, els registres següents donen error en lloc d'acumular-se")
+    public void testWriterFailure() throws Exception {
+        GameJournal journal = GameJournal.open(tempDir.resolve("partides.journal"), GameJournal.SyncPolicy.NONE, 0);
+        // Tancar el canal per sota fa fallar la propera escriptura del fil d'escriptura
+        Field channel = GameJournal.class.getDeclaredField("channel");
+        channel.setAccessible(true);
+        ((FileChannel) channel.get(journal)).close();
+
+        journal.startGame("Anna", "Biel", false, false);
+        assertThrows(IOException.class, journal::flush, "L'escriptura ha fallat");
+        assertThrows(UncheckedIOException.class, () -> recordMoves(journal), "No s'accepten més jugades");
+        assertThrows(UncheckedIOException.class, journal::endGame, "Ni el final de la partida");
+        assertThrows(IOException.class, journal::close, "close també informa de l'error");
+    }
+
+    @Test
+    @DisplayName("Un fitxer que no és un diari es rebutja")
+    public void testInvalidFile() throws IOException {
+        Path file = tempDir.resolve("altre.txt");
+        Files.writeString(file, "no és un diari");
+
+        assertThrows(IOException.class, () -> GameJournal.open(file), "Capçalera desconeguda");
+        assertEquals("no és un diari", Files.readString(file), "El fitxer no s'ha de modificar");
+    }
+
+    private static void recordMoves(GameJournal journal) {
+        Board board = new Board();
+        MoveGenerator generator = new MoveGenerator(board);
+        for (String notation : MOVES) {
+            int move = GameRecord.toMove(GameRecord.fromNotation(notation), board, generator);
+            board.makeMove(move);
+            journal.recordMove(move);
+        }
+    }
+}
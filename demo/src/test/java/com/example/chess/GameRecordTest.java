@@ -0,0 +1,120 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de l'historial compacte de partides i del seu format binari.
+ */
+@DisplayName("Tests de l'historial compacte")
+public class GameRecordTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Una jugada es comprimeix en 16 bits sense perdre informació")
+    public void testPackMove() {
+        int move = Move.encode(Bitboards.square(1, 4), Bitboards.square(0, 4), Piece.index('p'),
+                Piece.NO_PIECE, Piece.index('c'));
+        short packed = GameRecord.pack(move);
+
+        assertEquals(Bitboards.square(1, 4), GameRecord.from(packed), "Casella origen");
+        assertEquals(Bitboards.square(0, 4), GameRecord.to(packed), "Casella destí");
+        assertEquals(Piece.KNIGHT_INDEX, GameRecord.promotionType(packed), "Promoció a cavall");
+        assertEquals("e2 e1=C", GameRecord.toNotation(packed), "Notació de la consola amb promoció");
+        assertEquals(packed, GameRecord.fromNotation("e2 e1=C"), "La notació es torna a convertir igual");
+    }
+
+    @Test
+    @DisplayName("Conversió d'anada i tornada amb la notació de la consola")
+    public void testNotationRoundTrip() {
+        List<String> notation = List.of("e7 e5", "e2 e4", "g8 f6", "b1 c3", "f8 c5", "f1 c4", "e8 g8");
+        GameRecord record = GameRecord.fromNotationList(notation);
+
+        assertEquals(notation.size(), record.size(), "Una entrada per mitja jugada");
+        assertEquals(notation, record.toNotationList(), "Les jugades s'han de conservar");
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.fromNotation("e2"), "Falta el destí");
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.fromNotation("e2 e9"), "Fila fora del tauler");
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.fromNotation("e2 e1=K"), "No es promociona a rei");
+        for (String text : new String[] {" E2 \t e4 ", "e2 e1=n", "e2 e1=C", "e2-e4"}) {
+            int console = UIConsole.parseCoordinates(text, 0, text.length());
+            if (console == UIConsole.NO_MOVE) {
+                assertThrows(IllegalArgumentException.class, () -> GameRecord.fromNotation(text), "'" + text + "'");
+            } else {
+                assertEquals((short) console, GameRecord.fromNotation(text), "Igual que la consola: '" + text + "'");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Reproduir l'historial dona la mateixa posició, amb enroc inclòs")
+    public void testReplay() {
+        Board board = new Board();
+        MoveGenerator generator = new MoveGenerator(board);
+        GameRecord record = new GameRecord();
+        String[] moves = {"e7 e5", "e2 e4", "g8 f6", "b1 c3", "f8 c5", "f1 c4", "e8 g8"};
+        for (String notation : moves) {
+            int move = GameRecord.toMove(GameRecord.fromNotation(notation), board, generator);
+            board.makeMove(move);
+            record.add(move);
+        }
+
+        Board replayed = new Board();
+        record.replay(replayed);
+        assertEquals(board.toFen(), replayed.toFen(), "La posició reproduïda ha de coincidir");
+        assertEquals('T', replayed.getPiece(7, 5), "La torre s'ha mogut amb l'enroc");
+    }
+
+    @Test
+    @DisplayName("L'historial creix més enllà de la capacitat inicial")
+    public void testGrowth() {
+        GameRecord record = new GameRecord();
+        int move = Move.encode(Bitboards.square(7, 6), Bitboards.square(5, 5), Piece.index('C'),
+                Piece.NO_PIECE, Piece.NO_PIECE);
+        for (int i = 0; i < 1000; i++) {
+            record.add(move);
+        }
+        assertEquals(1000, record.size(), "Totes les jugades s'han de guardar");
+        assertEquals("g8 f6", record.toNotation(999), "L'última jugada");
+        record.removeLast();
+        assertEquals(999, record.size(), "Se n'ha tret una");
+    }
+
+    @Test
+    @DisplayName("Desar i carregar en format binari")
+    public void testSaveAndLoad() throws IOException {
+        GameRecord record = GameRecord.fromNotationList(List.of("e7 e5", "e2 e4", "d8 h4", "a2 a1=T"));
+        Path file = tempDir.resolve("partida.escp");
+        record.save(file);
+
+        GameRecord loaded = GameRecord.load(file);
+        assertEquals(record.toNotationList(), loaded.toNotationList(), "Mateixes jugades");
+        assertEquals(9 + 4 * 2, record.binarySize(), "Capçalera de 9 bytes i 2 bytes per jugada");
+    }
+
+    @Test
+    @DisplayName("Les dades binàries incorrectes es rebutgen")
+    public void testInvalidBinary() {
+        ByteBuffer truncated = ByteBuffer.allocate(64);
+        GameRecord.fromNotationList(List.of("e7 e5", "e2 e4")).writeTo(truncated);
+        truncated.flip().limit(truncated.limit() - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.readFrom(truncated), "Falta una jugada");
+        assertThrows(IllegalArgumentException.class,
+                () -> GameRecord.readFrom(ByteBuffer.wrap("PGN no binari".getBytes())), "Capçalera desconeguda");
+
+        // Un nombre de jugades que, multiplicat per 2 bytes, desborda un int
+        ByteBuffer huge = ByteBuffer.allocate(64);
+        GameRecord.fromNotationList(List.of("e7 e5", "e2 e4")).writeTo(huge);
+        huge.flip().putInt(5, 0x4000_0001);
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.readFrom(huge), "Capçalera amb massa jugades");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de les partides sense consola i del servidor de partides.
+ */
+@DisplayName("Tests del servidor de partides")
+public class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = GameServer.start(0);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Una sessió valida les jugades i detecta l'escac i mat")
+    public void testSessionCheckmate() {
+        GameSession session = new GameSession(1);
+        // Mat del boig: f7 f6, e2 e4, g7 g5, d1 h5
+        assertEquals(MoveError.VALID.code(), session.play(6, 5, 5, 5), "f7 f6");
+        assertEquals(MoveError.VALID.code(), session.play(1, 4, 3, 4), "e2 e4");
+        assertEquals(MoveError.INVALID_PAWN_MOVE.code(), session.play(6, 6, 3, 6), "El peó no avança tres caselles");
+        assertEquals(MoveError.VALID.code(), session.play(6, 6, 4, 6), "g7 g5");
+        assertEquals(MoveError.VALID.code(), session.play(0, 3, 4, 7), "d1 h5");
+
+        assertEquals(GameSession.Status.CHECKMATE, session.getStatus(), "Les blanques estan mat");
+        assertEquals(MoveError.GAME_OVER.code(), session.play(7, 4, 6, 5), "No es pot jugar després del mat");
+        assertEquals(4, session.getPlies(), "Només compten les jugades vàlides");
+    }
+
+    @Test
+    @DisplayName("Protocol de línies: partida nova, jugades, errors i tancament")
+    public void testProtocol() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8), true)) {
+            out.println("MOVE e7 e5");
+            assertTrue(in.readLine().startsWith("ERR PROTOCOL"), "Cal començar amb NEW");
+
+            out.println("NEW");
+            String created = in.readLine();
+            assertTrue(created.startsWith("OK "), "Partida creada");
+            out.println("MOVE e7 e5");
+            assertEquals("OK PLAYING", in.readLine(), "Jugada vàlida");
+            out.println("MOVE e5 e4");
+            assertTrue(in.readLine().startsWith("ERR WRONG_COLOR"), "Ara toca a les negres");
+            out.println("MOVE e2e4");
+            String error = in.readLine();
+            assertTrue(error.startsWith("ERR PROTOCOL"), "Format incorrecte");
+            assertTrue(error.contains("'e7 e5'") && error.contains("reina"),
+                    "L'exemple fa servir les files de la consola i s'explica la promoció: " + error);
+            out.println("HISTORY");
+            assertEquals("OK e7 e5", in.readLine(), "Historial");
+            out.println("BOARD");
+            assertEquals("OK rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", in.readLine(),
+                    "Posició en FEN");
+            out.println("NEW");
+            assertEquals(created, in.readLine(), "NEW torna a començar la mateixa partida");
+            out.println("HISTORY");
+            assertEquals("OK ", in.readLine(), "Historial buit");
+            out.println("QUIT");
+            assertEquals("BYE", in.readLine(), "Tancament");
+        }
+    }
+
+    @Test
+    @DisplayName("El generador de càrrega juga moltes partides alhora")
+    public void testLoadGenerator() throws IOException, InterruptedException {
+        LoadGenerator.Report report = new LoadGenerator("localhost", server.getPort()).run(200, 20);
+
+        assertEquals(200 * 20, report.getMoves(), "Totes les jugades s'han acceptat");
+        assertEquals(0, report.getErrors(), "Cap jugada rebutjada");
+        assertTrue(report.percentileNanos(0.5) <= report.percentileNanos(0.99), "p50 ≤ p99");
+        assertEquals(200 * 20, server.getMovesPlayed(), "El servidor les ha aplicat totes");
+    }
+}
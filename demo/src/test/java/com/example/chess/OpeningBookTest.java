@@ -0,0 +1,154 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del llibre d'obertures i del seu constructor a partir de PGN.
+ */
+@DisplayName("Tests del llibre d'obertures")
+public class OpeningBookTest {
+
+    private static final String GAMES =
+            "[Event \"1\"]\n\n1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0\n\n"
+            + "[Event \"2\"]\n\n1. e4 e5 2. Nf3 Nf6 0-1\n\n"
+            + "[Event \"3\"]\n\n1. e4 c5 2. Nf3 d6 1/2-1/2\n\n"
+            + "[Event \"4\"]\n\n1. d4 d5 2. c4 e6 *\n\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Board board;
+    private MoveGenerator generator;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        generator = new MoveGenerator(board);
+    }
+
+    private Path buildBook(int plies) throws IOException {
+        Path pgn = tempDir.resolve("partides.pgn");
+        Files.writeString(pgn, GAMES, StandardCharsets.UTF_8);
+        OpeningBook.Builder builder = new OpeningBook.Builder(plies);
+        builder.readPgn(pgn);
+        assertEquals(4, builder.getGames(), "Partides llegides");
+        Path book = tempDir.resolve("obertures.book");
+        builder.write(book);
+        return book;
+    }
+
+    private void play(String... uciMoves) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (String uciMove : uciMoves) {
+            int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+            int found = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Move.toString(moves[i]).equals(uciMove)) {
+                    found = moves[i];
+                }
+            }
+            assertNotEquals(Move.NONE, found, "Jugada " + uciMove);
+            board.makeMove(found);
+        }
+    }
+
+    @Test
+    @DisplayName("Les jugades del llibre tenen com a pes el nombre de partides")
+    public void testWeights() throws IOException {
+        try (OpeningBook book = OpeningBook.open(buildBook(OpeningBook.DEFAULT_MAX_PLIES))) {
+            short[] moves = new short[8];
+            int[] weights = new int[8];
+            int count = book.findMoves(board.hash(), moves, weights);
+            assertEquals(2, count, "Dues jugades a la posició inicial");
+            int e4Weight = 0;
+            for (int i = 0; i < count; i++) {
+                if (GameRecord.toNotation(moves[i]).equals("e7 e5")) {
+                    e4Weight = weights[i];
+                }
+            }
+            assertEquals(3, e4Weight, "1. e4 s'ha jugat a tres partides");
+            assertEquals("e2e4", Move.toString(book.selectMove(board, generator, null)), "La més jugada");
+
+            play("e2e4", "e7e5", "g1f3");
+            assertEquals(2, book.findMoves(board.hash(), moves, weights), "Després de 2. Nf3 hi ha Nc6 i Nf6");
+
+            play("b8c6", "f1b5", "a7a6");
+            assertEquals(Move.NONE, book.selectMove(board, generator, null), "La partida 1 acaba aquí");
+        }
+    }
+
+    @Test
+    @DisplayName("Només entren les primeres mitges jugades de cada partida")
+    public void testMaxPlies() throws IOException {
+        try (OpeningBook book = OpeningBook.open(buildBook(2))) {
+            assertEquals(5, book.size(), "e4 i d4; e5 i c5 després d'e4; d5 després de d4");
+            play("e2e4");
+            assertNotEquals(Move.NONE, book.selectMove(board, generator, null), "La segona mitja jugada hi és");
+            play("e7e5");
+            assertEquals(Move.NONE, book.selectMove(board, generator, null), "La tercera ja no hi és");
+        }
+    }
+
+    @Test
+    @DisplayName("L'elecció aleatòria segueix els pesos")
+    public void testWeightedSelection() throws IOException {
+        try (OpeningBook book = OpeningBook.open(buildBook(OpeningBook.DEFAULT_MAX_PLIES))) {
+            Random random = new Random(7);
+            int e4 = 0;
+            for (int i = 0; i < 4000; i++) {
+                if (Move.toString(book.selectMove(board, generator, random)).equals("e2e4")) {
+                    e4++;
+                }
+            }
+            assertTrue(e4 > 2700 && e4 < 3300, "1. e4 surt unes tres de cada quatre vegades (" + e4 + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("El constructor fusiona les ocurrències quan s'omple i el llibre queda ordenat")
+    public void testLargeBook() throws IOException {
+        OpeningBook.Builder builder = new OpeningBook.Builder(1);
+        Random random = new Random(11);
+        long[] hashes = new long[50_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+        }
+        // Tres ocurrències de cada posició (150.000, més que la capacitat inicial)
+        int move = Move.encode(52, 36, Piece.index('P'), Piece.NO_PIECE, Piece.NO_PIECE, 0);
+        for (int round = 0; round < 3; round++) {
+            for (long hash : hashes) {
+                builder.addMove(hash, move);
+            }
+        }
+        Path path = tempDir.resolve("gran.book");
+        assertEquals(hashes.length, builder.write(path), "Una entrada per posició");
+
+        try (OpeningBook book = OpeningBook.open(path)) {
+            short[] moves = new short[4];
+            int[] weights = new int[4];
+            for (long hash : hashes) {
+                assertEquals(1, book.findMoves(hash, moves, weights), "Posició trobada");
+                assertEquals(3, weights[0], "Pes acumulat");
+            }
+            assertEquals(0, book.findMoves(12345L, moves, weights), "Posició que no hi és");
+        }
+    }
+
+    @Test
+    @DisplayName("Un fitxer que no és un llibre es rebutja")
+    public void testInvalidFile() throws IOException {
+        Path path = tempDir.resolve("dolent.book");
+        Files.writeString(path, "no és un llibre d'obertures", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(path), "Capçalera desconeguda");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de regressió del generador de moviments amb perft.
+ * Compara el nombre de nodes amb els valors de referència publicats
+ * per a la posició inicial i per a posicions amb enrocs, captures al pas i promocions.
+ */
+@DisplayName("Tests de perft del generador de moviments")
+public class PerftTest {
+
+    private Board board;
+    private Perft perft;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        perft = new Perft(board);
+    }
+
+    @Test
+    @DisplayName("Posició inicial: profunditats 1 a 3")
+    public void testStartPositionShallow() {
+        assertEquals(20, perft.perft(1), "perft(1) des de la posició inicial");
+        assertEquals(400, perft.perft(2), "perft(2) des de la posició inicial");
+        assertEquals(8902, perft.perft(3), "perft(3) des de la posició inicial");
+    }
+
+    @Test
+    @DisplayName("Posició inicial: profunditat 4")
+    public void testStartPositionDepth4() {
+        assertEquals(197281, perft.perft(4), "perft(4) des de la posició inicial");
+    }
+
+    @Test
+    @DisplayName("Posició inicial: profunditat 5")
+    public void testStartPositionDepth5() {
+        assertEquals(4865609, perft.perft(5), "perft(5) des de la posició inicial");
+    }
+
+    @Test
+    @DisplayName("Kiwipete: enrocs, clavades i captures al pas")
+    public void testKiwipete() {
+        board.loadFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(48, perft.perft(1), "perft(1) de Kiwipete");
+        assertEquals(2039, perft.perft(2), "perft(2) de Kiwipete");
+        assertEquals(97862, perft.perft(3), "perft(3) de Kiwipete");
+        assertEquals(4085603, perft.perft(4), "perft(4) de Kiwipete");
+    }
+
+    @Test
+    @DisplayName("Final de torres i peons: captures al pas que descobreixen escac")
+    public void testRookEndgame() {
+        board.loadFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        assertEquals(14, perft.perft(1), "perft(1) del final de torres");
+        assertEquals(191, perft.perft(2), "perft(2) del final de torres");
+        assertEquals(2812, perft.perft(3), "perft(3) del final de torres");
+        assertEquals(43238, perft.perft(4), "perft(4) del final de torres");
+        assertEquals(674624, perft.perft(5), "perft(5) del final de torres");
+    }
+
+    @Test
+    @DisplayName("Promocions i enrocs amb el rei en escac")
+    public void testPromotionsPosition() {
+        board.loadFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        assertEquals(6, perft.perft(1), "perft(1) de la posició de promocions");
+        assertEquals(264, perft.perft(2), "perft(2) de la posició de promocions");
+        assertEquals(9467, perft.perft(3), "perft(3) de la posició de promocions");
+        assertEquals(422333, perft.perft(4), "perft(4) de la posició de promocions");
+    }
+
+    @Test
+    @DisplayName("Promoció amb captura i enroc curt")
+    public void testPromotionCapturePosition() {
+        board.loadFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        assertEquals(44, perft.perft(1), "perft(1) de la posició de promoció amb captura");
+        assertEquals(1486, perft.perft(2), "perft(2) de la posició de promoció amb captura");
+        assertEquals(62379, perft.perft(3), "perft(3) de la posició de promoció amb captura");
+        assertEquals(2103487, perft.perft(4), "perft(4) de la posició de promoció amb captura");
+    }
+
+    @Test
+    @DisplayName("Perft no modifica el tauler")
+    public void testPerftRestoresBoard() {
+        perft.perft(3);
+
+        Board reference = new Board();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                assertEquals(reference.getPiece(row, col), board.getPiece(row, col),
+                        "La casella (" + row + ", " + col + ") ha de quedar igual");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.example.chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de l'intèrpret de jugades SAN i del lector de PGN en streaming.
+ */
+@DisplayName("Tests de SAN i PGN")
+public class PgnTest {
+
+    private static final String GAMES =
+            "[Event \"Paris\"]\n"
+            + "[White \"Morphy\"]\n"
+            + "[Black \"Duke Karl / Count Isouard\"]\n"
+            + "[Result \"1-0\"]\n"
+            + "\n"
+            + "1.e4 e5 2.Nf3 d6 3.d4 Bg4 {Aquesta jugada és feble} 4.dxe5 Bxf3 5.Qxf3 dxe5\n"
+            + "6.Bc4 Nf6 7.Qb3 Qe7 8.Nc3 c6 9.Bg5 b5 $6 10.Nxb5 cxb5 11.Bxb5+ Nbd7\n"
+            + "12.O-O-O Rd8 13.Rxd7 Rxd7 (13...Nxd7 14.Qb8+) 14.Rd1 Qe6 15.Bxd7+ Nxd7\n"
+            + "16.Qb8+ Nxb8 17.Rd8# 1-0\n"
+            + "\n"
+            + "[Event \"Al pas i promoció\"]\n"
+            + "\n"
+            + "1. e4 d5 2. e5 f5 3. exf6 e.p. e6 4. fxg7 Ke7 5. gxh8=Q ; comentari de línia\n"
+            + "*\n"
+            + "\n"
+            + "[Event \"Jugada il·legal\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Ke3 Nc6 3. Nf3 0-1\n"
+            + "\n"
+            + "[Event \"Des d'una posició\"]\n"
+            + "[FEN \"8/8/8/8/8/8/4P3/4K2k w - - 0 1\"]\n"
+            + "\n"
+            + "1. e4 Kg2 2. e5 1/2-1/2\n";
+
+    private Board board;
+    private SanParser parser;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        parser = new SanParser(board);
+    }
+
+    @Test
+    @DisplayName("Jugades SAN des de la posició inicial")
+    public void testParseSan() {
+        int move = parser.parse("Nf3");
+        assertEquals("g1f3", Move.toString(move), "Nf3 és el cavall de g1");
+        assertEquals("e2e4", Move.toString(parser.parse("e4")), "e4 és l'avanç doble del peó");
+        assertEquals(Move.NONE, parser.parse("e5"), "El peó no pot avançar tres caselles");
+        assertEquals(Move.NONE, parser.parse("O-O"), "No es pot enrocar amb peces pel mig");
+        assertEquals(Move.NONE, parser.parse("Zz9"), "Text sense sentit");
+    }
+
+    @Test
+    @DisplayName("Les jugades ambigües es rebutgen i la desambiguació les resol")
+    public void testDisambiguation() {
+        board.loadFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+
+        assertEquals(Move.NONE, parser.parse("Rd1"), "Les dues torres poden anar a d1");
+        assertEquals("h1d1", Move.toString(parser.parse("Rhd1")), "Rhd1 és la torre de h1");
+        assertEquals("a1d1", Move.toString(parser.parse("Rad1+")), "Rad1 amb sufix d'escac");
+    }
+
+    @Test
+    @DisplayName("Promoció i enroc en SAN")
+    public void testPromotionAndCastling() {
+        board.loadFen("r3k3/1P6/8/8/8/8/8/4K2R w Kq - 0 1");
+
+        int promotion = parser.parse("bxa8=N");
+        assertEquals("b7a8n", Move.toString(promotion), "Promoció a cavall capturant");
+        assertEquals("e1g1", Move.toString(parser.parse("O-O")), "Enroc curt");
+        assertEquals("b7b8q", Move.toString(parser.parse("b8Q")), "Promoció sense '='");
+    }
+
+    @Test
+    @DisplayName("Lectura d'un PGN amb comentaris, variants, NAG i etiqueta FEN")
+    public void testReadGames() {
+        PgnReader reader = new PgnReader();
+        reader.read(ByteBuffer.wrap(GAMES.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, reader.getGames(), "Nombre de partides");
+        assertEquals(1, reader.getInvalidGames(), "Només la tercera partida és invàlida");
+        assertEquals(1, reader.getInvalidMoves(), "Una jugada rebutjada");
+        assertEquals(33 + 9 + 2 + 3, reader.getMoves(), "Jugades aplicades");
+    }
+
+    @Test
+    @DisplayName("El resultat no depèn de la mida del buffer de lectura")
+    public void testSmallBuffer() throws IOException {
+        PgnReader reader = new PgnReader(16);
+        reader.read(Channels.newChannel(new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(4, reader.getGames(), "Nombre de partides");
+        assertEquals(1, reader.getInvalidGames(), "Partides invàlides");
+        assertEquals(33 + 9 + 2 + 3, reader.getMoves(), "Jugades aplicades");
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del motor de cerca alfa-beta.
+ */
+@DisplayName("Tests del motor de cerca")
+public class SearchEngineTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private Board board;
+    private SearchEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        engine = new SearchEngine(board, new TranspositionTable(1));
+    }
+
+    private boolean isLegal(int move) {
+        return move != Move.NONE && new MoveGenerator(board).isLegal(move, board.isWhiteToMove());
+    }
+
+    @Test
+    @DisplayName("Troba el mat en una amb la puntuació de mat")
+    public void testMateInOne() {
+        board.loadFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        int move = engine.search(3, 0);
+
+        assertEquals("a1a8", Move.toString(move), "Ta8 és mat");
+        assertEquals(SearchEngine.MATE_SCORE - 1, engine.getBestScore(), "Mat a la primera mitja jugada");
+    }
+
+    @Test
+    @DisplayName("Troba el mat en dues sense cap mat en una")
+    public void testMateInTwo() {
+        board.loadFen("k7/8/2K5/8/8/8/8/1R6 w - - 0 1");
+
+        engine.search(2, 0);
+        assertTrue(engine.getBestScore() < SearchEngine.MATE_BOUND, "A profunditat 2 encara no es veu el mat");
+
+        int move = engine.search(4, 0);
+        assertEquals(SearchEngine.MATE_SCORE - 3, engine.getBestScore(), "Mat a la tercera mitja jugada");
+        board.makeMove(move);
+        engine.search(3, 0);
+        assertEquals(-SearchEngine.MATE_SCORE + 2, engine.getBestScore(), "Després de la jugada, les negres reben mat en una");
+    }
+
+    @Test
+    @DisplayName("La quiescència evita una captura enverinada i en tria una de segura")
+    public void testQuiescenceCapture() {
+        // Dxd7 guanya una torre però el rei la recaptura; Dxh5 guanya un cavall sense perill
+        board.loadFen("3k4/3r4/8/7n/8/8/8/K2Q4 w - - 0 1");
+
+        int move = engine.search(1, 0);
+
+        assertEquals("d1h5", Move.toString(move), "Captura segura del cavall");
+        assertTrue(engine.getBestScore() > 0, "Les blanques surten guanyant");
+    }
+
+    @Test
+    @DisplayName("La cerca respecta el límit de temps")
+    public void testTimeLimit() {
+        board.loadFen(KIWIPETE);
+        long start = System.currentTimeMillis();
+
+        int move = engine.search(SearchEngine.MAX_PLY, 200);
+
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed < 1500, "La cerca s'atura poc després del límit (" + elapsed + " ms)");
+        assertTrue(engine.getCompletedDepth() >= 1 && engine.getCompletedDepth() < SearchEngine.MAX_PLY,
+                "Profunditat parcial");
+        assertTrue(isLegal(move), "Moviment legal");
+    }
+
+    @Test
+    @DisplayName("Després de cercar, el tauler queda igual")
+    public void testBoardRestored() {
+        board.loadFen(KIWIPETE);
+        String fen = board.toFen();
+        long hash = board.hash();
+
+        int move = engine.search(4, 0);
+
+        assertEquals(fen, board.toFen(), "Mateixa posició");
+        assertEquals(hash, board.hash(), "Mateix hash");
+        assertEquals(board.computeHash(), board.hash(), "Hash incremental correcte");
+        assertTrue(isLegal(move), "Moviment legal");
+        assertTrue(engine.getNodes() > 0, "S'han visitat nodes");
+    }
+
+    private static long helperThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("cerca-auxiliar") && thread.isAlive())
+                .count();
+    }
+
+    @Test
+    @DisplayName("La cerca amb quatre fils tria un moviment legal i shutdown atura els fils auxiliars")
+    public void testMultiThreadedSearch() throws InterruptedException {
+        board.loadFen(KIWIPETE);
+        String fen = board.toFen();
+        long hash = board.hash();
+        long before = helperThreads();
+
+        engine.setThreads(4);
+        assertEquals(4, engine.getThreads(), "Fil principal i tres auxiliars");
+        int move = engine.search(4, 0);
+
+        assertTrue(isLegal(move), "Moviment legal");
+        assertEquals(fen, board.toFen(), "El tauler principal queda igual");
+        assertEquals(hash, board.hash(), "Mateix hash");
+        assertEquals(before + 3, helperThreads(), "Tres fils auxiliars");
+        assertTrue(engine.getNodes() > 0, "Nodes de tots els fils");
+
+        engine.shutdown();
+        assertEquals(1, engine.getThreads(), "Només queda el fil principal");
+        for (int i = 0; i < 100 && helperThreads() > before; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(before, helperThreads(), "Els fils auxiliars s'han aturat");
+        assertTrue(isLegal(engine.search(2, 0)), "El motor continua cercant amb un fil");
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests dels moviments especials: enroc, captura al pas i promoció.
+ */
+@DisplayName("Tests d'enroc, captura al pas i promoció")
+public class SpecialMovesTest {
+
+    private Board board;
+    private MoveGenerator generator;
+    private MoveValidator validator;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        board.clear();
+        generator = new MoveGenerator(board);
+        validator = new MoveValidator(board);
+    }
+
+    @Test
+    @DisplayName("Enroc curt i llarg de les blanques")
+    public void testCastling() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(7, 7, 'T');
+        board.setPiece(7, 0, 'T');
+        board.setPiece(0, 4, 'k');
+        board.setCastlingRights(Board.WHITE_KINGSIDE | Board.WHITE_QUEENSIDE);
+
+        assertEquals(MoveError.VALID.code(), validator.checkMove(7, 4, 7, 6, true), "Enroc curt vàlid");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(7, 4, 7, 2, true), "Enroc llarg vàlid");
+
+        long hashBefore = board.hash();
+        board.makeMove(generator.createMove(Bitboards.square(7, 4), Bitboards.square(7, 6), Piece.NO_PIECE));
+        assertEquals('K', board.getPiece(7, 6), "El rei ha d'arribar a g1");
+        assertEquals('T', board.getPiece(7, 5), "La torre ha d'arribar a f1");
+        assertEquals(Piece.EMPTY, board.getPiece(7, 7), "h1 ha de quedar buida");
+        assertEquals(0, board.getCastlingRights(), "Les blanques perden els drets d'enroc");
+        assertEquals(board.computeHash(), board.hash(), "El hash incremental ha de coincidir");
+
+        board.unmakeMove();
+        assertEquals('T', board.getPiece(7, 7), "Desfer ha de tornar la torre a h1");
+        assertEquals(hashBefore, board.hash(), "Desfer ha de restaurar el hash");
+    }
+
+    @Test
+    @DisplayName("No es pot enrocar sense drets, amb peces pel mig ni passant per escac")
+    public void testCastlingRejected() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(7, 7, 'T');
+        board.setPiece(7, 0, 'T');
+        board.setPiece(7, 1, 'C');
+        board.setPiece(0, 4, 'k');
+        board.setPiece(0, 5, 't');
+        board.setCastlingRights(Board.WHITE_QUEENSIDE);
+
+        assertEquals(MoveError.CASTLING_NOT_ALLOWED.code(), validator.checkMove(7, 4, 7, 6, true),
+                "Sense el dret d'enroc curt");
+        assertEquals(MoveError.PATH_BLOCKED.code(), validator.checkMove(7, 4, 7, 2, true),
+                "El cavall de b1 bloqueja l'enroc llarg");
+
+        board.setPiece(7, 1, Piece.EMPTY);
+        board.setCastlingRights(Board.WHITE_KINGSIDE | Board.WHITE_QUEENSIDE);
+        assertEquals(MoveError.CASTLING_THROUGH_CHECK.code(), validator.checkMove(7, 4, 7, 6, true),
+                "La torre de f8 ataca f1");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(7, 4, 7, 2, true),
+                "L'enroc llarg no passa per f1");
+    }
+
+    @Test
+    @DisplayName("Captura al pas just després de l'avanç doble")
+    public void testEnPassant() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(0, 4, 'k');
+        board.setPiece(3, 4, 'P');
+        board.setPiece(1, 3, 'p');
+        board.setWhiteToMove(false);
+
+        board.makeMove(generator.createMove(Bitboards.square(1, 3), Bitboards.square(3, 3), Piece.NO_PIECE));
+        assertEquals(Bitboards.square(2, 3), board.getEnPassantSquare(), "La casella al pas ha de ser d6");
+        assertEquals(MoveError.VALID.code(), validator.checkMove(3, 4, 2, 3, true), "exd6 al pas vàlid");
+
+        int move = generator.createMove(Bitboards.square(3, 4), Bitboards.square(2, 3), Piece.NO_PIECE);
+        assertTrue(Move.isEnPassant(move), "El moviment s'ha de marcar com a captura al pas");
+        board.makeMove(move);
+        assertEquals(Piece.EMPTY, board.getPiece(3, 3), "El peó negre capturat ha de desaparèixer");
+        assertEquals('P', board.getPiece(2, 3), "El peó blanc ha d'arribar a d6");
+        assertEquals(board.computeHash(), board.hash(), "El hash incremental ha de coincidir");
+
+        board.unmakeMove();
+        assertEquals('p', board.getPiece(3, 3), "Desfer ha de tornar el peó negre");
+    }
+
+    @Test
+    @DisplayName("La captura al pas només es pot fer a la jugada següent")
+    public void testEnPassantExpires() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(0, 4, 'k');
+        board.setPiece(3, 4, 'P');
+        board.setPiece(1, 3, 'p');
+        board.setWhiteToMove(false);
+
+        board.makeMove(generator.createMove(Bitboards.square(1, 3), Bitboards.square(3, 3), Piece.NO_PIECE));
+        board.makeMove(generator.createMove(Bitboards.square(7, 4), Bitboards.square(7, 3), Piece.NO_PIECE));
+        board.makeMove(generator.createMove(Bitboards.square(0, 4), Bitboards.square(0, 3), Piece.NO_PIECE));
+
+        assertEquals(MoveError.INVALID_PAWN_MOVE.code(), validator.checkMove(3, 4, 2, 3, true),
+                "La captura al pas ja no és possible");
+    }
+
+    @Test
+    @DisplayName("Promoció a reina per defecte i generació de les quatre promocions")
+    public void testPromotion() {
+        board.setPiece(7, 4, 'K');
+        board.setPiece(0, 7, 'k');
+        board.setPiece(1, 0, 'P');
+
+        int move = generator.createMove(Bitboards.square(1, 0), Bitboards.square(0, 0), Piece.NO_PIECE);
+        board.makeMove(move);
+        assertEquals('Q', board.getPiece(0, 0), "El peó ha de promocionar a reina");
+        board.unmakeMove();
+        assertEquals('P', board.getPiece(1, 0), "Desfer ha de tornar el peó");
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = generator.generateLegalMoves(moves, true);
+        int promotions = 0;
+        for (int i = 0; i < count; i++) {
+            if (Move.isPromotion(moves[i])) {
+                promotions++;
+            }
+        }
+        assertEquals(4, promotions, "S'han de generar les promocions a reina, torre, alfil i cavall");
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.chess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la generació i la consulta de les taules de finals.
+ * Les taules de 3 peces es generen un sol cop per a tota la classe.
+ */
+@DisplayName("Tests de les taules de finals")
+public class TablebaseTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+    private static int kqkPlies;
+    private static int krkPlies;
+    private static int kpkPlies;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        tablebase = new Tablebase(directory);
+        kqkPlies = tablebase.generate("KQK", 2);
+        krkPlies = tablebase.generate("KRK", 2);
+        kpkPlies = tablebase.generate("KPK", 2);
+    }
+
+    private static Board boardFromFen(String fen) {
+        Board board = new Board();
+        board.loadFen(fen);
+        return board;
+    }
+
+    @Test
+    @DisplayName("Els mats més llargs coincideixen amb els coneguts (10, 16 i 28 jugades)")
+    public void testLongestMates() {
+        assertEquals(20, kqkPlies, "KQK: mat en 10 jugades");
+        assertEquals(32, krkPlies, "KRK: mat en 16 jugades");
+        assertEquals(56, kpkPlies, "KPK: mat en 28 jugades");
+        for (String signature : new String[] {"KQK", "KRK", "KPK", "KBK", "KNK"}) {
+            assertTrue(Files.exists(directory.resolve(signature + Tablebase.FILE_EXTENSION)), "Fitxer " + signature);
+        }
+    }
+
+    @Test
+    @DisplayName("Mat en una, mat rebut i posicions amb el bàndol fort amb negres")
+    public void testProbe() {
+        assertEquals(1, tablebase.probe(boardFromFen("6k1/8/6K1/8/8/8/8/R7 w - - 0 1")), "Ta8 és mat");
+        assertEquals(-1, tablebase.probe(boardFromFen("R5k1/8/6K1/8/8/8/8/8 b - - 0 1")), "Les negres ja estan mat");
+        assertEquals(1, tablebase.probe(boardFromFen("r7/8/8/8/8/6k1/8/6K1 b - - 0 1")), "Posició reflectida");
+        assertEquals(Tablebase.DRAW, tablebase.probe(boardFromFen("8/8/8/8/8/8/8/4K2k w - - 0 1")), "Només reis");
+        assertEquals(Tablebase.NOT_FOUND, tablebase.probe(new Board()), "Massa peces");
+    }
+
+    @Test
+    @DisplayName("Rei i peó: l'oposició fa taules i el peó a la setena guanya")
+    public void testPawnEndings() {
+        assertEquals(Tablebase.DRAW, tablebase.probe(boardFromFen("8/8/8/8/8/4k3/4P3/4K3 w - - 0 1")),
+                "El rei negre davant del peó amb l'oposició");
+        assertTrue(Tablebase.isWin(tablebase.probe(boardFromFen("8/4P3/8/8/8/8/k7/4K3 w - - 0 1"))),
+                "El peó corona sense que el rei l'atrapi");
+    }
+
+    @Test
+    @DisplayName("Jugant les millors jugades de les taules el mat arriba en el nombre exacte de mitges jugades")
+    public void testPerfectPlay() {
+        Board board = boardFromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        MoveGenerator generator = new MoveGenerator(board);
+        int value = tablebase.probe(board);
+        assertTrue(Tablebase.isWin(value), "Torre i rei contra rei guanya");
+
+        int plies = 0;
+        int move;
+        while ((move = tablebase.bestMove(board, generator)) != Move.NONE) {
+            board.makeMove(move);
+            plies++;
+            int next = tablebase.probe(board);
+            assertEquals(Tablebase.pliesToMate(value) - 1, Tablebase.pliesToMate(next), "Cada jugada apropa el mat");
+            value = next;
+        }
+        assertTrue(generator.isCheckmate(board.isWhiteToMove()), "La partida acaba en mat");
+        assertTrue(plies > 1, "El mat no és immediat");
+    }
+
+    @Test
+    @DisplayName("La cerca fa servir les taules i troba el mat des de lluny")
+    public void testSearchUsesTablebase() {
+        Board board = boardFromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        SearchEngine engine = new SearchEngine(board, new TranspositionTable(1));
+        engine.setTablebase(tablebase);
+        int plies = Tablebase.pliesToMate(tablebase.probe(board));
+
+        engine.search(2, 0);
+
+        assertEquals(SearchEngine.MATE_SCORE - plies, engine.getBestScore(), "Puntuació de mat exacta");
+    }
+
+    @Test
+    @DisplayName("Una instància per a un altre fil comparteix les taules i la cerca amb diversos fils les fa servir")
+    public void testSharedInstance() {
+        Tablebase shared = new Tablebase(tablebase);
+        assertTrue(shared.sharesTables(tablebase), "Mateixes taules");
+        assertFalse(new Tablebase(directory).sharesTables(tablebase), "Una instància nova carrega les seves");
+        Board board = boardFromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        assertEquals(tablebase.probe(board), shared.probe(board), "Mateix valor");
+
+        SearchEngine engine = new SearchEngine(board, new TranspositionTable(1));
+        engine.setTablebase(tablebase);
+        engine.setThreads(3);
+        try {
+            engine.search(2, 0);
+            assertEquals(SearchEngine.MATE_SCORE - Tablebase.pliesToMate(tablebase.probe(board)),
+                    engine.getBestScore(), "Puntuació de mat exacta amb fils auxiliars");
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Les taules desades es tornen a carregar del disc")
+    public void testLoadFromDisk() {
+        Tablebase loaded = new Tablebase(directory);
+        String[] fens = {
+            "6k1/8/6K1/8/8/8/8/R7 w - - 0 1",
+            "8/8/8/4k3/8/8/8/R3K3 w - - 0 1",
+            "8/8/3k4/8/8/8/3q4/K7 w - - 0 1",
+            "8/8/8/8/8/4k3/4P3/4K3 b - - 0 1"
+        };
+        for (String fen : fens) {
+            assertEquals(tablebase.probe(boardFromFen(fen)), loaded.probe(boardFromFen(fen)), fen);
+        }
+        assertEquals(Tablebase.NOT_FOUND, new Tablebase(directory.resolve("buit")).probe(boardFromFen(fens[0])),
+                "Sense la taula no hi ha resultat");
+    }
+
+    @Test
+    @DisplayName("Signatures de material")
+    public void testSignatures() {
+        assertEquals("KQK", Tablebase.canonicalSignature("KKQ"), "El bàndol fort va primer");
+        assertEquals("KRKP", Tablebase.canonicalSignature("kpkr"), "Minúscules i bàndol fort");
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.canonicalSignature("KQ"), "Falta un rei");
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.canonicalSignature("KQRKR"), "Massa peces");
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.canonicalSignature("KXK"), "Peça desconeguda");
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.chess;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la taula de transposicions sense bloquejos.
+ */
+@DisplayName("Tests de la taula de transposicions")
+public class TranspositionTableTest {
+
+    private static final long KEY = 0x1234_5678_9ABC_DEF0L;
+
+    private TranspositionTable table;
+    private int move;
+
+    @BeforeEach
+    public void setUp() {
+        table = new TranspositionTable(1);
+        move = Move.encode(52, 36, Piece.index('P'), Piece.NO_PIECE, Piece.NO_PIECE, 0);
+    }
+
+    /**
+     * Una altra clau que cau a la mateixa entrada (els bits baixos són iguals).
+     */
+    private long sameSlot(long key) {
+        return key ^ ((long) table.getCapacity() << 8);
+    }
+
+    @Test
+    @DisplayName("Les dades desades es tornen a llegir igual, també amb puntuacions negatives i de mat")
+    public void testRoundTrip() {
+        int[] scores = {0, 57, -350, SearchEngine.MATE_SCORE - 3, -SearchEngine.MATE_SCORE + 5};
+        int[] bounds = {TranspositionTable.EXACT, TranspositionTable.LOWER_BOUND, TranspositionTable.UPPER_BOUND};
+        for (int score : scores) {
+            for (int bound : bounds) {
+                table.store(KEY, move, score, 12, bound);
+                long data = table.probe(KEY);
+                assertNotEquals(TranspositionTable.MISS, data, "Entrada trobada");
+                assertEquals(move, TranspositionTable.moveOf(data), "Moviment");
+                assertEquals(score, TranspositionTable.scoreOf(data), "Puntuació");
+                assertEquals(12, TranspositionTable.depthOf(data), "Profunditat");
+                assertEquals(bound, TranspositionTable.boundOf(data), "Cota");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Una clau diferent a la mateixa entrada no supera la comprovació XOR")
+    public void testWrongKeyRejected() {
+        table.store(KEY, move, 100, 5, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(sameSlot(KEY)), "Una altra posició a la mateixa entrada");
+        assertEquals(TranspositionTable.MISS, table.probe(KEY ^ 1L << 63), "Només canvia el bit més alt");
+        assertEquals(TranspositionTable.MISS, table.probe(KEY + 1), "Entrada buida");
+        assertNotEquals(TranspositionTable.MISS, table.probe(KEY), "La clau correcta sí que hi és");
+    }
+
+    @Test
+    @DisplayName("Una entrada més profunda de la mateixa cerca es conserva fins a la cerca següent")
+    public void testReplacement() {
+        long other = sameSlot(KEY);
+        table.newSearch();
+        table.store(KEY, move, 10, 8, TranspositionTable.EXACT);
+        table.store(other, Move.NONE, 20, 3, TranspositionTable.EXACT);
+        assertNotEquals(TranspositionTable.MISS, table.probe(KEY), "Es conserva la més profunda");
+        assertEquals(TranspositionTable.MISS, table.probe(other), "La menys profunda no entra");
+
+        table.store(KEY, Move.NONE, 30, 2, TranspositionTable.UPPER_BOUND);
+        long data = table.probe(KEY);
+        assertEquals(2, TranspositionTable.depthOf(data), "La mateixa posició sempre es substitueix");
+        assertEquals(move, TranspositionTable.moveOf(data), "Sense moviment nou es conserva l'anterior");
+
+        table.store(KEY, move, 10, 8, TranspositionTable.EXACT);
+        table.newSearch();
+        table.store(other, Move.NONE, 20, 3, TranspositionTable.EXACT);
+        assertEquals(20, TranspositionTable.scoreOf(table.probe(other)), "Les entrades d'una cerca anterior se substitueixen");
+        assertEquals(TranspositionTable.MISS, table.probe(KEY), "L'antiga ja no hi és");
+    }
+
+    @Test
+    @DisplayName("Els comptadors i clear")
+    public void testCountersAndClear() {
+        table.store(KEY, move, 1, 1, TranspositionTable.EXACT);
+        table.store(KEY + 1, move, 1, 1, TranspositionTable.EXACT);
+        table.probe(KEY);
+        table.probe(KEY + 1);
+        table.probe(sameSlot(KEY));
+        table.probe(KEY + 2);
+
+        assertEquals(4, table.getProbes(), "Consultes");
+        assertEquals(2, table.getHits(), "Encerts");
+        assertEquals(1, table.getCollisions(), "Entrada ocupada per una altra posició");
+        assertEquals(2, table.getStores(), "Escriptures");
+        assertEquals(0.5, table.getHitRate(), 1e-9, "Proporció d'encerts");
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(KEY), "Taula buida");
+        assertEquals(1, table.getProbes(), "Els comptadors es reinicien");
+        assertEquals(0, table.getHits(), "Sense encerts");
+        assertEquals(0, table.getStores(), "Sense escriptures");
+        assertEquals(0, table.getPermillFull(), "Ocupació zero");
+    }
+
+    @Test
+    @DisplayName("La mida es reporta tal com s'ha reservat i no es pot passar del màxim")
+    public void testSize() {
+        assertEquals(1, table.getSizeMb(), "1 MB");
+        assertEquals(65536, table.getCapacity(), "Entrades de 16 bytes");
+        assertEquals(64, new TranspositionTable(100).getSizeMb(), "S'arrodoneix cap avall a una potència de dos");
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(TranspositionTable.MAX_SIZE_MB + 1),
+                "Més del màxim");
+        assertEquals(1L << 29, (long) TranspositionTable.MAX_SIZE_MB * 1024 * 1024 / 16,
+                "El màxim cap en un sol array de long");
+    }
+
+    @Test
+    @DisplayName("Diversos fils escrivint i llegint alhora només veuen entrades coherents")
+    public void testConcurrentAccess() throws Exception {
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong verified = new AtomicLong();
+        Future<?>[] tasks = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            tasks[t] = pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // Poques claus per força més escriptures concurrents sobre les mateixes entrades
+                    long key = random.nextLong(4 * table.getCapacity()) * 0x9E37_79B9_7F4A_7C15L;
+                    if (random.nextBoolean()) {
+                        table.store(key, expectedMove(key), expectedScore(key), expectedDepth(key),
+                                TranspositionTable.LOWER_BOUND);
+                    } else {
+                        long data = table.probe(key);
+                        if (data != TranspositionTable.MISS) {
+                            assertEquals(expectedMove(key), TranspositionTable.moveOf(data), "Moviment coherent");
+                            assertEquals(expectedScore(key), TranspositionTable.scoreOf(data), "Puntuació coherent");
+                            assertEquals(expectedDepth(key), TranspositionTable.depthOf(data), "Profunditat coherent");
+                            verified.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "Els fils acaben");
+        assertTrue(verified.get() > 0, "S'han llegit entrades");
+    }
+
+    private static int expectedMove(long key) {
+        return (int) (key >>> 36) & 0x0FFFFFFF;
+    }
+
+    private static int expectedScore(long key) {
+        return (short) (key >>> 20);
+    }
+
+    private static int expectedDepth(long key) {
+        return (int) (key >>> 12) & 0xFF;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.chess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del parseig de jugades de la consola, en coordenades i en SAN.
+ */
+@DisplayName("Tests del parseig de jugades de la consola")
+public class UIConsoleTest {
+
+    private Board board;
+    private SanParser sanParser;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        sanParser = new SanParser(board);
+    }
+
+    private static int parse(CharSequence text, SanParser parser) {
+        return UIConsole.parseMove(text, 0, text.length(), parser);
+    }
+
+    @Test
+    @DisplayName("Les coordenades es llegeixen a una jugada compacta")
+    public void testCoordinates() {
+        int move = UIConsole.parseCoordinates("e2 e4", 0, 5);
+        assertEquals(Bitboards.square(1, 4), GameRecord.from((short) move), "Origen");
+        assertEquals(Bitboards.square(3, 4), GameRecord.to((short) move), "Destí");
+        assertEquals(Piece.NO_PIECE, GameRecord.promotionType((short) move), "Sense promoció");
+
+        assertEquals(move, parse("  E2 \t e4 ", null), "Espais, tabuladors i majúscules");
+        assertEquals(GameRecord.fromNotation("e2 e1=C"), parse("e2 e1=C", null), "Promoció a cavall");
+        assertEquals(GameRecord.fromNotation("e2 e1=T"), parse("e2 e1=t", null), "Lletra de promoció en minúscula");
+
+        StringBuilder line = new StringBuilder("e7 e5, e2 e4");
+        assertEquals(GameRecord.fromNotation("e2 e4"), UIConsole.parseCoordinates(line, 6, line.length()),
+                "Una part d'un StringBuilder, sense copiar-la");
+    }
+
+    @Test
+    @DisplayName("Les coordenades mal formades es rebutgen")
+    public void testInvalidCoordinates() {
+        String[] invalid = {"", "e2", "e2e4", "e2 e9", "i2 e4", "e2 e4 e6", "e2 e1=K", "e2 e1=", "e2-e4"};
+        for (String text : invalid) {
+            assertEquals(UIConsole.NO_MOVE, parse(text, null), "'" + text + "'");
+        }
+    }
+
+    @Test
+    @DisplayName("Les jugades SAN s'accepten amb les lletres angleses i les del projecte")
+    public void testSan() {
+        int knight = GameRecord.fromNotation("g8 f6");
+        assertEquals(knight, parse("Nf3", sanParser), "Cavall en anglès");
+        assertEquals(knight, parse(" Cf3+ ", sanParser), "Cavall amb la lletra del projecte");
+        assertEquals(UIConsole.NO_MOVE, parse("Nf3", null), "Sense intèrpret SAN només valen coordenades");
+        assertEquals(UIConsole.NO_MOVE, parse("Nf4", sanParser), "Jugada il·legal");
+
+        board.loadFen("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2");
+        assertEquals(GameRecord.fromNotation("e5 d4"), parse("exd5", sanParser), "Captura de peó");
+
+        board.loadFen("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+        assertEquals(GameRecord.fromNotation("e1 g1"), parse("O-O", sanParser), "Enroc curt de les negres");
+        assertEquals(GameRecord.fromNotation("e1 c1"), parse("O-O-O", sanParser), "Enroc llarg de les negres");
+
+        board.loadFen("8/4P3/8/8/8/k7/8/4K3 w - - 0 1");
+        assertEquals(GameRecord.fromNotation("e2 e1=C"), parse("e8=N", sanParser), "Promoció SAN a cavall");
+        assertEquals(GameRecord.fromNotation("e2 e1=A"), parse("e8=A", sanParser), "Promoció amb la lletra d'alfil");
+    }
+
+    @Test
+    @DisplayName("Cada mode d'entrada només accepta la seva notació, amb les seves files")
+    public void testInputModes() {
+        assertEquals(GameRecord.fromNotation("e7 e5"), parse("e4", sanParser), "SAN: la fila 4 és la de les blanques");
+        assertEquals(UIConsole.NO_MOVE, parse("e7 e5", sanParser), "El mode SAN no llegeix coordenades");
+        assertEquals(UIConsole.NO_MOVE, parse("e2 e4", sanParser), "Ni amb les files estàndard");
+        assertEquals(UIConsole.NO_MOVE, parse("e4", null), "El mode de coordenades no llegeix SAN");
+
+        MoveGenerator generator = new MoveGenerator(board);
+        UIConsole ui = new UIConsole();
+        String[][] inputs = {{"e7 e5", null}, {"e5", "SAN"}, {"Cf3", "SAN"}, {"b1 c3", null}, {"Bb5", "SAN"}};
+        for (String[] input : inputs) {
+            int move = ui.parseMove(input[0], input[1] != null ? sanParser : null);
+            assertNotEquals(UIConsole.NO_MOVE, move, input[0]);
+            board.makeMove(GameRecord.toMove((short) move, board, generator));
+        }
+        assertEquals("r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3", board.toFen(),
+                "1. e4 e5 2. Nf3 Nc6 3. Bb5, canviant de mode entre jugades");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.chess;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la interfície UCI.
+ */
+@DisplayName("Tests del protocol UCI")
+public class UciInterfaceTest {
+
+    private ByteArrayOutputStream output;
+    private UciInterface uci;
+
+    @BeforeEach
+    public void setUp() {
+        output = new ByteArrayOutputStream();
+        uci = new UciInterface(new BufferedReader(new StringReader("")),
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        uci.handle("quit");
+    }
+
+    private String output() {
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("uci i isready responen amb la identificació, les opcions i readyok")
+    public void testHandshake() {
+        uci.handle("uci");
+        uci.handle("isready");
+
+        String text = output();
+        assertTrue(text.contains("id name "), "Nom del motor");
+        assertTrue(text.contains("option name Hash type spin"), "Opció Hash");
+        assertTrue(text.contains("option name Threads type spin"), "Opció Threads");
+        assertTrue(text.contains("uciok\n"), "Final de la identificació");
+        assertTrue(text.endsWith("readyok\n"), "Resposta a isready");
+    }
+
+    @Test
+    @DisplayName("go depth envia línies info i el bestmove")
+    public void testGoDepth() throws InterruptedException {
+        uci.handle("setoption name Hash value 1");
+        uci.handle("setoption name Threads value 2");
+        uci.handle("position startpos moves e2e4 e7e5 g1f3");
+        uci.handle("go depth 3");
+        uci.waitForSearch();
+
+        String text = output();
+        assertTrue(text.contains("info depth 3 score cp "), "Línia info de la profunditat 3");
+        assertTrue(text.contains(" nodes ") && text.contains(" nps "), "Nodes i nodes per segon");
+        assertTrue(text.matches("(?s).*bestmove [a-h][1-8][a-h][1-8][qrbn]?\n"), "Moviment en notació UCI");
+    }
+
+    @Test
+    @DisplayName("Es troba el mat en una des d'una posició FEN")
+    public void testMateFromFen() throws InterruptedException {
+        uci.handle("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        uci.handle("go movetime 2000");
+        uci.waitForSearch();
+
+        String text = output();
+        assertTrue(text.contains("score mate 1"), "La puntuació indica mat en una");
+        assertTrue(text.endsWith("bestmove a1a8\n"), "La torre fa mat a a8");
+    }
+
+    @Test
+    @DisplayName("stop atura go infinite en pocs mil·lisegons")
+    public void testStopInfinite() throws InterruptedException {
+        uci.handle("position startpos");
+        uci.handle("go infinite");
+        Thread.sleep(200);
+        assertFalse(output().contains("bestmove"), "Amb infinite no s'envia bestmove sense stop");
+
+        long start = System.nanoTime();
+        uci.handle("stop");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(output().contains("bestmove "), "stop fa enviar el bestmove");
+        assertTrue(elapsedMillis < 500, "stop s'ha respost en " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Conversió de les puntuacions de mat")
+    public void testFormatScore() {
+        assertEquals("cp 35", UciInterface.formatScore(35), "Puntuació normal");
+        assertEquals("mate 1", UciInterface.formatScore(SearchEngine.MATE_SCORE - 1), "Mat en una");
+        assertEquals("mate 2", UciInterface.formatScore(SearchEngine.MATE_SCORE - 3), "Mat en dues");
+        assertEquals("mate -1", UciInterface.formatScore(-SearchEngine.MATE_SCORE + 2), "Rep mat en una");
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.chess;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del hash de Zobrist del tauler.
+ * Comprova que el hash incremental coincideix sempre amb el calculat des de zero.
+ */
+@DisplayName("Tests del hash de Zobrist")
+public class ZobristTest {
+
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 80;
+
+    private Board board;
+    private MoveGenerator generator;
+    private int[] moves;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        generator = new MoveGenerator(board);
+        moves = new int[MoveGenerator.MAX_MOVES];
+    }
+
+    @Test
+    @DisplayName("El hash incremental coincideix amb el recalculat després de seqüències aleatòries")
+    public void testIncrementalHashMatchesRecomputation() {
+        Random random = new Random(20260118L);
+
+        for (int game = 0; game < GAMES; game++) {
+            board.initializeBoard();
+            assertEquals(board.computeHash(), board.hash(), "Hash de la posició inicial");
+
+            int plies = 0;
+            while (plies < MAX_PLIES) {
+                int count = generator.generateLegalMoves(moves, board.isWhiteToMove());
+                if (count == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(count)]);
+                plies++;
+                assertEquals(board.computeHash(), board.hash(),
+                        "Hash després de " + plies + " mitges jugades (partida " + game + ")");
+            }
+
+            while (plies > 0) {
+                board.unmakeMove();
+                plies--;
+                assertEquals(board.computeHash(), board.hash(), "Hash després de desfer fins a " + plies);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Desfer tots els moviments torna al hash inicial")
+    public void testUnmakeRestoresInitialHash() {
+        long initial = board.hash();
+        int count = generator.generateLegalMoves(moves, true);
+
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            assertNotEquals(initial, board.hash(), "Cada moviment ha de canviar el hash");
+            board.unmakeMove();
+            assertEquals(initial, board.hash(), "El hash s'ha de restaurar en desfer");
+        }
+    }
+
+    @Test
+    @DisplayName("setPiece i movePiece mantenen el hash actualitzat")
+    public void testSetAndMovePieceKeepHash() {
+        board.setPiece(4, 4, 'C');
+        assertEquals(board.computeHash(), board.hash(), "Hash després de setPiece");
+
+        board.movePiece(4, 4, 2, 5);
+        assertEquals(board.computeHash(), board.hash(), "Hash després de movePiece amb captura");
+
+        board.setPiece(2, 5, '.');
+        assertEquals(board.computeHash(), board.hash(), "Hash després de buidar una casella");
+    }
+
+    @Test
+    @DisplayName("Dues transposicions arriben al mateix hash")
+    public void testTranspositionsHaveSameHash() {
+        Board other = new Board();
+
+        playMoves(board, 7, 6, 5, 5, 0, 6, 2, 5, 7, 1, 5, 2);
+        playMoves(other, 7, 1, 5, 2, 0, 6, 2, 5, 7, 6, 5, 5);
+
+        assertEquals(board.hash(), other.hash(), "Cb1-c3 i Cg1-f3 en ordre diferent");
+    }
+
+    private void playMoves(Board target, int... coords) {
+        MoveGenerator targetGenerator = new MoveGenerator(target);
+        for (int i = 0; i < coords.length; i += 4) {
+            int from = Bitboards.square(coords[i], coords[i + 1]);
+            int to = Bitboards.square(coords[i + 2], coords[i + 3]);
+            int count = targetGenerator.generateLegalMoves(moves, target.isWhiteToMove());
+            int found = Move.NONE;
+            for (int j = 0; j < count; j++) {
+                if (Move.from(moves[j]) == from && Move.to(moves[j]) == to) {
+                    found = moves[j];
+                }
+            }
+            assertNotEquals(Move.NONE, found, "Moviment no trobat");
+            target.makeMove(found);
+        }
+    }
+}